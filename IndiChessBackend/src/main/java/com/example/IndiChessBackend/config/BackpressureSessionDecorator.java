@@ -0,0 +1,235 @@
+package com.example.IndiChessBackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbound side of one WebSocket session, in place of Spring's ConcurrentWebSocketSessionDecorator.
+ *
+ * One thread writes to the session at a time; frames sent meanwhile wait in a buffer. A write
+ * blocked for longer than the send time limit always closes the session. A buffer over the size
+ * limit is handled by the overflow policy: DISCONNECT closes the session, DROP discards the
+ * oldest buffered MESSAGE frames until it fits (CONNECTED, RECEIPT and ERROR frames are kept).
+ * Sent, dropped and buffered frames are counted for WebSocketSessionMonitor.
+ */
+public class BackpressureSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackpressureSessionDecorator.class);
+
+    public enum OverflowPolicy { DROP, DISCONNECT }
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE\n".getBytes(StandardCharsets.UTF_8);
+
+    private final int sendTimeLimit;
+    private final int bufferSizeLimit;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<>();
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final AtomicInteger bufferedFrames = new AtomicInteger();
+    private volatile long sendStartTime;
+    private volatile boolean limitExceeded;
+    private volatile boolean closeInProgress;
+    private final Lock flushLock = new ReentrantLock();
+    private final Lock closeLock = new ReentrantLock();
+
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong droppedBytes = new AtomicLong();
+    private final AtomicInteger maxBufferedFrames = new AtomicInteger();
+    private final AtomicLong maxSendMillis = new AtomicLong();
+
+    public BackpressureSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+                                        OverflowPolicy overflowPolicy) {
+        super(delegate);
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (shouldNotSend()) {
+            return;
+        }
+        buffer.add(message);
+        bufferSize.addAndGet(message.getPayloadLength());
+        maxBufferedFrames.accumulateAndGet(bufferedFrames.incrementAndGet(), Math::max);
+
+        do {
+            if (!tryFlushMessageBuffer()) {
+                checkSessionLimits();
+                break;
+            }
+        } while (!buffer.isEmpty() && !shouldNotSend());
+    }
+
+    private boolean shouldNotSend() {
+        return limitExceeded || closeInProgress;
+    }
+
+    private boolean tryFlushMessageBuffer() throws IOException {
+        if (!flushLock.tryLock()) {
+            return false;
+        }
+        try {
+            while (true) {
+                WebSocketMessage<?> message = buffer.poll();
+                if (message == null || shouldNotSend()) {
+                    break;
+                }
+                bufferSize.addAndGet(-message.getPayloadLength());
+                bufferedFrames.decrementAndGet();
+                sendStartTime = System.currentTimeMillis();
+                getDelegate().sendMessage(message);
+                maxSendMillis.accumulateAndGet(System.currentTimeMillis() - sendStartTime, Math::max);
+                sendStartTime = 0;
+                sentFrames.incrementAndGet();
+                sentBytes.addAndGet(message.getPayloadLength());
+            }
+        } finally {
+            sendStartTime = 0;
+            flushLock.unlock();
+        }
+        return true;
+    }
+
+    private void checkSessionLimits() {
+        if (shouldNotSend() || !closeLock.tryLock()) {
+            return;
+        }
+        try {
+            if (getTimeSinceSendStarted() > sendTimeLimit) {
+                limitExceeded(String.format("Send time %d (ms) for session '%s' exceeded the allowed limit %d",
+                        getTimeSinceSendStarted(), getId(), sendTimeLimit));
+            } else if (bufferSize.get() > bufferSizeLimit) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    limitExceeded(String.format("Buffer size %d bytes for session '%s' exceeds the allowed limit %d",
+                            bufferSize.get(), getId(), bufferSizeLimit));
+                } else {
+                    dropOldestMessages();
+                }
+            }
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    private void dropOldestMessages() {
+        Iterator<WebSocketMessage<?>> it = buffer.iterator();
+        while (bufferSize.get() > bufferSizeLimit && it.hasNext()) {
+            WebSocketMessage<?> message = it.next();
+            if (isStompMessageFrame(message) && buffer.remove(message)) {
+                bufferSize.addAndGet(-message.getPayloadLength());
+                bufferedFrames.decrementAndGet();
+                droppedFrames.incrementAndGet();
+                droppedBytes.addAndGet(message.getPayloadLength());
+            }
+        }
+        logger.debug("Session {} is slow, dropped frames so far: {}", getId(), droppedFrames.get());
+    }
+
+    private static boolean isStompMessageFrame(WebSocketMessage<?> message) {
+        Object payload = message.getPayload();
+        if (payload instanceof String text) {
+            return text.startsWith("MESSAGE\n");
+        }
+        if (payload instanceof ByteBuffer bytes && bytes.remaining() >= MESSAGE_COMMAND.length) {
+            ByteBuffer view = bytes.duplicate();
+            for (byte b : MESSAGE_COMMAND) {
+                if (view.get() != b) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void limitExceeded(String reason) {
+        limitExceeded = true;
+        throw new SessionLimitExceededException(reason, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closeLock.lock();
+        try {
+            if (closeInProgress) {
+                return;
+            }
+            if (!CloseStatus.SESSION_NOT_RELIABLE.equals(status)) {
+                try {
+                    checkSessionLimits();
+                } catch (SessionLimitExceededException ex) {
+                    // Ignore
+                }
+                if (limitExceeded) {
+                    status = CloseStatus.SESSION_NOT_RELIABLE;
+                }
+            }
+            closeInProgress = true;
+            super.close(status);
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    public long getTimeSinceSendStarted() {
+        long start = sendStartTime;
+        return start > 0 ? System.currentTimeMillis() - start : 0;
+    }
+
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    public int getBufferedFrames() {
+        return bufferedFrames.get();
+    }
+
+    public int getMaxBufferedFrames() {
+        return maxBufferedFrames.get();
+    }
+
+    public long getSentFrames() {
+        return sentFrames.get();
+    }
+
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    public long getMaxSendMillis() {
+        return maxSendMillis.get();
+    }
+
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.IndiChessBackend.config;
+
+import com.example.IndiChessBackend.service.MoveFrameCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Move frame format negotiation.
+ *
+ * A client that sends "accept-move-format: binary-v1" in its CONNECT frame gets compact binary
+ * move frames (see MoveFrameCodec): its SUBSCRIBE to /topic/moves/{matchId} is served from
+ * /topic/moves-bin/{matchId}, whose messages have content-type application/octet-stream and
+ * arrive as binary WebSocket frames. Clients that do not ask keep the JSON MoveDTO.
+ * (SockJS transports cannot carry binary frames, so SockJS clients should not ask.)
+ */
+@Component
+public class MoveFormatInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoveFormatInterceptor.class);
+
+    public static final String ACCEPT_HEADER = "accept-move-format";
+    public static final String MOVES_PREFIX = "/topic/moves/";
+    public static final String BINARY_MOVES_PREFIX = "/topic/moves-bin/";
+
+    private static final String FORMAT_ATTRIBUTE = "moveFormat";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        Map<String, Object> session = accessor.getSessionAttributes();
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            List<String> accepted = accessor.getNativeHeader(ACCEPT_HEADER);
+            if (session != null && accepted != null && accepted.stream().anyMatch(v -> v.contains(MoveFrameCodec.FORMAT))) {
+                session.put(FORMAT_ATTRIBUTE, MoveFrameCodec.FORMAT);
+                logger.debug("WebSocket session {} negotiated {} move frames", accessor.getSessionId(), MoveFrameCodec.FORMAT);
+            }
+            return message;
+        }
+
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                && session != null && MoveFrameCodec.FORMAT.equals(session.get(FORMAT_ATTRIBUTE))
+                && accessor.getDestination() != null && accessor.getDestination().startsWith(MOVES_PREFIX)) {
+            StompHeaderAccessor rewritten = StompHeaderAccessor.wrap(message);
+            rewritten.setDestination(BINARY_MOVES_PREFIX + accessor.getDestination().substring(MOVES_PREFIX.length()));
+            return MessageBuilder.createMessage(message.getPayload(), rewritten.getMessageHeaders());
+        }
+        return message;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.IndiChessBackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs (rating periods, maintenance tasks)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
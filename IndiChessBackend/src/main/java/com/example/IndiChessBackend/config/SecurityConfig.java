@@ -80,6 +80,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())  // Disable CSRF for now (may re-enable if necessary)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/login", "/signup", "/oauth2/**", "/login/oauth2/**", "/me").permitAll()
+                        // Node-to-node calls; ClusterController checks the shared cluster secret
+                        .requestMatchers("/internal/cluster/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth -> oauth
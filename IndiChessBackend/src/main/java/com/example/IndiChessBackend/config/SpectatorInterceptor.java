@@ -0,0 +1,49 @@
+package com.example.IndiChessBackend.config;
+
+import com.example.IndiChessBackend.service.SpectatorHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers /topic/spectate/{matchId} subscriptions with the SpectatorHub, which delivers
+ * those frames itself, and drops them again on UNSUBSCRIBE or when the session ends.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpectatorInterceptor implements ChannelInterceptor {
+
+    private final SpectatorHub spectatorHub;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null || accessor.getSessionId() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case SUBSCRIBE -> {
+                String destination = accessor.getDestination();
+                if (destination != null && destination.startsWith(SpectatorHub.DESTINATION_PREFIX)) {
+                    try {
+                        long matchId = Long.parseLong(destination.substring(SpectatorHub.DESTINATION_PREFIX.length()));
+                        spectatorHub.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), matchId);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid spectator destination: " + destination);
+                    }
+                }
+            }
+            case UNSUBSCRIBE -> spectatorHub.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            case DISCONNECT -> spectatorHub.disconnect(accessor.getSessionId());
+            default -> {
+            }
+        }
+        return message;
+    }
+}
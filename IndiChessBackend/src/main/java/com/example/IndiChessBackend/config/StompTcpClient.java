@@ -0,0 +1,235 @@
+package com.example.IndiChessBackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.BufferingStompDecoder;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.tcp.ReconnectStrategy;
+import org.springframework.messaging.tcp.TcpConnection;
+import org.springframework.messaging.tcp.TcpConnectionHandler;
+import org.springframework.messaging.tcp.TcpOperations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * TCP client for the STOMP broker relay on plain JDK sockets (Spring's default client needs
+ * Reactor Netty, which this app does not ship).
+ *
+ * Each connection is read by its own virtual thread with a blocking socket; writes are
+ * serialized per connection. Inactivity callbacks (STOMP heart-beats) are checked by one shared
+ * timer thread, and connections opened with a ReconnectStrategy (the relay's system session)
+ * are reopened after a failure or close until the client shuts down.
+ */
+public class StompTcpClient implements TcpOperations<byte[]> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompTcpClient.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final String host;
+    private final int port;
+    private final int bufferSizeLimit;
+
+    private final ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService timers = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stomp-relay-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    public StompTcpClient(String host, int port) {
+        this(host, port, 64 * 1024);
+    }
+
+    public StompTcpClient(String host, int port, int bufferSizeLimit) {
+        this.host = host;
+        this.port = port;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    @Override
+    public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler) {
+        return connect(handler, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler, ReconnectStrategy reconnectStrategy) {
+        return connect(handler, reconnectStrategy);
+    }
+
+    private CompletableFuture<Void> connect(TcpConnectionHandler<byte[]> handler, ReconnectStrategy reconnectStrategy) {
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        if (stopping) {
+            connected.completeExceptionally(new IllegalStateException("STOMP TCP client is shut down"));
+            return connected;
+        }
+        readers.execute(() -> open(handler, reconnectStrategy, 1, connected));
+        return connected;
+    }
+
+    // Runs on the connection's reader thread until the connection closes
+    private void open(TcpConnectionHandler<byte[]> handler, ReconnectStrategy reconnectStrategy, int attempt,
+                      CompletableFuture<Void> connected) {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+        } catch (IOException ex) {
+            closeQuietly(socket);
+            handler.afterConnectFailure(ex);
+            connected.completeExceptionally(ex);
+            scheduleReconnect(handler, reconnectStrategy, attempt);
+            return;
+        }
+
+        Connection connection;
+        try {
+            connection = new Connection(socket);
+        } catch (IOException ex) {
+            closeQuietly(socket);
+            handler.afterConnectFailure(ex);
+            connected.completeExceptionally(ex);
+            scheduleReconnect(handler, reconnectStrategy, attempt);
+            return;
+        }
+        connections.add(connection);
+        handler.afterConnected(connection);
+        connected.complete(null);
+
+        connection.read(handler);
+
+        connections.remove(connection);
+        handler.afterConnectionClosed();
+        scheduleReconnect(handler, reconnectStrategy, 1);
+    }
+
+    private void scheduleReconnect(TcpConnectionHandler<byte[]> handler, ReconnectStrategy reconnectStrategy, int attempt) {
+        if (reconnectStrategy == null || stopping) {
+            return;
+        }
+        Long delay = reconnectStrategy.getTimeToNextAttempt(attempt);
+        if (delay == null) {
+            return;
+        }
+        try {
+            timers.schedule(() -> readers.execute(
+                            () -> open(handler, reconnectStrategy, attempt + 1, new CompletableFuture<>())),
+                    delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Shutting down
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdownAsync() {
+        stopping = true;
+        connections.forEach(Connection::close);
+        timers.shutdownNow();
+        readers.shutdown();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            // Ignore
+        }
+    }
+
+    private final class Connection implements TcpConnection<byte[]> {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final StompEncoder encoder = new StompEncoder();
+        private final List<ScheduledFuture<?>> inactivityChecks = new CopyOnWriteArrayList<>();
+        private volatile long lastReadTime = System.currentTimeMillis();
+        private volatile long lastWriteTime = System.currentTimeMillis();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        @Override
+        public CompletableFuture<Void> sendAsync(Message<byte[]> message) {
+            byte[] frame = encoder.encode(message);
+            try {
+                synchronized (out) {
+                    out.write(frame);
+                    out.flush();
+                }
+                lastWriteTime = System.currentTimeMillis();
+                return CompletableFuture.completedFuture(null);
+            } catch (IOException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+
+        @Override
+        public void onReadInactivity(Runnable runnable, long duration) {
+            checkInactivity(runnable, duration, true);
+        }
+
+        @Override
+        public void onWriteInactivity(Runnable runnable, long duration) {
+            checkInactivity(runnable, duration, false);
+        }
+
+        private void checkInactivity(Runnable runnable, long duration, boolean reads) {
+            long period = Math.max(1, duration / 2);
+            try {
+                inactivityChecks.add(timers.scheduleWithFixedDelay(() -> {
+                    long last = reads ? lastReadTime : lastWriteTime;
+                    if (System.currentTimeMillis() - last >= duration) {
+                        runnable.run();
+                    }
+                }, period, period, TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException ex) {
+                // Shutting down
+            }
+        }
+
+        void read(TcpConnectionHandler<byte[]> handler) {
+            BufferingStompDecoder decoder = new BufferingStompDecoder(new StompDecoder(), bufferSizeLimit);
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            try {
+                InputStream in = socket.getInputStream();
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    lastReadTime = System.currentTimeMillis();
+                    for (Message<byte[]> message : decoder.decode(ByteBuffer.wrap(Arrays.copyOf(buffer, read)))) {
+                        handler.handleMessage(message);
+                    }
+                }
+            } catch (Exception ex) {
+                if (!socket.isClosed()) {
+                    logger.debug("STOMP relay connection to {}:{} failed: {}", host, port, ex.getMessage());
+                    handler.handleFailure(ex);
+                }
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            inactivityChecks.forEach(check -> check.cancel(false));
+            closeQuietly(socket);
+        }
+    }
+}
@@ -42,11 +42,12 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             String token = extractToken(accessor);
 
             if (token != null) {
-                String username = jwtService.extractUsername(token);
+                JwtService.VerifiedToken verified = jwtService.verifyToken(token);
+                String username = verified.username();
                 if (username != null) {
                     try {
                         UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        if (jwtService.isTokenValid(token, userDetails)) {
+                        if (jwtService.isTokenValid(verified, userDetails)) {
                             UsernamePasswordAuthenticationToken authentication =
                                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
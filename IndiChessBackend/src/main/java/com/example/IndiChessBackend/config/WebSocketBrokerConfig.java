@@ -0,0 +1,71 @@
+package com.example.IndiChessBackend.config;
+
+import com.example.IndiChessBackend.service.SpectatorHub;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.simp.user.UserDestinationResolver;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * STOMP broker setup (what @EnableWebSocketMessageBroker would import; WebSocketConfig still
+ * configures it), with every session's outbound side wrapped by WebSocketSessionMonitor
+ * instead of Spring's default decorator, for the drop/disconnect policy and per-session stats.
+ * With the external broker relay, each node also subscribes its SpectatorHub to the relayed
+ * spectator frames.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final WebSocketSessionMonitor sessionMonitor;
+    private final SpectatorHub spectatorHub;
+
+    @Override
+    @Bean
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        return new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return sessionMonitor.decorate(session, getSendTimeLimit(), getSendBufferSizeLimit());
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessionMonitor.sessionClosed(session.getId(), closeStatus);
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    @Bean
+    public AbstractBrokerMessageHandler stompBrokerRelayMessageHandler(
+            AbstractSubscribableChannel clientInboundChannel, AbstractSubscribableChannel clientOutboundChannel,
+            AbstractSubscribableChannel brokerChannel, UserDestinationMessageHandler userDestinationMessageHandler,
+            @Nullable MessageHandler userRegistryMessageHandler, UserDestinationResolver userDestinationResolver) {
+        AbstractBrokerMessageHandler handler = super.stompBrokerRelayMessageHandler(clientInboundChannel,
+                clientOutboundChannel, brokerChannel, userDestinationMessageHandler, userRegistryMessageHandler,
+                userDestinationResolver);
+        if (handler instanceof StompBrokerRelayMessageHandler relay) {
+            Map<String, MessageHandler> subscriptions = new HashMap<>(relay.getSystemSubscriptions());
+            subscriptions.put(SpectatorHub.RELAY_DESTINATION, spectatorHub::handleRelayedFrame);
+            relay.setSystemSubscriptions(subscriptions);
+        }
+        return handler;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.IndiChessBackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open WebSocket sessions and their outbound backpressure (see BackpressureSessionDecorator):
+ * buffered frames, drops, and how long the current write has been blocked.
+ */
+@Component
+public class WebSocketSessionMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionMonitor.class);
+
+    private final BackpressureSessionDecorator.OverflowPolicy overflowPolicy;
+
+    private final Map<String, BackpressureSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final LongAdder droppedFramesClosed = new LongAdder();
+    private final LongAdder slowDisconnects = new LongAdder();
+
+    WebSocketSessionMonitor(@Value("${websocket.overflow-policy:disconnect}") String overflowPolicy) {
+        this.overflowPolicy = BackpressureSessionDecorator.OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase());
+    }
+
+    public WebSocketSession decorate(WebSocketSession session, int sendTimeLimit, int bufferSizeLimit) {
+        BackpressureSessionDecorator decorated =
+                new BackpressureSessionDecorator(session, sendTimeLimit, bufferSizeLimit, overflowPolicy);
+        sessions.put(session.getId(), decorated);
+        return decorated;
+    }
+
+    public void sessionClosed(String sessionId, CloseStatus status) {
+        BackpressureSessionDecorator session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        droppedFramesClosed.add(session.getDroppedFrames());
+        if (session.isLimitExceeded() || CloseStatus.SESSION_NOT_RELIABLE.equals(status)) {
+            slowDisconnects.increment();
+            logger.warn("🐢 Closed slow WebSocket session {} ({}): {} frames buffered, {} dropped",
+                    sessionId, username(session), session.getBufferedFrames(), session.getDroppedFrames());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long dropped = droppedFramesClosed.sum();
+        int buffered = 0;
+        for (BackpressureSessionDecorator session : sessions.values()) {
+            dropped += session.getDroppedFrames();
+            buffered += session.getBufferedFrames();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("sessions", sessions.size());
+        stats.put("framesBuffered", buffered);
+        stats.put("framesDropped", dropped);
+        stats.put("slowDisconnects", slowDisconnects.sum());
+        return stats;
+    }
+
+    /**
+     * Sessions furthest behind: longest blocked write first, then most buffered bytes
+     */
+    public List<Map<String, Object>> getSlowestSessions(int limit) {
+        return sessions.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, BackpressureSessionDecorator> e) ->
+                                e.getValue().getTimeSinceSendStarted()).reversed()
+                        .thenComparing(Comparator.comparingInt((Map.Entry<String, BackpressureSessionDecorator> e) ->
+                                e.getValue().getBufferSize()).reversed()))
+                .limit(limit)
+                .map(e -> view(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    private static Map<String, Object> view(String sessionId, BackpressureSessionDecorator session) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("sessionId", sessionId);
+        view.put("username", username(session));
+        view.put("blockedMillis", session.getTimeSinceSendStarted());
+        view.put("bufferedFrames", session.getBufferedFrames());
+        view.put("bufferedBytes", session.getBufferSize());
+        view.put("maxBufferedFrames", session.getMaxBufferedFrames());
+        view.put("sentFrames", session.getSentFrames());
+        view.put("sentBytes", session.getSentBytes());
+        view.put("droppedFrames", session.getDroppedFrames());
+        view.put("maxSendMillis", session.getMaxSendMillis());
+        return view;
+    }
+
+    private static String username(WebSocketSession session) {
+        return session.getPrincipal() != null ? session.getPrincipal().getName() : null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.IndiChessBackend.controller;
+
+import com.example.IndiChessBackend.config.WebSocketSessionMonitor;
+import com.example.IndiChessBackend.service.GameBroadcaster;
+import com.example.IndiChessBackend.service.GameCluster;
+import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.Glicko2RatingJob;
+import com.example.IndiChessBackend.service.RatingRecomputeService;
+import com.example.IndiChessBackend.service.SpectatorHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Operator endpoints, only available to the users listed in admin.usernames
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final RatingRecomputeService ratingRecomputeService;
+    private final GameBroadcaster gameBroadcaster;
+    private final SpectatorHub spectatorHub;
+    private final WebSocketSessionMonitor sessionMonitor;
+    private final GameCluster gameCluster;
+    private final GameService gameService;
+    private final Glicko2RatingJob glicko2RatingJob;
+
+    // Comma-separated usernames
+    @Value("${admin.usernames:}")
+    private String adminUsernames;
+
+    /**
+     * Rebuild all ratings from match history in the background.
+     * Resumes an interrupted run unless fresh=true.
+     */
+    @PostMapping("/ratings/recompute")
+    public ResponseEntity<Map<String, Object>> recomputeRatings(Principal principal,
+                                                                @RequestParam(defaultValue = "false") boolean fresh) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        if (!ratingRecomputeService.start(fresh)) {
+            return ResponseEntity.status(409).body(Map.of("error", "A rating recompute is already running"));
+        }
+        return ResponseEntity.accepted().body(Map.of("started", true, "fresh", fresh));
+    }
+
+    /**
+     * Progress of the current (or last) rating recompute
+     */
+    @GetMapping("/ratings/recompute")
+    public ResponseEntity<Map<String, Object>> getRecomputeStatus(Principal principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(ratingRecomputeService.getStatus());
+    }
+
+    /**
+     * Glicko-2 rating period: games waiting for it to close and throughput of the last closed one
+     */
+    @GetMapping("/ratings/glicko2")
+    public ResponseEntity<Map<String, Object>> getGlicko2Status(Principal principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("pendingGames", glicko2RatingJob.getPendingGameCount());
+        response.put("lastRun", glicko2RatingJob.getLastRun());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Game topic broadcasts: messages, encode time, payload size and fan-out per topic
+     */
+    @GetMapping("/broadcasts")
+    public ResponseEntity<Map<String, Object>> getBroadcastStats(Principal principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(gameBroadcaster.getStats());
+    }
+
+    /**
+     * Spectator fan-out: viewers, frames sent and conflated, most watched games
+     */
+    @GetMapping("/spectators")
+    public ResponseEntity<Map<String, Object>> getSpectatorStats(Principal principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(spectatorHub.getStats());
+    }
+
+    /**
+     * WebSocket backpressure totals and the slowest sessions (blocked writes, buffered frames, drops)
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> getSlowSessions(Principal principal,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        Map<String, Object> response = new LinkedHashMap<>(sessionMonitor.getStats());
+        response.put("slowest", sessionMonitor.getSlowestSessions(Math.max(1, Math.min(limit, 200))));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cluster members as this node sees them, and the live games it owns
+     */
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getCluster(Principal principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        Map<String, Object> response = new LinkedHashMap<>(gameCluster.getStats());
+        response.put("activeGames", gameService.getActiveGameIds().size());
+        return ResponseEntity.ok(response);
+    }
+
+    private boolean isAdmin(Principal principal) {
+        if (principal == null) {
+            return false;
+        }
+        Set<String> admins = Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        return admins.contains(principal.getName());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.IndiChessBackend.controller;
+
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import com.example.IndiChessBackend.service.GameCluster;
+import com.example.IndiChessBackend.service.GameCommandService;
+import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.HttpGameClusterTransport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints for GameCluster (see HttpGameClusterTransport). Not for clients: every
+ * call must carry the shared cluster.secret, and all are refused while it is unset.
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+@RequiredArgsConstructor
+public class ClusterController {
+
+    private final GameCluster gameCluster;
+    private final GameCommandService gameCommandService;
+    private final GameService gameService;
+
+    // A command forwarded by a node that does not own the game
+    @PostMapping("/commands")
+    public ResponseEntity<Map<String, Object>> executeCommand(
+            @RequestHeader(value = HttpGameClusterTransport.SECRET_HEADER, required = false) String secret,
+            @RequestBody GameCommand command) {
+        if (!gameCluster.isTrusted(secret)) {
+            return forbidden();
+        }
+        gameCommandService.execute(command);
+        return ResponseEntity.ok(Map.of("executed", true));
+    }
+
+    @GetMapping("/games/{matchId}")
+    public ResponseEntity<?> openGame(
+            @RequestHeader(value = HttpGameClusterTransport.SECRET_HEADER, required = false) String secret,
+            @PathVariable Long matchId) {
+        if (!gameCluster.isTrusted(secret)) {
+            return forbidden();
+        }
+        try {
+            return ResponseEntity.ok(gameService.openGame(matchId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // A game handed off by its previous owner
+    @PostMapping("/games")
+    public ResponseEntity<Map<String, Object>> takeOverGame(
+            @RequestHeader(value = HttpGameClusterTransport.SECRET_HEADER, required = false) String secret,
+            @RequestBody GameSnapshot snapshot) {
+        if (!gameCluster.isTrusted(secret)) {
+            return forbidden();
+        }
+        gameService.importGame(snapshot);
+        return ResponseEntity.ok(Map.of("matchId", snapshot.getMatchId(), "ply", snapshot.getPly()));
+    }
+
+    @PostMapping("/members")
+    public ResponseEntity<Map<String, Object>> join(
+            @RequestHeader(value = HttpGameClusterTransport.SECRET_HEADER, required = false) String secret,
+            @RequestBody GameCluster.Member member) {
+        if (!gameCluster.isTrusted(secret)) {
+            return forbidden();
+        }
+        gameCluster.join(member);
+        return ResponseEntity.ok(gameCluster.getStats());
+    }
+
+    @DeleteMapping("/members/{nodeId}")
+    public ResponseEntity<Map<String, Object>> leave(
+            @RequestHeader(value = HttpGameClusterTransport.SECRET_HEADER, required = false) String secret,
+            @PathVariable String nodeId) {
+        if (!gameCluster.isTrusted(secret)) {
+            return forbidden();
+        }
+        gameCluster.leave(nodeId);
+        return ResponseEntity.ok(gameCluster.getStats());
+    }
+
+    private static ResponseEntity<Map<String, Object>> forbidden() {
+        return ResponseEntity.status(403).body(Map.of("error", "Cluster secret required"));
+    }
+}
@@ -1,19 +1,18 @@
 package com.example.IndiChessBackend.controller;
 import com.example.IndiChessBackend.model.DTO.*;
+import com.example.IndiChessBackend.service.GameCommandService;
 import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.SpectatorHub;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.*;
-import java.util.ArrayList;
 
 import java.security.Principal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,155 +22,88 @@ import java.util.Map;
 public class GameController {
 
     private final GameService gameService;
+    private final GameCommandService gameCommandService;
+    private final SpectatorHub spectatorHub;
 
     // REST endpoint to get game details
     @GetMapping("/{matchId}")
-    public ResponseEntity<GameDTO> getGame(@PathVariable Long matchId,
-                                           @CookieValue(value = "JWT", required = false) String token) {
+    public ResponseEntity<GameDTO> getGame(@PathVariable Long matchId, Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
         try {
-            // In a real implementation, you'd validate the token and get user info
-            GameDTO game = gameService.getGameDetails(matchId, null); // Pass request if needed
+            // Served from the live-game read model (see LiveGameReadModel)
+            GameDTO game = gameService.getGameDetailsForUser(matchId, principal.getName());
             return ResponseEntity.ok(game);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    // WebSocket endpoint for making moves
+    // WebSocket endpoints; each command runs on the node that owns the game (see GameCommandService)
     @MessageMapping("/game/{matchId}/move")
-    @SendTo("/topic/moves/{matchId}")
-    public MoveDTO handleMove(@DestinationVariable Long matchId,
-                              @Payload MoveRequest moveRequest,
-                              Principal principal) {
-        try {
-            System.out.println("Received move for game " + matchId + " from " + principal.getName());
-            return gameService.processMove(matchId, moveRequest, principal);
-        } catch (Exception e) {
-            System.err.println("Error processing move: " + e.getMessage());
-            MoveDTO errorMove = new MoveDTO();
-            errorMove.setMatchId(matchId);
-            errorMove.setMoveNotation("ERROR: " + e.getMessage());
-            return errorMove;
-        }
+    public void handleMove(@DestinationVariable Long matchId,
+                           @Payload MoveRequest moveRequest,
+                           Principal principal) {
+        GameCommand command = GameCommand.of(GameCommand.Type.MOVE, matchId, principal.getName());
+        command.setMove(moveRequest);
+        gameCommandService.submit(command);
     }
 
-    // WebSocket endpoint for player joining
     @MessageMapping("/game/{matchId}/join")
-    @SendTo("/topic/game/{matchId}")
-    public GameStatusDTO handlePlayerJoin(@DestinationVariable Long matchId,
-                                          @Payload JoinRequest joinRequest,
-                                          Principal principal) {
-        try {
-            System.out.println("Player " + principal.getName() + " joining game " + matchId);
-            return gameService.handlePlayerJoin(matchId, joinRequest, principal);
-        } catch (Exception e) {
-            System.err.println("Error handling player join: " + e.getMessage());
-            GameStatusDTO errorStatus = new GameStatusDTO();
-            errorStatus.setMatchId(matchId);
-            errorStatus.setStatus("ERROR: " + e.getMessage());
-            return errorStatus;
-        }
+    public void handlePlayerJoin(@DestinationVariable Long matchId,
+                                 @Payload JoinRequest joinRequest,
+                                 Principal principal) {
+        GameCommand command = GameCommand.of(GameCommand.Type.JOIN, matchId, principal.getName());
+        command.setJoin(joinRequest);
+        gameCommandService.submit(command);
     }
 
-    // WebSocket endpoint for resigning
     @MessageMapping("/game/{matchId}/resign")
-    @SendTo("/topic/game-state/{matchId}")
-    public Map<String, Object> handleResign(@DestinationVariable Long matchId,
-                                            Principal principal) {
-        try {
-            System.out.println("Player " + principal.getName() + " resigning from game " + matchId);
-            gameService.handleResignation(matchId, principal.getName());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "RESIGNATION");
-            response.put("player", principal.getName());
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
-        } catch (Exception e) {
-            System.err.println("Error handling resignation: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
-        }
+    public void handleResign(@DestinationVariable Long matchId,
+                             Principal principal) {
+        gameCommandService.submit(GameCommand.of(GameCommand.Type.RESIGN, matchId, principal.getName()));
     }
 
-    // WebSocket endpoint for draw offer
+    // The confirmation goes to /user/queue/draw-offers
     @MessageMapping("/game/{matchId}/draw")
-    @SendToUser("/queue/draw-offers")
-    public Map<String, Object> handleDrawOffer(@DestinationVariable Long matchId,
-                                               Principal principal) {
-        try {
-            System.out.println("Player " + principal.getName() + " offering draw in game " + matchId);
-            gameService.handleDrawOffer(matchId, principal.getName());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "DRAW_OFFER_SENT");
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
-        } catch (Exception e) {
-            System.err.println("Error handling draw offer: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
-        }
+    public void handleDrawOffer(@DestinationVariable Long matchId,
+                                Principal principal) {
+        gameCommandService.submit(GameCommand.of(GameCommand.Type.DRAW_OFFER, matchId, principal.getName()));
     }
 
-    // WebSocket endpoint for accepting draw
     @MessageMapping("/game/{matchId}/draw/accept")
-    @SendTo("/topic/game-state/{matchId}")
-    public Map<String, Object> handleDrawAccept(@DestinationVariable Long matchId,
-                                                Principal principal) {
-        try {
-            System.out.println("Player " + principal.getName() + " accepting draw in game " + matchId);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "DRAW_ACCEPTED");
-            response.put("player", principal.getName());
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            response.put("status", "DRAW");
-            return response;
-        } catch (Exception e) {
-            System.err.println("Error handling draw accept: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
-        }
+    public void handleDrawAccept(@DestinationVariable Long matchId,
+                                 Principal principal) {
+        gameCommandService.submit(GameCommand.of(GameCommand.Type.DRAW_ACCEPT, matchId, principal.getName()));
     }
 
-    // WebSocket endpoint for chat messages
     @MessageMapping("/game/{matchId}/chat")
-    @SendTo("/topic/chat/{matchId}")
-    public Map<String, Object> handleChatMessage(@DestinationVariable Long matchId,
-                                                 @Payload Map<String, String> chatMessage,
-                                                 Principal principal) {
-        try {
-            System.out.println("Chat message from " + principal.getName() + " in game " + matchId);
+    public void handleChatMessage(@DestinationVariable Long matchId,
+                                  @Payload Map<String, String> chatMessage,
+                                  Principal principal) {
+        GameCommand command = GameCommand.of(GameCommand.Type.CHAT, matchId, principal.getName());
+        command.setMessage(chatMessage.get("message"));
+        gameCommandService.submit(command);
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "CHAT_MESSAGE");
-            response.put("from", principal.getName());
-            response.put("message", chatMessage.get("message"));
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
-        } catch (Exception e) {
-            System.err.println("Error handling chat message: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
-        }
+    // After a reconnect: {"lastSeq": n} with the last "seq" header seen on the game's topics; the
+    // missed frames (or the whole game) come back on /user/queue/resync
+    @MessageMapping("/game/{matchId}/resync")
+    public void handleResync(@DestinationVariable Long matchId,
+                             @Payload Map<String, Long> resyncRequest,
+                             Principal principal) {
+        GameCommand command = GameCommand.of(GameCommand.Type.RESYNC, matchId, principal.getName());
+        command.setLastSeq(resyncRequest.get("lastSeq"));
+        gameCommandService.submit(command);
     }
 
     // REST endpoint to check game status
     @GetMapping("/{matchId}/status")
     public ResponseEntity<Map<String, Object>> getGameStatus(@PathVariable Long matchId) {
         try {
-            Map<String, Object> status = new HashMap<>();
-            status.put("matchId", matchId);
-            status.put("isActive", true);
+            Map<String, Object> status = gameService.getGameStatus(matchId);
+            status.put("spectators", spectatorHub.getViewerCount(matchId));
             status.put("timestamp", System.currentTimeMillis());
             return ResponseEntity.ok(status);
         } catch (Exception e) {
@@ -179,14 +111,15 @@ public class GameController {
         }
     }
 
-    // REST endpoint to get move history (optional)
+    // REST endpoint to get move history
     @GetMapping("/{matchId}/moves")
     public ResponseEntity<Map<String, Object>> getMoveHistory(@PathVariable Long matchId) {
         try {
+            List<MoveHistoryDTO> moves = gameService.getMoveHistory(matchId);
             Map<String, Object> response = new HashMap<>();
             response.put("matchId", matchId);
-            response.put("moves", new ArrayList<>()); // Return empty list for now
-            response.put("count", 0);
+            response.put("moves", moves);
+            response.put("count", moves.size());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
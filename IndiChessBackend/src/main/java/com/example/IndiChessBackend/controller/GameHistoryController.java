@@ -1,24 +1,23 @@
 package com.example.IndiChessBackend.controller;
 
-import com.example.IndiChessBackend.model.Match;
-import com.example.IndiChessBackend.model.Move;
+import com.example.IndiChessBackend.model.DTO.MoveHistoryDTO;
 import com.example.IndiChessBackend.model.User;
 import com.example.IndiChessBackend.repo.MatchRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
+import com.example.IndiChessBackend.service.GameHistoryService;
+import com.example.IndiChessBackend.service.GameService;
 import com.example.IndiChessBackend.service.MoveService;
 import com.example.IndiChessBackend.service.MatchService;
 import com.example.IndiChessBackend.service.JwtService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Controller for game history and move retrieval
@@ -32,15 +31,19 @@ public class GameHistoryController {
     private final MoveService moveService;
     private final MatchService matchService;
     private final MatchRepo matchRepo;
+    private final GameHistoryService gameHistoryService;
     private final UserRepo userRepo;
     private final JwtService jwtService;
+    private final GameService gameService;
 
     /**
-     * Get all matches for the authenticated user
+     * Get matches for the authenticated user, newest first.
+     * Pass the returned nextCursor back as cursor to fetch the following page.
      */
     @GetMapping("/my-games")
     public ResponseEntity<Map<String, Object>> getMyGames(HttpServletRequest request,
-                                                           @RequestParam(defaultValue = "10") int limit) {
+                                                           @RequestParam(defaultValue = "10") int limit,
+                                                           @RequestParam(required = false) String cursor) {
         try {
             String token = getJwtFromCookie(request);
             String username = jwtService.extractUsername(token);
@@ -54,41 +57,17 @@ public class GameHistoryController {
                 return ResponseEntity.status(404).body(Map.of("error", "User not found"));
             }
             
-            // Get recent matches (limited)
-            List<Match> matches = matchRepo.findRecentMatchesByUser(user, PageRequest.of(0, limit));
-            
-            // Convert to simpler response format
-            List<Map<String, Object>> gamesList = matches.stream().map(match -> {
-                Map<String, Object> gameInfo = new HashMap<>();
-                gameInfo.put("id", match.getId());
-                gameInfo.put("player1", match.getPlayer1().getUsername());
-                gameInfo.put("player2", match.getPlayer2().getUsername());
-                gameInfo.put("status", match.getStatus().toString());
-                gameInfo.put("createdAt", match.getCreatedAt());
-                gameInfo.put("finishedAt", match.getFinishedAt());
-                gameInfo.put("currentPly", match.getCurrentPly());
-                
-                // Determine result for this user
-                String result = "In Progress";
-                if (match.getStatus() != null) {
-                    if (match.getStatus().toString().contains("PLAYER1_WON")) {
-                        result = match.getPlayer1().equals(user) ? "Win" : "Loss";
-                    } else if (match.getStatus().toString().contains("PLAYER2_WON")) {
-                        result = match.getPlayer2().equals(user) ? "Win" : "Loss";
-                    } else if (match.getStatus().toString().contains("DRAW")) {
-                        result = "Draw";
-                    }
-                }
-                gameInfo.put("result", result);
-                
-                return gameInfo;
-            }).collect(Collectors.toList());
+            GameHistoryService.HistoryPage page = gameHistoryService.getHistoryPage(user.getUserId(), cursor, limit);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("totalGames", gamesList.size());
-            response.put("games", gamesList);
+            response.put("totalGames", page.games().size());
+            response.put("games", page.games());
+            response.put("nextCursor", page.nextCursor());
+            response.put("hasMore", page.nextCursor() != null);
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
@@ -107,12 +86,12 @@ public class GameHistoryController {
     }
 
     /**
-     * Get all moves for a specific match
+     * Get all moves for a specific match (from memory while it is live, then from its archive)
      */
     @GetMapping("/match/{matchId}/moves")
     public ResponseEntity<Map<String, Object>> getMatchMoves(@PathVariable Long matchId) {
         try {
-            List<Move> moves = moveService.getMovesForMatch(matchId);
+            List<MoveHistoryDTO> moves = gameService.getMoveHistory(matchId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("matchId", matchId);
@@ -1,5 +1,6 @@
 package com.example.IndiChessBackend.controller;
 
+import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Match;
 import com.example.IndiChessBackend.model.User;
 import com.example.IndiChessBackend.service.JwtService;
@@ -23,8 +24,9 @@ public class MatchController {
     private final JwtService jwtService;
 
     @PostMapping
-    public ResponseEntity<Map<String, Long>> createMatch(HttpServletRequest request) {
-        Optional<Long> matchIdOpt = matchService.createMatch(request);
+    public ResponseEntity<Map<String, Long>> createMatch(HttpServletRequest request,
+                                                         @RequestParam(defaultValue = "STANDARD") GameType gameType) {
+        Optional<Long> matchIdOpt = matchService.createMatch(request, gameType);
 
         Map<String, Long> response = new HashMap<>();
         if (matchIdOpt.isPresent()) {
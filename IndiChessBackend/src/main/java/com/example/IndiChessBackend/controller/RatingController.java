@@ -1,21 +1,33 @@
 package com.example.IndiChessBackend.controller;
 
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Rating;
+import com.example.IndiChessBackend.model.RatingHistory;
 import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.RatingRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
+import com.example.IndiChessBackend.service.LeaderboardIndex;
+import com.example.IndiChessBackend.service.LeaderboardService;
+import com.example.IndiChessBackend.service.RatingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/rating")
 @RequiredArgsConstructor
 public class RatingController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_CHART_POINTS = 500;
+
     private final UserRepo userRepo;
+    private final RatingRepo ratingRepo;
+    private final LeaderboardService leaderboardService;
+    private final RatingService ratingService;
 
     /**
      * Get current user's rating information
@@ -35,6 +47,8 @@ public class RatingController {
         response.put("username", username);
         response.put("rating", rating);
         response.put("country", user.getCountry());
+        leaderboardService.getRank(GameType.STANDARD, username).ifPresent(rank -> response.put("rank", rank));
+        response.put("ratings", ratingsByType(user));
         
         return ResponseEntity.ok(response);
     }
@@ -65,33 +79,136 @@ public class RatingController {
     @GetMapping("/leaderboard")
     public ResponseEntity<List<Map<String, Object>>> getLeaderboard(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "STANDARD") GameType gameType) {
+        
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Map<String, Object>> leaderboard = toResponse(leaderboardService.getPage(gameType, Math.max(0, page), pageSize));
         
-        List<User> allUsers = userRepo.findAll();
+        return ResponseEntity.ok(leaderboard);
+    }
+
+    /**
+     * Get current user's rank and the players just above and below them
+     */
+    @GetMapping("/leaderboard/around-me")
+    public ResponseEntity<Map<String, Object>> getAroundMe(Principal principal,
+                                                           @RequestParam(defaultValue = "5") int radius,
+                                                           @RequestParam(defaultValue = "STANDARD") GameType gameType) {
+        String username = principal.getName();
+        OptionalInt rank = leaderboardService.getRank(gameType, username);
+        if (rank.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
         
-        List<Map<String, Object>> leaderboard = allUsers.stream()
-            .sorted((u1, u2) -> {
-                int rating1 = u1.getRating() != null ? u1.getRating() : 1200;
-                int rating2 = u2.getRating() != null ? u2.getRating() : 1200;
-                return Integer.compare(rating2, rating1); // Descending order
-            })
-            .skip((long) page * size)
-            .limit(size)
-            .map(user -> {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("username", user.getUsername());
-                entry.put("rating", user.getRating() != null ? user.getRating() : 1200);
-                entry.put("country", user.getCountry());
-                return entry;
-            })
-            .collect(Collectors.toList());
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", username);
+        response.put("rank", rank.getAsInt());
+        response.put("gameType", gameType);
+        response.put("totalPlayers", leaderboardService.getPlayerCount(gameType));
+        response.put("neighbours", toResponse(leaderboardService.getAround(gameType, username, Math.min(radius, MAX_PAGE_SIZE / 2))));
         
-        // Add ranks
-        int rank = page * size + 1;
-        for (Map<String, Object> entry : leaderboard) {
-            entry.put("rank", rank++);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get a player's exact leaderboard rank
+     */
+    @GetMapping("/rank/{username}")
+    public ResponseEntity<Map<String, Object>> getRank(@PathVariable String username,
+                                                       @RequestParam(defaultValue = "STANDARD") GameType gameType) {
+        OptionalInt rank = leaderboardService.getRank(gameType, username);
+        if (rank.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
         
-        return ResponseEntity.ok(leaderboard);
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", username);
+        response.put("rank", rank.getAsInt());
+        response.put("gameType", gameType);
+        response.put("totalPlayers", leaderboardService.getPlayerCount(gameType));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get a player's current, highest and lowest rating and W/L/D record
+     */
+    @GetMapping("/stats/{username}")
+    public ResponseEntity<Map<String, Object>> getStats(@PathVariable String username,
+                                                        @RequestParam(defaultValue = "STANDARD") GameType gameType) {
+        User user = userRepo.findByUsername(username);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        RatingService.RatingStats stats = ratingService.getRatingStats(user, gameType);
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", username);
+        response.put("gameType", gameType);
+        response.put("currentRating", stats.getCurrentRating());
+        response.put("highestRating", stats.getHighestRating());
+        response.put("lowestRating", stats.getLowestRating());
+        response.put("gamesPlayed", stats.getGamesPlayed());
+        response.put("wins", stats.getWins());
+        response.put("losses", stats.getLosses());
+        response.put("draws", stats.getDraws());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get a player's rating over time, downsampled to at most `points` points
+     */
+    @GetMapping("/history/{username}")
+    public ResponseEntity<Map<String, Object>> getHistory(@PathVariable String username,
+                                                          @RequestParam(defaultValue = "STANDARD") GameType gameType,
+                                                          @RequestParam(defaultValue = "200") int points) {
+        User user = userRepo.findByUsername(username);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        List<RatingHistory> history = ratingService.getRatingHistory(user, gameType, Math.min(points, MAX_CHART_POINTS));
+        List<Map<String, Object>> series = new ArrayList<>(history.size());
+        for (RatingHistory point : history) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("game", point.getSeq());
+            entry.put("rating", point.getRating());
+            entry.put("matchId", point.getMatchId());
+            entry.put("at", point.getRecordedAt());
+            series.add(entry);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", username);
+        response.put("gameType", gameType);
+        response.put("points", series);
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<GameType, Map<String, Object>> ratingsByType(User user) {
+        Map<GameType, Map<String, Object>> ratings = new EnumMap<>(GameType.class);
+        for (Rating rating : ratingRepo.findByUser(user)) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rating", rating.getRating());
+            entry.put("gamesPlayed", rating.getGamesPlayed());
+            entry.put("wins", rating.getWins());
+            entry.put("losses", rating.getLosses());
+            entry.put("draws", rating.getDraws());
+            ratings.put(rating.getGameType(), entry);
+        }
+        return ratings;
+    }
+
+    private List<Map<String, Object>> toResponse(List<LeaderboardIndex.RankedEntry> entries) {
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (LeaderboardIndex.RankedEntry ranked : entries) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rank", ranked.rank());
+            entry.put("username", ranked.entry().username());
+            entry.put("rating", ranked.entry().rating());
+            entry.put("country", ranked.entry().country());
+            result.add(entry);
+        }
+        return result;
     }
 }
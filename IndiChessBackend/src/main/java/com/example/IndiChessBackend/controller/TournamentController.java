@@ -0,0 +1,122 @@
+package com.example.IndiChessBackend.controller;
+
+import com.example.IndiChessBackend.model.DTO.CreateTournamentRequest;
+import com.example.IndiChessBackend.model.Tournament;
+import com.example.IndiChessBackend.model.TournamentPlayer;
+import com.example.IndiChessBackend.service.TournamentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.*;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/tournaments")
+@RequiredArgsConstructor
+public class TournamentController {
+
+    private final TournamentService tournamentService;
+
+    /**
+     * Tournaments that have not finished yet, newest first
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getOpenTournaments() {
+        List<Map<String, Object>> tournaments = new ArrayList<>();
+        for (Tournament tournament : tournamentService.getOpenTournaments()) {
+            tournaments.add(toMap(tournament));
+        }
+        return ResponseEntity.ok(tournaments);
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestBody CreateTournamentRequest request, Principal principal) {
+        return handle(() -> toMap(tournamentService.create(request.getName(), request.getFormat(),
+                request.getGameType(), request.getRounds(), request.getDurationMinutes(), principal.getName())));
+    }
+
+    /**
+     * Tournament details with standings
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getTournament(@PathVariable Long id) {
+        Optional<Tournament> tournament = tournamentService.getTournament(id);
+        if (tournament.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<Map<String, Object>> standings = new ArrayList<>();
+        int rank = 1;
+        for (TournamentPlayer player : tournamentService.getStandings(id)) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("rank", rank++);
+            row.put("username", player.getUser().getUsername());
+            row.put("rating", player.getRating());
+            // Stored as half points
+            row.put("score", player.getPoints() / 2.0);
+            row.put("gamesAsWhite", player.getWhiteGames());
+            row.put("gamesAsBlack", player.getBlackGames());
+            row.put("byes", player.getByes());
+            row.put("withdrawn", player.isWithdrawn());
+            standings.add(row);
+        }
+
+        Map<String, Object> response = toMap(tournament.get());
+        response.put("standings", standings);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{id}/join")
+    public ResponseEntity<Map<String, Object>> join(@PathVariable Long id, Principal principal) {
+        return handle(() -> {
+            tournamentService.join(id, principal.getName());
+            return Map.of("joined", true, "tournamentId", id);
+        });
+    }
+
+    @PostMapping("/{id}/withdraw")
+    public ResponseEntity<Map<String, Object>> withdraw(@PathVariable Long id, Principal principal) {
+        return ResponseEntity.ok(Map.of("withdrawn", tournamentService.withdraw(id, principal.getName())));
+    }
+
+    /**
+     * Organizer only
+     */
+    @PostMapping("/{id}/start")
+    public ResponseEntity<Map<String, Object>> start(@PathVariable Long id, Principal principal) {
+        return handle(() -> toMap(tournamentService.start(id, principal.getName())));
+    }
+
+    private ResponseEntity<Map<String, Object>> handle(Supplier<Map<String, Object>> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(403).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> toMap(Tournament tournament) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", tournament.getId());
+        map.put("name", tournament.getName());
+        map.put("format", tournament.getFormat());
+        map.put("gameType", tournament.getGameType());
+        map.put("status", tournament.getStatus());
+        map.put("createdBy", tournament.getCreatedBy());
+        map.put("totalRounds", tournament.getTotalRounds());
+        map.put("currentRound", tournament.getCurrentRound());
+        map.put("durationMinutes", tournament.getDurationMinutes());
+        map.put("startedAt", tournament.getStartedAt());
+        map.put("endsAt", tournament.getEndsAt());
+        map.put("finishedAt", tournament.getFinishedAt());
+        return map;
+    }
+}
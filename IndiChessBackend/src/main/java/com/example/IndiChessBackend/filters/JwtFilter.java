@@ -42,10 +42,12 @@ public class JwtFilter extends OncePerRequestFilter {
             logger.trace("JWT token found (masked) : {}", token.replaceAll(".(?=.{4})", "*") );
         }
         String username = null;
+        JwtService.VerifiedToken verified = null;
 
         if (token != null) {
-            // Extract username from token
-            username = jwtService.extractUsername(token);
+            // Verify once; the result is reused for the validity check below
+            verified = jwtService.verifyToken(token);
+            username = verified.username();
         }
 
         // 2️⃣ Authenticate user if not already authenticated
@@ -54,7 +56,7 @@ public class JwtFilter extends OncePerRequestFilter {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 logger.trace("Username extracted from token: {}", username);
                 // Validate token if user exists and token is valid
-                if (jwtService.isTokenValid(token, userDetails)) {
+                if (jwtService.isTokenValid(verified, userDetails)) {
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -0,0 +1,18 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.TournamentFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateTournamentRequest {
+    private String name;
+    private TournamentFormat format;
+    private GameType gameType;
+    private Integer rounds;          // Swiss
+    private Integer durationMinutes; // Arena
+}
@@ -0,0 +1,18 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.MatchStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection of a finished match for rating replays (no users or moves loaded)
+ */
+public interface FinishedMatchView {
+    Long getId();
+    Long getPlayer1Id();
+    Long getPlayer2Id();
+    MatchStatus getStatus();
+    GameType getGameType();
+    LocalDateTime getFinishedAt();
+}
@@ -0,0 +1,32 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A player's action on a live game, as received over STOMP; forwarded as is to the node that
+ * owns the game
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameCommand {
+
+    public enum Type {
+        MOVE, JOIN, RESIGN, DRAW_OFFER, DRAW_ACCEPT, CHAT, RESYNC
+    }
+
+    private Type type;
+    private Long matchId;
+    private String username;
+    private MoveRequest move;
+    private JoinRequest join;
+    private String message;
+    // RESYNC: the last game-topic seq the client saw
+    private Long lastSeq;
+
+    public static GameCommand of(Type type, Long matchId, String username) {
+        return new GameCommand(type, matchId, username, null, null, null, null);
+    }
+}
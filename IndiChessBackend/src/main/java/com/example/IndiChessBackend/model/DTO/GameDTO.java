@@ -21,4 +21,5 @@ public class GameDTO {
     private String fen;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private long seq; // Last game-topic frame this state includes; newer frames have a higher seq
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * In-memory state of a live game, as handed from one node to another
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSnapshot {
+    private Long matchId;
+    private String[][] board;
+    private boolean whiteTurn;
+    private String status;
+    private String player1Username;
+    private String player2Username;
+    private int ply;
+    private long startedAtMillis;
+    private long lastMoveMillis;
+    private long seq;
+    private byte[] moves; // PackedMoveList.toBytes
+
+    // Hand-off only: the last moves sent with a clientMoveId, oldest first, so retries are still
+    // recognised on the new owner
+    private List<MoveDTO> recentMoves;
+
+    public GameSnapshot(Long matchId, String[][] board, boolean whiteTurn, String status, String player1Username,
+                        String player2Username, int ply, long startedAtMillis, long lastMoveMillis, long seq,
+                        byte[] moves) {
+        this(matchId, board, whiteTurn, status, player1Username, player2Username, ply, startedAtMillis,
+                lastMoveMillis, seq, moves, null);
+    }
+}
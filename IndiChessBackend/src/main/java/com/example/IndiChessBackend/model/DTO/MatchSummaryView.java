@@ -0,0 +1,21 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.MatchStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection for game history rows.
+ * Only the columns the history list needs are selected, so no Match or User entities are loaded.
+ */
+public interface MatchSummaryView {
+    Long getId();
+    Long getPlayer1Id();
+    String getPlayer1Username();
+    Long getPlayer2Id();
+    String getPlayer2Username();
+    MatchStatus getStatus();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getFinishedAt();
+    Integer getCurrentPly();
+}
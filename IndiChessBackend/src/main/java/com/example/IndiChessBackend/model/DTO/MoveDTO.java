@@ -28,4 +28,11 @@ public class MoveDTO {
     private LocalDateTime timestamp;
     private String moveNotation;
     private String playerUsername;
+    // Ply after this move, server time since the game started, and the resulting position's
+    // Zobrist hash (16 hex digits) so clients can detect a board that drifted
+    private Integer ply;
+    private Long clockMillis;
+    private String positionHash;
+    // The mover's id for this move (MoveRequest.clientMoveId), if it sent one
+    private String clientMoveId;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.PieceColor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One move of a game's history (see PackedMoveList and MoveRepo.findHistory)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveHistoryDTO {
+    private int ply;
+    private int moveNumber;
+    private PieceColor color;
+    private String uci;
+    private String san;
+}
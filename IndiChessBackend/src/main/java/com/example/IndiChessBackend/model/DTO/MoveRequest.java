@@ -28,4 +28,6 @@ public class MoveRequest {
     private String playerColor;
     private Long matchId;
     private LocalDateTime timestamp;
+    // Chosen by the client, the same for every retry of this move; a retry gets the original result
+    private String clientMoveId;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.IndiChessBackend.model.DTO;
+
+/**
+ * Interface projection of a player's user_ratings row at the close of a Glicko-2 rating period:
+ * only the columns the period reads and writes, no entities
+ */
+public interface RatingPeriodView {
+    Long getId();
+    Long getUserId();
+    String getUsername();
+    String getCountry();
+    int getRating();
+    Double getRatingDeviation();
+    Double getVolatility();
+    Integer getHighestRating();
+    Integer getLowestRating();
+    Integer getHistoryPoints();
+}
@@ -0,0 +1,21 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.GameType;
+
+/**
+ * Interface projection of one user_ratings row, used to resume a rating recompute
+ */
+public interface RatingStateView {
+    Long getUserId();
+    GameType getGameType();
+    int getRating();
+    Double getRatingDeviation();
+    Double getVolatility();
+    Integer getHighestRating();
+    Integer getLowestRating();
+    Integer getHistoryPoints();
+    int getGamesPlayed();
+    int getWins();
+    int getLosses();
+    int getDraws();
+}
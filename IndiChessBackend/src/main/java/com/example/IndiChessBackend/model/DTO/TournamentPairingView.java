@@ -0,0 +1,9 @@
+package com.example.IndiChessBackend.model.DTO;
+
+/**
+ * Interface projection of who played whom in a tournament (no users loaded)
+ */
+public interface TournamentPairingView {
+    Long getPlayer1Id();
+    Long getPlayer2Id();
+}
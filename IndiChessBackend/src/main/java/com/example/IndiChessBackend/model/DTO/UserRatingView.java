@@ -0,0 +1,11 @@
+package com.example.IndiChessBackend.model.DTO;
+
+/**
+ * Interface projection of the columns the leaderboard needs from users
+ */
+public interface UserRatingView {
+    Long getUserId();
+    String getUsername();
+    Integer getRating();
+    String getCountry();
+}
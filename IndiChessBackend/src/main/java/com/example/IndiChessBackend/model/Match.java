@@ -1,7 +1,6 @@
 package com.example.IndiChessBackend.model;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.PastOrPresent;
 import lombok.Data;
 
@@ -10,7 +9,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "matches")
+@Table(
+        name = "matches",
+        indexes = {
+                // Keyset pagination of game history (see MatchRepo.findAsPlayerNBefore)
+                @Index(name = "idx_matches_player1_created", columnList = "player1_id, created_at"),
+                @Index(name = "idx_matches_player2_created", columnList = "player2_id, created_at"),
+                // Chronological replay of finished games (see MatchRepo.findFinishedAfter)
+                @Index(name = "idx_matches_finished", columnList = "finished_at, id"),
+                // Pairings and open games of one tournament round
+                @Index(name = "idx_matches_tournament", columnList = "tournament_id, tournament_round")
+        }
+)
 @Data
 public class Match {
 
@@ -37,6 +47,11 @@ public class Match {
     @Column(name = "last_move_uci", length = 10)
     private String lastMoveUci;
 
+    // Every move, packed when the game finishes (see PackedMoveList)
+    @Lob
+    @Column(name = "packed_moves", length = 65535)
+    private byte[] packedMoves;
+
     @OneToMany(
             mappedBy = "match",
             cascade = CascadeType.ALL,
@@ -49,10 +64,17 @@ public class Match {
     @Enumerated(EnumType.STRING)
     private GameType gameType;
 
+    // Set for tournament games only
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    @Column(name = "tournament_round")
+    private Integer tournamentRound;
+
     @PastOrPresent
     private LocalDateTime startedAt;
 
-    @FutureOrPresent
+    @PastOrPresent
     private LocalDateTime finishedAt;
 
     // ADD THESE FIELDS:
@@ -63,12 +85,15 @@ public class Match {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    public static final String INITIAL_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
     // Update constructor
     public Match(User player1, User player2, MatchStatus matchStatus, int i) {
         this.player1 = player1;
         this.player2 = player2;
         this.status = matchStatus;
         this.currentPly = i;
+        this.fenCurrent = INITIAL_FEN;
         this.createdAt = LocalDateTime.now();
         this.startedAt = LocalDateTime.now();
     }
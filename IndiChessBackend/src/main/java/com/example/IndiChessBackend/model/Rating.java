@@ -1,6 +1,10 @@
 package com.example.IndiChessBackend.model;
 
 import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -9,6 +13,8 @@ import java.time.LocalDateTime;
         name = "user_ratings",
         uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "game_type"})
 )
+@Data
+@NoArgsConstructor
 public class Rating {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,6 +22,8 @@ public class Rating {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Enumerated(EnumType.STRING)
@@ -24,10 +32,32 @@ public class Rating {
 
     private int rating;
 
+    // Rating the row started from (RatingService.initialRating), so a recompute replays from it
+    private Integer initialRating;
+
+    // Glicko-2 state, only maintained when rating.system=glicko2 (null means not yet rated)
+    private Double ratingDeviation;
+    private Double volatility;
+
+    // Running aggregates, updated with every rating change (null on rows older than the history)
+    private Integer highestRating;
+    private Integer lowestRating;
+
+    // Number of rating_history points, i.e. the seq of the latest one
+    private Integer historyPoints;
+
     private int gamesPlayed;
     private int wins;
     private int losses;
     private int draws;
 
     private LocalDateTime updatedAt;
+
+    public Rating(User user, GameType gameType, int rating) {
+        this.user = user;
+        this.gameType = gameType;
+        this.rating = rating;
+        this.initialRating = rating;
+        this.updatedAt = LocalDateTime.now();
+    }
 }
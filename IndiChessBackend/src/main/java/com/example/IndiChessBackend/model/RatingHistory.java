@@ -0,0 +1,54 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a player's rating-over-time series for a game type.
+ * Kept narrow (plain ids, no associations) because it gets a row per player per game.
+ * seq numbers the points 1, 2, 3... per (user, game type), so a downsampled chart can
+ * fetch exactly the points it needs through the index. The index is unique: two writers that
+ * derived the same seq cannot both commit.
+ */
+@Entity
+@Table(
+        name = "rating_history",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rating_history_user_type_seq",
+                columnNames = {"user_id", "game_type", "seq"})
+)
+@Data
+@NoArgsConstructor
+public class RatingHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "game_type", nullable = false, length = 16)
+    private GameType gameType;
+
+    @Column(nullable = false)
+    private int seq;
+
+    private int rating;
+
+    // Game that produced this point; null for a Glicko-2 period covering several games
+    private Long matchId;
+
+    private LocalDateTime recordedAt;
+
+    public RatingHistory(Long userId, GameType gameType, int seq, int rating, Long matchId, LocalDateTime recordedAt) {
+        this.userId = userId;
+        this.gameType = gameType;
+        this.seq = seq;
+        this.rating = rating;
+        this.matchId = matchId;
+        this.recordedAt = recordedAt;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a rating recompute, written in the same transaction as the ratings it covers
+ * so an interrupted run can resume from the last finished game it applied.
+ */
+@Entity
+@Table(name = "rating_recompute_checkpoints")
+@Data
+@NoArgsConstructor
+public class RatingRecomputeCheckpoint {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @Column(length = 32)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // elo | glicko2: a checkpoint is only resumed with the same rating system
+    private String ratingSystem;
+
+    // Cursor: last replayed game in (finishedAt, id) order
+    private LocalDateTime lastFinishedAt;
+    private Long lastMatchId;
+
+    private long gamesApplied;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public RatingRecomputeCheckpoint(String jobName, String ratingSystem) {
+        this.jobName = jobName;
+        this.ratingSystem = ratingSystem;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+}
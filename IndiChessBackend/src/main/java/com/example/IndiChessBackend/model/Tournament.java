@@ -0,0 +1,58 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tournaments")
+@Data
+@NoArgsConstructor
+public class Tournament {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TournamentFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "game_type", nullable = false)
+    private GameType gameType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TournamentStatus status;
+
+    // Username of the organizer, who starts the event
+    @Column(name = "created_by", nullable = false)
+    private String createdBy;
+
+    // Swiss only
+    private Integer totalRounds;
+    private int currentRound;
+
+    // Arena only
+    private Integer durationMinutes;
+    private LocalDateTime endsAt;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public Tournament(String name, TournamentFormat format, GameType gameType, String createdBy) {
+        this.name = name;
+        this.format = format;
+        this.gameType = gameType;
+        this.createdBy = createdBy;
+        this.status = TournamentStatus.CREATED;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.IndiChessBackend.model;
+
+public enum TournamentFormat {
+    SWISS, // fixed number of rounds, paired by score
+    ARENA  // runs for a fixed time, players are re-paired as soon as their game ends
+}
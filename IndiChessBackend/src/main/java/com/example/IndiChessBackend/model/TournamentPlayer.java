@@ -0,0 +1,59 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "tournament_players",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"tournament_id", "user_id"})
+)
+@Data
+@NoArgsConstructor
+public class TournamentPlayer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tournament_id", nullable = false)
+    private Long tournamentId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
+    // Rating when the player joined; used to rank players with equal points
+    private int rating;
+
+    // 2 per win (or bye), 1 per draw
+    private int points;
+
+    private int whiteGames;
+    private int blackGames;
+
+    @Enumerated(EnumType.STRING)
+    private PieceColor lastColor;
+
+    private Long lastOpponentId;
+
+    private int byes;
+
+    private boolean withdrawn;
+
+    private LocalDateTime joinedAt;
+
+    public TournamentPlayer(Long tournamentId, User user, int rating) {
+        this.tournamentId = tournamentId;
+        this.user = user;
+        this.rating = rating;
+        this.joinedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.IndiChessBackend.model;
+
+public enum TournamentStatus {
+    CREATED,
+    RUNNING,
+    FINISHED
+}
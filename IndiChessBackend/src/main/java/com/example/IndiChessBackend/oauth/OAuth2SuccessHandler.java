@@ -4,6 +4,7 @@ import com.example.IndiChessBackend.model.User;
 import com.example.IndiChessBackend.repo.UserRepo;
 import com.example.IndiChessBackend.service.AuthService;
 import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.service.LeaderboardService;
 import com.example.IndiChessBackend.service.UserService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
     private final JwtService jwtService;
     private final UserRepo userRepo;
+    private final LeaderboardService leaderboardService;
 
 
     @Override
@@ -52,6 +54,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
             user.setEmailId(email);
             user.setUsername(name); // Set the user's name (or other data if needed)
             userRepo.save(user); // Save the new user to the database
+            leaderboardService.onRatingChanged(user);
         }
 
         // Store JWT in HTTP-only cookie
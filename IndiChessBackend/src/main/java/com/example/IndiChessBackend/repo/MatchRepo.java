@@ -1,13 +1,21 @@
 package com.example.IndiChessBackend.repo;
 
+import com.example.IndiChessBackend.model.DTO.FinishedMatchView;
+import com.example.IndiChessBackend.model.DTO.MatchSummaryView;
+import com.example.IndiChessBackend.model.DTO.TournamentPairingView;
 import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
 import com.example.IndiChessBackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MatchRepo extends JpaRepository<Match, Long> {
@@ -19,4 +27,69 @@ public interface MatchRepo extends JpaRepository<Match, Long> {
     // Find recent matches for a user (limit to most recent)
     @Query("SELECT m FROM Match m WHERE m.player1 = :user OR m.player2 = :user ORDER BY m.createdAt DESC")
     List<Match> findRecentMatchesByUser(@Param("user") User user, org.springframework.data.domain.Pageable pageable);
+
+    // Keyset pages of a user's history, one query per seat so each can walk its
+    // (playerN_id, created_at) index. Rows strictly before the (createdAt, id) cursor.
+    @Query("SELECT m.id AS id, m.player1.userId AS player1Id, m.player1.username AS player1Username, " +
+           "m.player2.userId AS player2Id, m.player2.username AS player2Username, m.status AS status, " +
+           "m.createdAt AS createdAt, m.finishedAt AS finishedAt, m.currentPly AS currentPly " +
+           "FROM Match m WHERE m.player1.userId = :userId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MatchSummaryView> findAsPlayer1Before(@Param("userId") Long userId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               org.springframework.data.domain.Pageable pageable);
+
+    @Query("SELECT m.id AS id, m.player1.userId AS player1Id, m.player1.username AS player1Username, " +
+           "m.player2.userId AS player2Id, m.player2.username AS player2Username, m.status AS status, " +
+           "m.createdAt AS createdAt, m.finishedAt AS finishedAt, m.currentPly AS currentPly " +
+           "FROM Match m WHERE m.player2.userId = :userId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MatchSummaryView> findAsPlayer2Before(@Param("userId") Long userId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               org.springframework.data.domain.Pageable pageable);
+
+    // Rating replay: finished games in (finishedAt, id) order, strictly after the cursor,
+    // walking idx_matches_finished instead of loading the whole table
+    @Query("SELECT m.id AS id, m.player1.userId AS player1Id, m.player2.userId AS player2Id, " +
+           "m.status AS status, m.gameType AS gameType, m.finishedAt AS finishedAt " +
+           "FROM Match m WHERE m.status IN :statuses AND m.finishedAt <= :upTo " +
+           "AND (m.finishedAt > :finishedAt OR (m.finishedAt = :finishedAt AND m.id > :id)) " +
+           "ORDER BY m.finishedAt ASC, m.id ASC")
+    List<FinishedMatchView> findFinishedAfter(@Param("statuses") Collection<MatchStatus> statuses,
+                                              @Param("upTo") LocalDateTime upTo,
+                                              @Param("finishedAt") LocalDateTime finishedAt,
+                                              @Param("id") Long id,
+                                              org.springframework.data.domain.Pageable pageable);
+
+    // A finished game's archived moves (see PackedMoveList); empty for live or older games
+    @Query("SELECT m.packedMoves FROM Match m WHERE m.id = :id")
+    Optional<byte[]> findPackedMoves(@Param("id") Long id);
+
+    // Swiss: every pairing so far, so nobody meets the same opponent twice
+    @Query("SELECT m.player1.userId AS player1Id, m.player2.userId AS player2Id " +
+           "FROM Match m WHERE m.tournamentId = :tournamentId")
+    List<TournamentPairingView> findTournamentPairings(@Param("tournamentId") Long tournamentId);
+
+    // Swiss: the round is over once none of its games is still being played
+    long countByTournamentIdAndTournamentRoundAndStatus(Long tournamentId, Integer tournamentRound,
+                                                        MatchStatus status);
+
+    // Swiss: round games nobody has moved in since the cutoff (no-shows and abandoned games)
+    @Query("SELECT m FROM Match m JOIN FETCH m.player1 JOIN FETCH m.player2 " +
+           "WHERE m.tournamentId = :tournamentId AND m.tournamentRound = :round " +
+           "AND m.status = com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS " +
+           "AND COALESCE(m.updatedAt, m.createdAt) < :cutoff")
+    List<Match> findStaleTournamentGames(@Param("tournamentId") Long tournamentId, @Param("round") Integer round,
+                                         @Param("cutoff") LocalDateTime cutoff);
+
+    // Record a result only if the game has none yet; 0 means it finished some other way first
+    @Modifying
+    @Query("UPDATE Match m SET m.status = :result, m.finishedAt = :finishedAt " +
+           "WHERE m.id = :id AND m.status = com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS")
+    int finishIfInProgress(@Param("id") Long id, @Param("result") MatchStatus result,
+                           @Param("finishedAt") LocalDateTime finishedAt);
 }
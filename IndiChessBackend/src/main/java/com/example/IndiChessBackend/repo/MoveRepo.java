@@ -1,9 +1,19 @@
 package com.example.IndiChessBackend.repo;
 
+import com.example.IndiChessBackend.model.DTO.MoveHistoryDTO;
 import com.example.IndiChessBackend.model.Move;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MoveRepo extends JpaRepository<Move, Long> {
+
+    // A game's moves in order, without loading Move entities or their match
+    @Query("SELECT new com.example.IndiChessBackend.model.DTO.MoveHistoryDTO(m.ply, m.moveNumber, m.color, m.uci, m.san) " +
+           "FROM Move m WHERE m.match.id = :matchId ORDER BY m.ply")
+    List<MoveHistoryDTO> findHistory(@Param("matchId") Long matchId);
 }
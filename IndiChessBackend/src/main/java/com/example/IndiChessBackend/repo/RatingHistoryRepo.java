@@ -0,0 +1,23 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.RatingHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RatingHistoryRepo extends JpaRepository<RatingHistory, Long> {
+
+    // Chart points: exact index lookups for the sampled seq numbers
+    List<RatingHistory> findByUserIdAndGameTypeAndSeqInOrderBySeqAsc(Long userId, GameType gameType, Collection<Integer> seqs);
+
+    // Rating recompute fresh start
+    @Modifying
+    @Query("DELETE FROM RatingHistory h")
+    int deleteAllHistory();
+}
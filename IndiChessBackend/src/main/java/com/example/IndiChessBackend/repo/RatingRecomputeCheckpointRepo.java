@@ -0,0 +1,9 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.RatingRecomputeCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RatingRecomputeCheckpointRepo extends JpaRepository<RatingRecomputeCheckpoint, String> {
+}
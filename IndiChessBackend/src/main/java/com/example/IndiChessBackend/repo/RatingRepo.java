@@ -1,10 +1,86 @@
 package com.example.IndiChessBackend.repo;
 
+import com.example.IndiChessBackend.model.DTO.RatingPeriodView;
+import com.example.IndiChessBackend.model.DTO.RatingStateView;
+import com.example.IndiChessBackend.model.DTO.UserRatingView;
+import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Rating;
+import com.example.IndiChessBackend.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RatingRepo extends JpaRepository<Rating, Long> {
 
+    // Both players' rows for a finished game in one query, locked until the game's rating update
+    // commits: the next history seq is derived from the row, so concurrent games must queue behind it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Rating> findByUserInAndGameType(Collection<User> users, GameType gameType);
+
+    // A player's first game of a type: create the row unless it is already there, without failing when
+    // a concurrent first game has just created it (the row lock above cannot cover a row that does not
+    // exist yet). MySQL makes a concurrent insert of the same key wait for the other transaction.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_ratings (user_id, game_type, rating, initial_rating, history_points, " +
+                   "games_played, wins, losses, draws, updated_at) " +
+                   "VALUES (:userId, :gameType, :rating, :rating, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("gameType") String gameType, @Param("rating") int rating);
+
+    List<Rating> findByUser(User user);
+
+    Optional<Rating> findByUserAndGameType(User user, GameType gameType);
+
+    // Rating-period reads: the players' rating state and user details, no entities (the results are
+    // written back column by column, so the W/L/D counters RatingService keeps updating are not touched)
+    @Query("SELECT r.id AS id, r.user.userId AS userId, r.user.username AS username, r.user.country AS country, " +
+           "r.rating AS rating, r.ratingDeviation AS ratingDeviation, r.volatility AS volatility, " +
+           "r.highestRating AS highestRating, r.lowestRating AS lowestRating, r.historyPoints AS historyPoints " +
+           "FROM Rating r WHERE r.user.userId IN :userIds AND r.gameType = :gameType")
+    List<RatingPeriodView> findPeriodStates(@Param("userIds") Collection<Long> userIds,
+                                            @Param("gameType") GameType gameType);
+
+    // Rating-period close: every Glicko-2 rated player's deviation grows as for a period without games,
+    // RD' = min(350, sqrt(RD^2 + (173.7178 * volatility)^2)); players who did play are written after this
+    @Modifying
+    @Query("UPDATE Rating r SET r.ratingDeviation = least(:maxDeviation, " +
+           "sqrt(r.ratingDeviation * r.ratingDeviation + :scaleSquared * r.volatility * r.volatility)) " +
+           "WHERE r.gameType = :gameType AND r.ratingDeviation IS NOT NULL AND r.volatility IS NOT NULL")
+    int increaseDeviations(@Param("gameType") GameType gameType,
+                           @Param("maxDeviation") double maxDeviation,
+                           @Param("scaleSquared") double scaleSquared);
+
+    // Leaderboard bootstrap for one game type, no entities
+    @Query("SELECT r.user.username AS username, r.rating AS rating, r.user.country AS country " +
+           "FROM Rating r WHERE r.gameType = :gameType")
+    List<UserRatingView> findRatingViewsByGameType(@Param("gameType") GameType gameType);
+
+    // Rating recompute writes: the rows only, users are not needed
+    @Query("SELECT r FROM Rating r WHERE r.user.userId IN :userIds AND r.gameType = :gameType")
+    List<Rating> findByUserIdsAndGameType(@Param("userIds") Collection<Long> userIds,
+                                          @Param("gameType") GameType gameType);
+
+    // Rating recompute resume: every row's replayable state, no entities
+    @Query("SELECT r.user.userId AS userId, r.gameType AS gameType, r.rating AS rating, " +
+           "r.ratingDeviation AS ratingDeviation, r.volatility AS volatility, r.highestRating AS highestRating, " +
+           "r.lowestRating AS lowestRating, r.historyPoints AS historyPoints, r.gamesPlayed AS gamesPlayed, " +
+           "r.wins AS wins, r.losses AS losses, r.draws AS draws FROM Rating r")
+    List<RatingStateView> findAllStates();
+
+    // Rating recompute fresh start: everyone back to the rating they started from in one statement
+    // (defaultRating for rows older than initialRating)
+    @Modifying
+    @Query("UPDATE Rating r SET r.rating = COALESCE(r.initialRating, :rating), r.ratingDeviation = null, r.volatility = null, " +
+           "r.highestRating = null, r.lowestRating = null, r.historyPoints = 0, " +
+           "r.gamesPlayed = 0, r.wins = 0, r.losses = 0, r.draws = 0")
+    int resetAll(@Param("rating") int rating);
 }
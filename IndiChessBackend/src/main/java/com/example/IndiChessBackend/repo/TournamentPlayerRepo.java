@@ -0,0 +1,62 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.TournamentPlayer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TournamentPlayerRepo extends JpaRepository<TournamentPlayer, Long> {
+
+    Optional<TournamentPlayer> findByTournamentIdAndUserUserId(Long tournamentId, Long userId);
+
+    // Pairing input: everyone still playing, with their users for the new matches
+    @Query("SELECT p FROM TournamentPlayer p JOIN FETCH p.user " +
+           "WHERE p.tournamentId = :tournamentId AND p.withdrawn = false")
+    List<TournamentPlayer> findActiveWithUser(@Param("tournamentId") Long tournamentId);
+
+    @Query("SELECT p FROM TournamentPlayer p JOIN FETCH p.user " +
+           "WHERE p.tournamentId = :tournamentId AND p.user.userId IN :userIds AND p.withdrawn = false")
+    List<TournamentPlayer> findActiveWithUserByUserIds(@Param("tournamentId") Long tournamentId,
+                                                       @Param("userIds") Collection<Long> userIds);
+
+    // Standings, best first
+    @Query("SELECT p FROM TournamentPlayer p JOIN FETCH p.user WHERE p.tournamentId = :tournamentId " +
+           "ORDER BY p.points DESC, p.rating DESC, p.id ASC")
+    List<TournamentPlayer> findStandings(@Param("tournamentId") Long tournamentId);
+
+    // Game results are added in place so two games ending together cannot lose an update
+    @Modifying
+    @Query("UPDATE TournamentPlayer p SET p.points = p.points + :points " +
+           "WHERE p.tournamentId = :tournamentId AND p.user.userId = :userId")
+    int addPoints(@Param("tournamentId") Long tournamentId, @Param("userId") Long userId,
+                  @Param("points") int points);
+
+    // Pairing writes: only the columns pairing owns, so points added by finished games are never
+    // overwritten by a stale copy of the row
+    @Modifying
+    @Query("UPDATE TournamentPlayer p SET p.whiteGames = p.whiteGames + 1, " +
+           "p.lastColor = com.example.IndiChessBackend.model.PieceColor.WHITE, p.lastOpponentId = :opponentId " +
+           "WHERE p.id = :id")
+    int recordWhiteGame(@Param("id") Long id, @Param("opponentId") Long opponentId);
+
+    @Modifying
+    @Query("UPDATE TournamentPlayer p SET p.blackGames = p.blackGames + 1, " +
+           "p.lastColor = com.example.IndiChessBackend.model.PieceColor.BLACK, p.lastOpponentId = :opponentId " +
+           "WHERE p.id = :id")
+    int recordBlackGame(@Param("id") Long id, @Param("opponentId") Long opponentId);
+
+    @Modifying
+    @Query("UPDATE TournamentPlayer p SET p.points = p.points + :points, p.byes = p.byes + 1 WHERE p.id = :id")
+    int recordBye(@Param("id") Long id, @Param("points") int points);
+
+    @Modifying
+    @Query("UPDATE TournamentPlayer p SET p.withdrawn = :withdrawn WHERE p.id = :id")
+    int setWithdrawn(@Param("id") Long id, @Param("withdrawn") boolean withdrawn);
+}
@@ -0,0 +1,17 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.Tournament;
+import com.example.IndiChessBackend.model.TournamentFormat;
+import com.example.IndiChessBackend.model.TournamentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TournamentRepo extends JpaRepository<Tournament, Long> {
+
+    List<Tournament> findByFormatAndStatus(TournamentFormat format, TournamentStatus status);
+
+    List<Tournament> findByStatusInOrderByCreatedAtDesc(List<TournamentStatus> statuses);
+}
@@ -1,9 +1,15 @@
 package com.example.IndiChessBackend.repo;
 
+import com.example.IndiChessBackend.model.DTO.UserRatingView;
 import com.example.IndiChessBackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface UserRepo extends JpaRepository<User, Long> {
@@ -15,4 +21,15 @@ public interface UserRepo extends JpaRepository<User, Long> {
 
 
     User getUserByEmailId(String email);
+
+    // Leaderboard bootstrap and replay seeds: a few columns per user, no entities
+    @Query("SELECT u.userId AS userId, u.username AS username, u.rating AS rating, u.country AS country FROM User u")
+    List<UserRatingView> findAllRatings();
+
+    // users.rating mirrors STANDARD: copy it back from user_ratings after a recompute; users
+    // without STANDARD games keep theirs, as it is still the rating they will start from
+    @Modifying
+    @Query("UPDATE User u SET u.rating = COALESCE((SELECT r.rating FROM Rating r " +
+           "WHERE r.user = u AND r.gameType = com.example.IndiChessBackend.model.GameType.STANDARD), u.rating)")
+    int syncStandardRatings();
 }
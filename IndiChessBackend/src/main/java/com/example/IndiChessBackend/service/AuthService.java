@@ -13,12 +13,14 @@ public class AuthService {
 
     private final UserRepo userRepo;
     private final PasswordEncoder passwordEncoder;
+    private final LeaderboardService leaderboardService;
 
     public User save(User user){
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setRating(250); // default rating
         // default pfp url
         User savedUser = userRepo.save(user);
+        leaderboardService.onRatingChanged(savedUser);
 
         System.out.println(savedUser);
         return savedUser;
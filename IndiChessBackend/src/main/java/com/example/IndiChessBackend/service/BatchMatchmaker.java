@@ -0,0 +1,85 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Pairs a whole queue at once (matchmaking.mode=batch).
+ *
+ * Players are taken in rating order and a dynamic programme over that order chooses, for each
+ * player, whether to pair them with their rating neighbour or leave them for the next tick.
+ * It minimizes
+ *   sum over pairs of |rating difference| + sum over unpaired players of (penalty + weight * seconds waited)
+ * so long waiters get paired first while close matches are preferred. A pair is only allowed
+ * when both players' rating windows accept it. Runs in O(n) after the sort; the result is the
+ * best matching among those that pair rating neighbours, which is where the optimum lies in
+ * all but contrived cases since crossing pairs never lower the total rating difference.
+ */
+public class BatchMatchmaker {
+
+    private final double unmatchedPenalty;
+    private final double waitPenaltyPerSecond;
+
+    public BatchMatchmaker(double unmatchedPenalty, double waitPenaltyPerSecond) {
+        this.unmatchedPenalty = unmatchedPenalty;
+        this.waitPenaltyPerSecond = waitPenaltyPerSecond;
+    }
+
+    /**
+     * @param byRating waiting players sorted by rating
+     * @param window   rating difference each player currently accepts
+     */
+    public List<MatchmakingPool.Pairing> pair(List<MatchmakingPool.Ticket> byRating, long now,
+                                              ToIntFunction<MatchmakingPool.Ticket> window) {
+        int n = byRating.size();
+        if (n < 2) {
+            return List.of();
+        }
+
+        // cost[i] = cheapest way to handle the first i players; paired[i] = player i-1 pairs with i-2
+        double[] cost = new double[n + 1];
+        boolean[] paired = new boolean[n + 1];
+        int[] windows = new int[n];
+        for (int i = 0; i < n; i++) {
+            windows[i] = window.applyAsInt(byRating.get(i));
+        }
+
+        for (int i = 1; i <= n; i++) {
+            MatchmakingPool.Ticket current = byRating.get(i - 1);
+            cost[i] = cost[i - 1] + waitingCost(current, now);
+            if (i >= 2) {
+                MatchmakingPool.Ticket previous = byRating.get(i - 2);
+                int diff = current.rating() - previous.rating();
+                if (diff <= windows[i - 1] && diff <= windows[i - 2]) {
+                    double withPair = cost[i - 2] + diff;
+                    if (withPair < cost[i]) {
+                        cost[i] = withPair;
+                        paired[i] = true;
+                    }
+                }
+            }
+        }
+
+        List<MatchmakingPool.Pairing> pairings = new ArrayList<>();
+        for (int i = n; i >= 2; ) {
+            if (paired[i]) {
+                MatchmakingPool.Ticket a = byRating.get(i - 2);
+                MatchmakingPool.Ticket b = byRating.get(i - 1);
+                // The player who queued first is the "waiting" one (plays white)
+                pairings.add(a.joinedAtMillis() <= b.joinedAtMillis()
+                        ? new MatchmakingPool.Pairing(a, b)
+                        : new MatchmakingPool.Pairing(b, a));
+                i -= 2;
+            } else {
+                i--;
+            }
+        }
+        return pairings;
+    }
+
+    private double waitingCost(MatchmakingPool.Ticket ticket, long now) {
+        double waitedSeconds = Math.max(0, now - ticket.joinedAtMillis()) / 1000.0;
+        return unmatchedPenalty + waitPenaltyPerSecond * waitedSeconds;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.IndiChessBackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Consistent hash ring over node ids; immutable, so a membership change builds a new ring.
+ *
+ * Every node is placed at virtualNodes points on a 64-bit ring and a key belongs to the first
+ * point at or after its hash. Adding or removing one of n nodes moves about 1/n of the keys,
+ * all of them to or from that node. Lookups are a binary search over the sorted points.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final Set<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String nodeId : new TreeSet<>(nodeIds)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On a (vanishingly rare) collision the lower node id keeps the point on every node
+                ring.putIfAbsent(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        points = new long[ring.size()];
+        owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i++] = point.getValue();
+        }
+        nodes = Set.copyOf(nodeIds);
+    }
+
+    /**
+     * Node that owns the key, or null if the ring is empty
+     */
+    public String ownerOf(long key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    // FNV-1a, then mixed so that similar ids spread over the whole ring
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // SplitMix64 finalizer; match ids are sequential, so they need spreading too
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.IndiChessBackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Publishes to the per-game topics (/topic/moves/{id}, /topic/game-state/{id}, ...).
+ *
+ * The payload is encoded once, on the calling thread, into a byte[] that the broker hands to
+ * every subscribed session as is; sessions only add their own STOMP headers. Encode time,
+ * payload size and fan-out (subscribed sessions at send time) are kept per topic for the
+ * admin view.
+ *
+ * Each frame carries its match's next sequence number in a "seq" header, and the JSON frames
+ * are kept in the GameEventLog for clients that reconnect (see GameCommandService resync).
+ * A move's binary frame shares the seq of its JSON frame.
+ */
+@Service
+@RequiredArgsConstructor
+public class GameBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameBroadcaster.class);
+
+    public static final String SEQ_HEADER = "seq";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JsonMapper jsonMapper;
+    private final ObjectProvider<SimpleBrokerMessageHandler> simpleBroker;
+    private final GameEventLog eventLog;
+
+    private final Map<String, TopicStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Publishes payload as JSON; returns the frame's seq
+     */
+    public long broadcast(String destination, Object payload) {
+        long start = System.nanoTime();
+        byte[] json = jsonMapper.writeValueAsBytes(payload);
+        long encodeNanos = System.nanoTime() - start;
+        return eventLog.append(matchIdOf(destination), destination, json,
+                seq -> send(destination, json, MimeTypeUtils.APPLICATION_JSON, encodeNanos, seq));
+    }
+
+    /**
+     * Publishes the binary twin of the JSON frame numbered seq
+     */
+    public void broadcastBinary(String destination, long seq, Supplier<byte[]> encoder) {
+        long start = System.nanoTime();
+        byte[] frame = encoder.get();
+        send(destination, frame, MimeTypeUtils.APPLICATION_OCTET_STREAM, System.nanoTime() - start, seq);
+    }
+
+    private void send(String destination, byte[] payload, MimeType contentType, long encodeNanos, long seq) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(destination);
+        headers.setContentType(contentType);
+        headers.setNativeHeader(SEQ_HEADER, Long.toString(seq));
+        headers.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+
+        int fanOut = subscribedSessions(message);
+        messagingTemplate.send(destination, message);
+
+        stats.computeIfAbsent(topicOf(destination), topic -> new TopicStats())
+                .record(encodeNanos, payload.length, fanOut);
+        logger.debug("📡 {} ({} bytes) to {} sessions", destination, payload.length, fanOut);
+    }
+
+    // The broker's own (cached) lookup for this destination; 0 when it is not the simple broker
+    private int subscribedSessions(Message<?> message) {
+        SimpleBrokerMessageHandler broker = simpleBroker.getIfAvailable();
+        if (broker == null || broker.getSubscriptionRegistry() == null) {
+            return 0;
+        }
+        return broker.getSubscriptionRegistry().findSubscriptions(message).size();
+    }
+
+    // "/topic/moves/42" -> 42
+    private static Long matchIdOf(String destination) {
+        return Long.valueOf(destination.substring(destination.lastIndexOf('/') + 1));
+    }
+
+    // "/topic/moves/42" -> "/topic/moves"
+    private static String topicOf(String destination) {
+        int slash = destination.lastIndexOf('/');
+        return slash > 0 ? destination.substring(0, slash) : destination;
+    }
+
+    /**
+     * Per-topic counters: messages, bytes encoded, encode time, fan-out
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new TreeMap<>();
+        stats.forEach((topic, topicStats) -> result.put(topic, topicStats.snapshot()));
+        return result;
+    }
+
+    private static final class TopicStats {
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder deliveredBytes = new LongAdder();
+        private final LongAdder encodeNanos = new LongAdder();
+        private final LongAdder fanOut = new LongAdder();
+        private final AtomicLong maxEncodeNanos = new AtomicLong();
+        private final AtomicLong maxFanOut = new AtomicLong();
+
+        void record(long nanos, int size, int sessions) {
+            messages.increment();
+            bytes.add(size);
+            deliveredBytes.add((long) size * sessions);
+            encodeNanos.add(nanos);
+            fanOut.add(sessions);
+            maxEncodeNanos.accumulateAndGet(nanos, Math::max);
+            maxFanOut.accumulateAndGet(sessions, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            long count = Math.max(1, messages.sum());
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("messages", messages.sum());
+            snapshot.put("bytesEncoded", bytes.sum());
+            snapshot.put("bytesDelivered", deliveredBytes.sum());
+            snapshot.put("avgEncodeMicros", encodeNanos.sum() / count / 1_000.0);
+            snapshot.put("maxEncodeMicros", maxEncodeNanos.get() / 1_000.0);
+            snapshot.put("avgFanOut", (double) fanOut.sum() / count);
+            snapshot.put("maxFanOut", maxFanOut.get());
+            return snapshot;
+        }
+    }
+}
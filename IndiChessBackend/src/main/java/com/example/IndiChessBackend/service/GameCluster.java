@@ -0,0 +1,265 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Which node owns each live game when several backend nodes run behind one load balancer.
+ *
+ * Match ids are mapped to nodes by a ConsistentHashRing over the current members. A player's
+ * command that arrives at any other node is forwarded to the owner, so each game's in-memory
+ * state lives on exactly one node. cluster.nodes lists the candidate nodes (id=url); a node
+ * becomes a member once it has announced itself, so nodes can start in any order. When a node
+ * joins or leaves, every member rebuilds its ring and hands the games it no longer owns to their
+ * new owner (see GameService). A node that stops cleanly hands off all its games first.
+ *
+ * Every node re-announces itself to the others every cluster.heartbeat-ms; a member that misses
+ * cluster.max-missed-heartbeats in a row is presumed dead and removed from the ring, and re-joins
+ * when it answers again. A dead node's games are lost with it: their moves now go to a new owner
+ * that never had their state, so they cannot be played on (the match rows stay IN_PROGRESS).
+ *
+ * With cluster.nodes empty this node owns every game and nothing is forwarded. Pair with the
+ * STOMP broker relay (websocket.broker=relay) so the owner's broadcasts reach every node.
+ */
+@Service
+public class GameCluster {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameCluster.class);
+
+    public record Member(String id, String url) {
+    }
+
+    private final GameClusterTransport transport;
+    private final Member self;
+    private final List<Member> peers = new ArrayList<>();
+    private final byte[] secret;
+    private final int virtualNodes;
+    private final int maxMissedHeartbeats;
+
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private final List<Runnable> ownershipListeners = new CopyOnWriteArrayList<>();
+    private volatile ConsistentHashRing ring;
+    private volatile boolean stopped;
+
+    // Consecutive failed announces per node, reset by any successful one
+    private final Map<String, Integer> missedHeartbeats = new ConcurrentHashMap<>();
+
+    private final LongAdder commandsForwarded = new LongAdder();
+    private final LongAdder gamesHandedOff = new LongAdder();
+    private final LongAdder handOffFailures = new LongAdder();
+    private final LongAdder nodesEvicted = new LongAdder();
+
+    GameCluster(GameClusterTransport transport,
+                @Value("${cluster.node-id:local}") String nodeId,
+                @Value("${cluster.nodes:}") String nodes,
+                @Value("${cluster.secret:}") String secret,
+                @Value("${cluster.virtual-nodes:256}") int virtualNodes,
+                @Value("${cluster.max-missed-heartbeats:3}") int maxMissedHeartbeats) {
+        this.transport = transport;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.virtualNodes = virtualNodes;
+        this.maxMissedHeartbeats = Math.max(1, maxMissedHeartbeats);
+
+        String selfUrl = "";
+        for (String entry : nodes.split(",")) {
+            String[] idAndUrl = entry.trim().split("=", 2);
+            if (idAndUrl.length != 2) {
+                continue;
+            }
+            Member member = new Member(idAndUrl[0].trim(), idAndUrl[1].trim());
+            if (member.id().equals(nodeId)) {
+                selfUrl = member.url();
+            } else {
+                peers.add(member);
+            }
+        }
+        this.self = new Member(nodeId, selfUrl);
+        members.put(nodeId, self);
+        ring = new ConsistentHashRing(members.keySet(), virtualNodes);
+    }
+
+    public String getNodeId() {
+        return self.id();
+    }
+
+    public boolean isLocal(long matchId) {
+        String owner = ring.ownerOf(matchId);
+        return owner == null || owner.equals(self.id());
+    }
+
+    /**
+     * Called after every membership change, once the new ring is in place
+     */
+    public void addOwnershipListener(Runnable listener) {
+        ownershipListeners.add(listener);
+    }
+
+    /**
+     * Sends the command to the game's owner if that is another node.
+     *
+     * @return false if this node owns the game and should run the command itself
+     */
+    public boolean forwardIfRemote(GameCommand command) {
+        Member owner = remoteOwner(command.getMatchId());
+        if (owner == null) {
+            return false;
+        }
+        transport.forward(owner, command);
+        commandsForwarded.increment();
+        return true;
+    }
+
+    /**
+     * The owner's state of a game owned by another node
+     */
+    public GameSnapshot openOnOwner(long matchId) {
+        Member owner = remoteOwner(matchId);
+        if (owner == null) {
+            throw new IllegalStateException("Game " + matchId + " is owned by this node");
+        }
+        return transport.open(owner, matchId);
+    }
+
+    /**
+     * Gives a game this node no longer owns to its owner; false if that failed (keep the state)
+     */
+    public boolean handOff(GameSnapshot snapshot) {
+        Member owner = remoteOwner(snapshot.getMatchId());
+        if (owner == null) {
+            return false;
+        }
+        try {
+            transport.handOff(owner, snapshot);
+            gamesHandedOff.increment();
+            return true;
+        } catch (RuntimeException e) {
+            handOffFailures.increment();
+            logger.warn("⚠️ Could not hand game {} to node {}: {}", snapshot.getMatchId(), owner.id(), e.getMessage());
+            return false;
+        }
+    }
+
+    private Member remoteOwner(long matchId) {
+        String owner = ring.ownerOf(matchId);
+        return owner == null || owner.equals(self.id()) ? null : members.get(owner);
+    }
+
+    // Join every configured node that is already up; the others announce themselves when they start
+    @EventListener(ApplicationReadyEvent.class)
+    public void announce() {
+        for (Member peer : peers) {
+            announceTo(peer);
+        }
+    }
+
+    /**
+     * Announce this node to every known node: keeps this node in their rings, re-admits nodes
+     * that are back and evicts members that stopped answering
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-ms:2000}", initialDelayString = "${cluster.heartbeat-ms:2000}")
+    public void heartbeat() {
+        if (stopped) {
+            return;
+        }
+        Map<String, Member> known = new LinkedHashMap<>();
+        peers.forEach(peer -> known.put(peer.id(), peer));
+        members.values().forEach(member -> known.putIfAbsent(member.id(), member));
+        known.remove(self.id());
+        known.values().forEach(this::announceTo);
+    }
+
+    private void announceTo(Member peer) {
+        try {
+            transport.announce(peer, self);
+            join(peer);
+        } catch (RuntimeException e) {
+            int missed = missedHeartbeats.merge(peer.id(), 1, Integer::sum);
+            if (missed >= maxMissedHeartbeats && members.containsKey(peer.id())) {
+                logger.warn("💀 Node {} missed {} heartbeats, removing it from the cluster: {}",
+                        peer.id(), missed, e.getMessage());
+                nodesEvicted.increment();
+                leave(peer.id());
+            } else if (missed == 1) {
+                logger.info("🔌 Cluster node {} is not reachable: {}", peer.id(), e.getMessage());
+            }
+        }
+    }
+
+    public void join(Member member) {
+        // Hearing from a node (or reaching it) proves it is alive
+        missedHeartbeats.remove(member.id());
+        if (member.id().equals(self.id()) || member.equals(members.put(member.id(), member))) {
+            return;
+        }
+        logger.info("🔗 Node {} joined the cluster", member.id());
+        rebuild();
+    }
+
+    public void leave(String nodeId) {
+        if (nodeId.equals(self.id()) || members.remove(nodeId) == null) {
+            return;
+        }
+        logger.info("🔌 Node {} left the cluster", nodeId);
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        ring = new ConsistentHashRing(members.keySet(), virtualNodes);
+        ownershipListeners.forEach(Runnable::run);
+    }
+
+    // Hand off every game, then tell the others this node is gone
+    @PreDestroy
+    public synchronized void shutdown() {
+        stopped = true;
+        if (members.size() == 1) {
+            return;
+        }
+        members.remove(self.id());
+        rebuild();
+        for (Member member : members.values()) {
+            try {
+                transport.leave(member, self.id());
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Could not tell node {} that {} is leaving: {}", member.id(), self.id(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Whether a node-to-node call carries the shared cluster.secret (never, if none is set)
+     */
+    public boolean isTrusted(String presentedSecret) {
+        return secret.length > 0 && presentedSecret != null
+                && MessageDigest.isEqual(secret, presentedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", self.id());
+        stats.put("members", new TreeSet<>(members.keySet()));
+        stats.put("configuredPeers", peers.stream().map(Member::id).toList());
+        stats.put("virtualNodes", virtualNodes);
+        stats.put("commandsForwarded", commandsForwarded.sum());
+        stats.put("gamesHandedOff", gamesHandedOff.sum());
+        stats.put("handOffFailures", handOffFailures.sum());
+        stats.put("nodesEvicted", nodesEvicted.sum());
+        stats.put("missedHeartbeats", new TreeMap<>(missedHeartbeats));
+        return stats;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+
+/**
+ * Node-to-node calls used by GameCluster; failures are thrown as runtime exceptions
+ */
+public interface GameClusterTransport {
+
+    /**
+     * Run a player's command on the node that owns the game
+     */
+    void forward(GameCluster.Member target, GameCommand command);
+
+    /**
+     * The owner's current state of a game, opening it there first if needed
+     */
+    GameSnapshot open(GameCluster.Member target, long matchId);
+
+    /**
+     * Give a game's state to its new owner
+     */
+    void handOff(GameCluster.Member target, GameSnapshot snapshot);
+
+    void announce(GameCluster.Member target, GameCluster.Member joining);
+
+    void leave(GameCluster.Member target, String nodeId);
+}
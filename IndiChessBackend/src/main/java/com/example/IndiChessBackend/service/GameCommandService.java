@@ -0,0 +1,240 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.config.MoveFormatInterceptor;
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameDTO;
+import com.example.IndiChessBackend.model.DTO.GameStatusDTO;
+import com.example.IndiChessBackend.model.DTO.MoveDTO;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.util.RawValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs players' game commands (moves, joins, resignations, draws, chat) and publishes the
+ * results to the game's topics. A command for a game another node owns is forwarded there by
+ * GameCluster and run by that node's GameCommandService instead.
+ *
+ * Commands for one game run one at a time, so their frames are numbered (GameEventLog) in the
+ * order they happened.
+ */
+@Service
+@RequiredArgsConstructor
+public class GameCommandService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameCommandService.class);
+
+    private final GameService gameService;
+    private final GameCluster gameCluster;
+    private final GameBroadcaster gameBroadcaster;
+    private final SpectatorHub spectatorHub;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEventLog eventLog;
+
+    /**
+     * Run here if this node owns the game, otherwise on the owner
+     */
+    public void submit(GameCommand command) {
+        try {
+            if (gameCluster.forwardIfRemote(command)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Could not forward {} for game {}: {}", command.getType(), command.getMatchId(), e.getMessage());
+            eventLog.serialize(command.getMatchId(), () -> {
+                fail(command, "Game server unavailable, please retry");
+                discardIfNotInPlay(command.getMatchId());
+            });
+            return;
+        }
+        execute(command);
+    }
+
+    /**
+     * Run on this node, whoever owns the game (forwarded commands land here)
+     */
+    public void execute(GameCommand command) {
+        eventLog.serialize(command.getMatchId(), () -> {
+            try {
+                switch (command.getType()) {
+                    case MOVE -> move(command);
+                    case JOIN -> join(command);
+                    case RESIGN -> resign(command);
+                    case DRAW_OFFER -> offerDraw(command);
+                    case DRAW_ACCEPT -> acceptDraw(command);
+                    case CHAT -> chat(command);
+                    case RESYNC -> resync(command);
+                }
+                // Still inside serialize, so the read model is current to the seq just published
+                switch (command.getType()) {
+                    case MOVE, JOIN, RESIGN, DRAW_ACCEPT -> gameService.refreshView(command.getMatchId());
+                    default -> { }
+                }
+            } catch (Exception e) {
+                logger.warn("Error handling {} for game {}: {}", command.getType(), command.getMatchId(), e.getMessage());
+                fail(command, e.getMessage());
+            }
+            discardIfNotInPlay(command.getMatchId());
+        });
+    }
+
+    // Once a command's frames are out, a finished (or unknown) game's log is not kept
+    private void discardIfNotInPlay(Long matchId) {
+        if (!gameService.isInPlay(matchId)) {
+            eventLog.discard(matchId);
+        }
+    }
+
+    // JSON to /topic/moves/{matchId}, and the same move as a binary frame for clients that
+    // negotiated one (see MoveFormatInterceptor). A retry of a move already made (same
+    // clientMoveId) is not run again: only its sender gets the original on /user/queue/moves.
+    private void move(GameCommand command) {
+        Long matchId = command.getMatchId();
+        logger.debug("Received move for game {} from {}", matchId, command.getUsername());
+        MoveDTO original = gameService.findRecentMove(matchId, command.getUsername(),
+                command.getMove().getClientMoveId());
+        if (original != null) {
+            logger.debug("Move {} in game {} already made, resending it to {}", original.getClientMoveId(),
+                    matchId, command.getUsername());
+            messagingTemplate.convertAndSendToUser(command.getUsername(), "/queue/moves", original);
+            return;
+        }
+        MoveDTO move = gameService.processMove(matchId, command.getMove(), command::getUsername);
+        long seq = gameBroadcaster.broadcast(MoveFormatInterceptor.MOVES_PREFIX + matchId, move);
+        gameBroadcaster.broadcastBinary(MoveFormatInterceptor.BINARY_MOVES_PREFIX + matchId, seq,
+                () -> MoveFrameCodec.encodeMove(move));
+        spectatorHub.publishPosition(matchId, move);
+    }
+
+    private void join(GameCommand command) {
+        logger.debug("Player {} joining game {}", command.getUsername(), command.getMatchId());
+        GameStatusDTO status = gameService.handlePlayerJoin(command.getMatchId(), command.getJoin(),
+                command::getUsername);
+        gameBroadcaster.broadcast("/topic/game/" + command.getMatchId(), status);
+    }
+
+    private void resign(GameCommand command) {
+        logger.debug("Player {} resigning from game {}", command.getUsername(), command.getMatchId());
+        gameService.handleResignation(command.getMatchId(), command.getUsername());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "RESIGNATION");
+        response.put("player", command.getUsername());
+        response.put("matchId", command.getMatchId());
+        response.put("timestamp", System.currentTimeMillis());
+        gameBroadcaster.broadcast("/topic/game-state/" + command.getMatchId(), response);
+        spectatorHub.publishState(command.getMatchId(), response);
+    }
+
+    // The offer goes to the opponent (GameService); the confirmation to the player who made it
+    private void offerDraw(GameCommand command) {
+        logger.debug("Player {} offering draw in game {}", command.getUsername(), command.getMatchId());
+        gameService.handleDrawOffer(command.getMatchId(), command.getUsername());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "DRAW_OFFER_SENT");
+        response.put("matchId", command.getMatchId());
+        response.put("timestamp", System.currentTimeMillis());
+        messagingTemplate.convertAndSendToUser(command.getUsername(), "/queue/draw-offers", response);
+    }
+
+    private void acceptDraw(GameCommand command) {
+        logger.debug("Player {} accepting draw in game {}", command.getUsername(), command.getMatchId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "DRAW_ACCEPTED");
+        response.put("player", command.getUsername());
+        response.put("matchId", command.getMatchId());
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("status", "DRAW");
+        gameBroadcaster.broadcast("/topic/game-state/" + command.getMatchId(), response);
+        spectatorHub.publishState(command.getMatchId(), response);
+    }
+
+    private void chat(GameCommand command) {
+        logger.debug("Chat message from {} in game {}", command.getUsername(), command.getMatchId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "CHAT_MESSAGE");
+        response.put("from", command.getUsername());
+        response.put("message", command.getMessage());
+        response.put("matchId", command.getMatchId());
+        response.put("timestamp", System.currentTimeMillis());
+        gameBroadcaster.broadcast("/topic/chat/" + command.getMatchId(), response);
+    }
+
+    // A reconnecting client's catch-up on /user/queue/resync: the game-topic frames after its
+    // lastSeq (as JSON, with their seq and destination), or the whole game when they are no
+    // longer all buffered
+    private void resync(GameCommand command) {
+        Long matchId = command.getMatchId();
+        List<GameEventLog.Frame> missed = command.getLastSeq() == null ? null
+                : eventLog.since(matchId, command.getLastSeq());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("matchId", matchId);
+        if (missed != null) {
+            List<Map<String, Object>> frames = new ArrayList<>(missed.size());
+            for (GameEventLog.Frame frame : missed) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("seq", frame.seq());
+                entry.put("destination", frame.destination());
+                entry.put("payload", new RawValue(new String(frame.payload(), StandardCharsets.UTF_8)));
+                frames.add(entry);
+            }
+            response.put("type", "DELTA");
+            response.put("seq", missed.isEmpty() ? command.getLastSeq() : missed.getLast().seq());
+            response.put("frames", frames);
+        } else {
+            GameDTO game = gameService.getGameDetailsForUser(matchId, command.getUsername());
+            response.put("type", "SNAPSHOT");
+            response.put("seq", game.getSeq());
+            response.put("game", game);
+        }
+        logger.debug("Resync for {} in game {} from seq {}: {}", command.getUsername(), matchId,
+                command.getLastSeq(), response.get("type"));
+        messagingTemplate.convertAndSendToUser(command.getUsername(), "/queue/resync", response);
+    }
+
+    // Errors go where the command's result would have gone
+    private void fail(GameCommand command, String message) {
+        Long matchId = command.getMatchId();
+        switch (command.getType()) {
+            case MOVE -> {
+                MoveDTO error = new MoveDTO();
+                error.setMatchId(matchId);
+                error.setMoveNotation("ERROR: " + message);
+                long seq = gameBroadcaster.broadcast(MoveFormatInterceptor.MOVES_PREFIX + matchId, error);
+                gameBroadcaster.broadcastBinary(MoveFormatInterceptor.BINARY_MOVES_PREFIX + matchId, seq,
+                        () -> MoveFrameCodec.encodeError("ERROR: " + message));
+            }
+            case JOIN -> {
+                GameStatusDTO status = new GameStatusDTO();
+                status.setMatchId(matchId);
+                status.setStatus("ERROR: " + message);
+                gameBroadcaster.broadcast("/topic/game/" + matchId, status);
+            }
+            case RESIGN, DRAW_ACCEPT -> gameBroadcaster.broadcast("/topic/game-state/" + matchId, error(message));
+            case DRAW_OFFER -> messagingTemplate.convertAndSendToUser(command.getUsername(), "/queue/draw-offers",
+                    error(message));
+            case CHAT -> gameBroadcaster.broadcast("/topic/chat/" + matchId, error(message));
+            case RESYNC -> messagingTemplate.convertAndSendToUser(command.getUsername(), "/queue/resync",
+                    error(message));
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", message);
+        return error;
+    }
+}
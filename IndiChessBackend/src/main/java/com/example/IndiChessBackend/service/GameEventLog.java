@@ -0,0 +1,176 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * Sequence numbers for each match's game topics, and the match's last few frames.
+ *
+ * Every frame published on a game topic gets the next number for its match (the "seq" STOMP
+ * header), so a client can tell when it missed some. A client that reconnects sends the last
+ * seq it saw and is sent only the frames after it, as long as they are still buffered
+ * (game.resync.buffer-size per match); otherwise it reloads the game, whose state carries the
+ * seq it is current to. The log lives on the node that owns the game; a game handed to another
+ * node keeps its numbering there, but not its buffered frames. Logs are only kept for games in
+ * play: GameCommandService discards a log once its game has finished (or never existed here).
+ */
+@Service
+public class GameEventLog {
+
+    public record Frame(long seq, String destination, byte[] payload) {
+    }
+
+    private final int capacity;
+    private final Map<Long, MatchLog> logs = new ConcurrentHashMap<>();
+
+    GameEventLog(@Value("${game.resync.buffer-size:32}") int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Numbers and keeps a frame, then publishes it with that number
+     */
+    public long append(Long matchId, String destination, byte[] payload, LongConsumer publisher) {
+        while (true) {
+            MatchLog log = log(matchId);
+            synchronized (log) {
+                if (log.discarded) {
+                    continue; // discarded while we waited: take the match's new log
+                }
+                long seq = ++log.lastSeq;
+                log.add(new Frame(seq, destination, payload));
+                publisher.accept(seq);
+                return seq;
+            }
+        }
+    }
+
+    /**
+     * Runs action with the match's log held, so commands for a match publish in the order they
+     * ran and state read inside it is current to currentSeq
+     */
+    public void serialize(Long matchId, Runnable action) {
+        while (true) {
+            MatchLog log = log(matchId);
+            synchronized (log) {
+                if (log.discarded) {
+                    continue;
+                }
+                action.run();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the match's state together with the seq it is current to (0 for a match without a log)
+     */
+    public <T> T read(Long matchId, LongFunction<T> reader) {
+        MatchLog log = logs.get(matchId);
+        if (log == null) {
+            return reader.apply(0);
+        }
+        synchronized (log) {
+            return reader.apply(log.lastSeq);
+        }
+    }
+
+    public long currentSeq(Long matchId) {
+        MatchLog log = logs.get(matchId);
+        return log == null ? 0 : log.lastSeq;
+    }
+
+    /**
+     * The frames after lastSeq, oldest first, or null if some of them are no longer buffered
+     * (or lastSeq is ahead of this log, e.g. after a restart, or the match has no log here)
+     */
+    public List<Frame> since(Long matchId, long lastSeq) {
+        MatchLog log = logs.get(matchId);
+        if (log == null) {
+            return null;
+        }
+        synchronized (log) {
+            if (lastSeq > log.lastSeq || lastSeq < log.lastSeq - log.size) {
+                return null;
+            }
+            List<Frame> frames = new ArrayList<>((int) (log.lastSeq - lastSeq));
+            for (int i = log.size - (int) (log.lastSeq - lastSeq); i < log.size; i++) {
+                frames.add(log.get(i));
+            }
+            return frames;
+        }
+    }
+
+    /**
+     * Continues a handed-off game's numbering; frames from before are not available here
+     */
+    public void restore(Long matchId, long seq) {
+        MatchLog log = log(matchId);
+        synchronized (log) {
+            if (seq > log.lastSeq) {
+                log.lastSeq = seq;
+                log.clear();
+            }
+        }
+    }
+
+    /**
+     * Drops the match's log. Commands already waiting for it move on to a new one.
+     */
+    public void discard(Long matchId) {
+        MatchLog log = logs.remove(matchId);
+        if (log != null) {
+            synchronized (log) {
+                log.discarded = true;
+            }
+        }
+    }
+
+    int size() {
+        return logs.size();
+    }
+
+    private MatchLog log(Long matchId) {
+        return logs.computeIfAbsent(matchId, id -> new MatchLog(capacity));
+    }
+
+    // Ring of the newest frames; frame i (0 = oldest) has seq lastSeq - size + 1 + i
+    private static final class MatchLog {
+        private final Frame[] frames;
+        private int start;
+        private int size;
+        private long lastSeq;
+        private boolean discarded;
+
+        MatchLog(int capacity) {
+            frames = new Frame[capacity];
+        }
+
+        void add(Frame frame) {
+            if (size < frames.length) {
+                frames[(start + size++) % frames.length] = frame;
+            } else {
+                frames[start] = frame;
+                start = (start + 1) % frames.length;
+            }
+        }
+
+        Frame get(int i) {
+            return frames[(start + i) % frames.length];
+        }
+
+        void clear() {
+            Arrays.fill(frames, null);
+            start = 0;
+            size = 0;
+        }
+    }
+}
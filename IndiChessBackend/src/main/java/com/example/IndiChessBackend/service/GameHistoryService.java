@@ -0,0 +1,119 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.MatchSummaryView;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Keyset-paginated game history.
+ * Pages are addressed by an opaque (createdAt, id) cursor instead of an offset,
+ * so a deep page costs the same two index range scans as the first one.
+ */
+@Service
+@RequiredArgsConstructor
+public class GameHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Cursor used for the first page: later than any real match
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    private static final Comparator<MatchSummaryView> NEWEST_FIRST =
+            Comparator.comparing(MatchSummaryView::getCreatedAt)
+                    .thenComparing(MatchSummaryView::getId)
+                    .reversed();
+
+    private final MatchRepo matchRepo;
+
+    public record HistoryPage(List<Map<String, Object>> games, String nextCursor) {
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    /**
+     * Get one page of a user's games, newest first
+     * @param userId The user whose games to list
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size (capped at MAX_PAGE_SIZE)
+     */
+    public HistoryPage getHistoryPage(Long userId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime createdAt = FIRST_PAGE_CREATED_AT;
+        Long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor decoded = decodeCursor(cursor);
+            createdAt = decoded.createdAt();
+            id = decoded.id();
+        }
+
+        // One extra row per seat tells us whether another page exists
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<MatchSummaryView> rows = new ArrayList<>(2 * (size + 1));
+        rows.addAll(matchRepo.findAsPlayer1Before(userId, createdAt, id, pageRequest));
+        rows.addAll(matchRepo.findAsPlayer2Before(userId, createdAt, id, pageRequest));
+        rows.sort(NEWEST_FIRST);
+
+        boolean hasMore = rows.size() > size;
+        List<MatchSummaryView> page = hasMore ? rows.subList(0, size) : rows;
+
+        List<Map<String, Object>> games = new ArrayList<>(page.size());
+        for (MatchSummaryView row : page) {
+            games.add(toGameInfo(row, userId));
+        }
+
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new HistoryPage(games, nextCursor);
+    }
+
+    private Map<String, Object> toGameInfo(MatchSummaryView row, Long userId) {
+        Map<String, Object> gameInfo = new HashMap<>();
+        gameInfo.put("id", row.getId());
+        gameInfo.put("player1", row.getPlayer1Username());
+        gameInfo.put("player2", row.getPlayer2Username());
+        gameInfo.put("status", row.getStatus() != null ? row.getStatus().toString() : null);
+        gameInfo.put("createdAt", row.getCreatedAt());
+        gameInfo.put("finishedAt", row.getFinishedAt());
+        gameInfo.put("currentPly", row.getCurrentPly());
+        gameInfo.put("result", resultFor(row.getStatus(), userId.equals(row.getPlayer1Id())));
+        return gameInfo;
+    }
+
+    /**
+     * Result of a match from one player's point of view
+     */
+    static String resultFor(MatchStatus status, boolean isPlayer1) {
+        if (status == null) {
+            return "In Progress";
+        }
+        return switch (status) {
+            case PLAYER1_WON -> isPlayer1 ? "Win" : "Loss";
+            case PLAYER2_WON -> isPlayer1 ? "Loss" : "Win";
+            case DRAW -> "Draw";
+            case IN_PROGRESS -> "In Progress";
+        };
+    }
+
+    private static String encodeCursor(MatchSummaryView row) {
+        String raw = row.getCreatedAt() + "|" + row.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
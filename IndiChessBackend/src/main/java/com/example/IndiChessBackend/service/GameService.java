@@ -6,7 +6,7 @@ import com.example.IndiChessBackend.model.MatchStatus;
 import com.example.IndiChessBackend.model.User;
 import com.example.IndiChessBackend.repo.MatchRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,15 +14,13 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -34,17 +32,25 @@ public class GameService {
 
     private final MatchRepo matchRepo;
     private final UserRepo userRepo;
-    private final JwtService jwtService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final MyUserDetailsService userDetailsService;
     private final ChessMoveValidator chessMoveValidator;
     private final MoveService moveService;
     private final RatingService ratingService;
+    private final TournamentService tournamentService;
+    private final GameBroadcaster gameBroadcaster;
+    private final GameCluster gameCluster;
+    private final GameEventLog eventLog;
+    private final LiveGameReadModel readModel;
 
     // In-memory storage for active games (can be replaced with Redis for production)
     private final Map<Long, GameState> activeGames = new ConcurrentHashMap<>();
     private final Map<Long, List<String>> gamePlayers = new ConcurrentHashMap<>();
 
+    // Per game, the last few moves by player and clientMoveId, so a retried move frame is answered with the
+    // original result instead of being validated (and maybe applied) again
+    private static final int RECENT_MOVES = 8;
+    private final Map<Long, Map<String, MoveDTO>> recentMoves = new ConcurrentHashMap<>();
+
     // Helper class to store game state
     @Data
     @NoArgsConstructor
@@ -56,82 +62,141 @@ public class GameService {
         private String player1Username;
         private String player2Username;
         private LocalDateTime lastMoveTime;
+        private int ply;
+        private long startedAtMillis;
+        private PackedMoveList moves;
     }
 
-    public GameDTO getGameDetails(Long matchId, HttpServletRequest request) {
-        String username = getUsernameFromRequest(request);
-        if (username == null) {
-            throw new RuntimeException("User not authenticated");
-        }
-
-        Optional<Match> matchOpt = matchRepo.findById(matchId);
-        if (matchOpt.isEmpty()) {
-            throw new RuntimeException("Game not found");
+    /**
+     * A live game this node owns is served from the read model; the database is only read the
+     * first time a game is seen here, or for a game another node owns (whose state comes from it)
+     */
+    public GameDTO getGameDetailsForUser(Long matchId, String username) {
+        LiveGameReadModel.LiveGameView view = readModel.get(matchId);
+        if (view == null || !view.hasPlayers()) {
+            view = loadView(matchId);
         }
 
-        Match match = matchOpt.get();
-
         // Determine player color
-        String playerColor = determinePlayerColor(match, username);
-
-        // Determine if it's this player's turn
-        boolean isMyTurn = determineMyTurn(match, username);
-
-        // Get or initialize game state
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            gameState = initializeGameState(match);
-            activeGames.put(matchId, gameState);
-
-            // Store player usernames
-            List<String> players = new ArrayList<>();
-            players.add(match.getPlayer1().getUsername());
-            players.add(match.getPlayer2().getUsername());
-            gamePlayers.put(matchId, players);
+        String playerColor;
+        if (view.player1().getUsername().equals(username)) {
+            playerColor = "white"; // Player1 is white
+        } else if (view.player2().getUsername().equals(username)) {
+            playerColor = "black"; // Player2 is black
+        } else {
+            throw new RuntimeException("User not part of this game");
         }
 
         // Create response DTO
+        GameSnapshot state = view.state();
         GameDTO gameDTO = new GameDTO();
-        gameDTO.setId(match.getId());
-        gameDTO.setPlayer1(match.getPlayer1());
-        gameDTO.setPlayer2(match.getPlayer2());
-        gameDTO.setStatus(gameState.getStatus());
+        gameDTO.setId(matchId);
+        gameDTO.setPlayer1(view.player1());
+        gameDTO.setPlayer2(view.player2());
+        gameDTO.setStatus(state.getStatus());
         gameDTO.setPlayerColor(playerColor);
-        gameDTO.setMyTurn(isMyTurn);
-        gameDTO.setBoard(gameState.getBoard());
-        gameDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
-        gameDTO.setCreatedAt(match.getCreatedAt());
-        gameDTO.setUpdatedAt(match.getUpdatedAt());
+        gameDTO.setMyTurn(view.isMyTurn(username));
+        gameDTO.setBoard(state.getBoard());
+        gameDTO.setFen(view.fen());
+        gameDTO.setCreatedAt(view.createdAt());
+        gameDTO.setUpdatedAt(view.updatedAt());
+        gameDTO.setSeq(state.getSeq());
 
         return gameDTO;
     }
 
-    private String determinePlayerColor(Match match, String username) {
-        if (match.getPlayer1().getUsername().equals(username)) {
-            return "white"; // Player1 is white
-        } else if (match.getPlayer2().getUsername().equals(username)) {
-            return "black"; // Player2 is black
-        }
-        throw new RuntimeException("User not part of this game");
+    // First read of a game here: starts it if this node owns it and it is not running yet. A game
+    // another node owns is read from that node and not kept, since its state changes there.
+    private LiveGameReadModel.LiveGameView loadView(Long matchId) {
+        Match match = matchRepo.findById(matchId).orElseThrow(() -> new RuntimeException("Game not found"));
+        if (!activeGames.containsKey(matchId) && !gameCluster.isLocal(matchId)) {
+            GameSnapshot state = gameCluster.openOnOwner(matchId);
+            return new LiveGameReadModel.LiveGameView(matchId, match.getPlayer1(), match.getPlayer2(),
+                    match.getCreatedAt(), match.getUpdatedAt(), state,
+                    convertBoardToFEN(state.getBoard(), state.isWhiteTurn()));
+        }
+        return start(match);
     }
 
-    private boolean determineMyTurn(Match match, String username) {
-        GameState gameState = activeGames.get(match.getId());
-        if (gameState == null) {
-            // First move - white starts
-            return match.getPlayer1().getUsername().equals(username);
+    /**
+     * A match just created (matchmaking, tournaments): starts its game here if this node owns it,
+     * from the saved entity, so nothing is read back. Otherwise the owner starts it when the game
+     * is first joined or read there.
+     */
+    public void startGame(Match match) {
+        if (gameCluster.isLocal(match.getId())) {
+            start(match);
         }
+    }
 
-        // Determine whose turn it is based on game state
-        boolean isWhiteTurn = gameState.isWhiteTurn();
-        if (isWhiteTurn) {
-            return match.getPlayer1().getUsername().equals(username);
+    /**
+     * Status of a live game from the read model (or from its owner), without database access
+     */
+    public Map<String, Object> getGameStatus(Long matchId) {
+        GameSnapshot state;
+        LiveGameReadModel.LiveGameView view = readModel.get(matchId);
+        if (view != null) {
+            state = view.state();
+        } else if (!gameCluster.isLocal(matchId)) {
+            state = gameCluster.openOnOwner(matchId);
         } else {
-            return match.getPlayer2().getUsername().equals(username);
+            state = null;
+        }
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("matchId", matchId);
+        status.put("isActive", state != null && "IN_PROGRESS".equals(state.getStatus()));
+        if (state != null) {
+            status.put("status", state.getStatus());
+            status.put("whiteTurn", state.isWhiteTurn());
+            status.put("ply", state.getPly());
+            status.put("seq", state.getSeq());
+            status.put("lastMoveMillis", state.getLastMoveMillis());
         }
+        return status;
     }
 
-    private GameState initializeGameState(Match match) {
+    /**
+     * Whether this node is running the game and it has not finished
+     */
+    public boolean isInPlay(Long matchId) {
+        GameState gameState = activeGames.get(matchId);
+        return gameState != null && "IN_PROGRESS".equals(gameState.getStatus());
+    }
+
+    /**
+     * Brings the read model up to date once a command's changes to the game are published
+     */
+    public void refreshView(Long matchId) {
+        GameSnapshot state = exportGame(matchId);
+        if (state != null) {
+            readModel.apply(state);
+        }
+    }
+
+    // The running game with its players in the read model, starting it if needed
+    private LiveGameReadModel.LiveGameView start(Match match) {
+        GameState gameState = activate(match);
+        return eventLog.read(match.getId(), seq -> readModel.register(match, toSnapshot(match.getId(), gameState, seq)));
+    }
+
+    // Single flight: however many first joins and reads race, one of them initializes the game and
+    // the others get that state, instead of each resetting the board with its own
+    private GameState activate(Match match) {
+        return activeGames.computeIfAbsent(match.getId(), id -> {
+            GameState gameState = initializeGameState(match);
+
+            // Store player usernames
+            List<String> players = new ArrayList<>();
+            players.add(gameState.getPlayer1Username());
+            players.add(gameState.getPlayer2Username());
+            gamePlayers.put(id, players);
+            return gameState;
+        });
+    }
+
+    // Package-private for GameServiceTest, which counts how often a game is initialized
+    GameState initializeGameState(Match match) {
         String[][] initialBoard = {
                 {"r", "n", "b", "q", "k", "b", "n", "r"},
                 {"p", "p", "p", "p", "p", "p", "p", "p"},
@@ -150,13 +215,10 @@ public class GameService {
         gameState.setPlayer1Username(match.getPlayer1().getUsername());
         gameState.setPlayer2Username(match.getPlayer2().getUsername());
         gameState.setLastMoveTime(LocalDateTime.now());
+        gameState.setStartedAtMillis(System.currentTimeMillis());
+        gameState.setMoves(new PackedMoveList());
 
-        // Set initial FEN in database
-        String initialFen = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
-        match.setFenCurrent(initialFen);
-        match.setCurrentPly(0);
-        matchRepo.save(match);
-
+        // The match row already has the initial FEN (see Match), so starting a game writes nothing
         return gameState;
     }
 
@@ -259,6 +321,7 @@ public class GameService {
         gameState.setWhiteTurn(!isWhiteTurn); // Switch turns
         gameState.setLastMoveTime(LocalDateTime.now());
         gameState.setStatus("IN_PROGRESS");
+        gameState.setPly(gameState.getPly() + 1);
 
         // Update active games
         activeGames.put(matchId, gameState);
@@ -320,21 +383,48 @@ public class GameService {
         moveDTO.setTimestamp(LocalDateTime.now());
         moveDTO.setMoveNotation(moveNotation);
         moveDTO.setPlayerUsername(username);
+        moveDTO.setPly(gameState.getPly());
+        moveDTO.setClockMillis(System.currentTimeMillis() - gameState.getStartedAtMillis());
+        moveDTO.setPositionHash(String.format("%016x", ZobristHasher.hash(newBoard, !isWhiteTurn)));
+        moveDTO.setClientMoveId(moveRequest.getClientMoveId());
+        gameState.getMoves().add(moveDTO);
+        rememberMove(matchId, moveDTO);
 
         System.out.println("📤 Prepared MoveDTO for broadcasting. Board included: " +
                 (moveDTO.getBoard() != null ? "YES" : "NO"));
         System.out.println("🎯 Intended destination: /topic/moves/" + matchId);
 
         // NOTE: The controller method handling STOMP messages (@MessageMapping "/game/{matchId}/move")
-        // is annotated with @SendTo("/topic/moves/{matchId}"). Returning the MoveDTO from that
-        // controller will cause the STOMP broker to publish to the topic. To avoid sending the
-        // same MoveDTO twice, we do NOT call messagingTemplate.convertAndSend here.
-        // If you want server-side initiated broadcasts (not triggered by a controller return),
-        // you can use messagingTemplate.convertAndSend(...) in other methods.
+        // broadcasts the returned MoveDTO through GameBroadcaster, so we do NOT publish it here.
 
         return moveDTO;
     }
 
+    /**
+     * The result of the move this player already sent with clientMoveId, or null if it is new
+     * (or too old to remember). Commands for a game run one at a time (GameCommandService), so
+     * a retry is seen either before the original was processed or after it was remembered.
+     */
+    public MoveDTO findRecentMove(Long matchId, String username, String clientMoveId) {
+        if (clientMoveId == null) {
+            return null;
+        }
+        Map<String, MoveDTO> moves = recentMoves.get(matchId);
+        return moves == null ? null : moves.get(username + "/" + clientMoveId);
+    }
+
+    private void rememberMove(Long matchId, MoveDTO move) {
+        if (move.getClientMoveId() == null) {
+            return;
+        }
+        recentMoves.computeIfAbsent(matchId, id -> Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MoveDTO> eldest) {
+                return size() > RECENT_MOVES;
+            }
+        })).put(move.getPlayerUsername() + "/" + move.getClientMoveId(), move);
+    }
+
     private String createMoveNotation(MoveRequest move) {
         int fromRow = move.getFromRow();
         int fromCol = move.getFromCol();
@@ -448,8 +538,8 @@ public class GameService {
             // Initialize game if not already active
             Optional<Match> matchOpt = matchRepo.findById(matchId);
             if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
+                start(matchOpt.get());
+                gameState = activeGames.get(matchId);
             } else {
                 throw new RuntimeException("Game not found");
             }
@@ -478,7 +568,7 @@ public class GameService {
         }
     }
 
-    private String convertBoardToFEN(String[][] board, boolean isWhiteTurn) {
+    static String convertBoardToFEN(String[][] board, boolean isWhiteTurn) {
         StringBuilder fen = new StringBuilder();
 
         for (int row = 0; row < 8; row++) {
@@ -529,17 +619,21 @@ public class GameService {
                 Optional<Match> matchOpt = matchRepo.findById(matchId);
                 if (matchOpt.isPresent()) {
                     Match match = matchOpt.get();
-                    
-                    // Determine who resigned and set winner
-                    MatchStatus finalStatus;
-                    if (match.getPlayer1().getUsername().equals(username)) {
-                        finalStatus = MatchStatus.PLAYER2_WON; // Player1 resigned, Player2 wins
+                    if (match.getStatus() != MatchStatus.IN_PROGRESS) {
+                        // Already decided, e.g. forfeited by TournamentService after a stalled round
+                        logger.info("Match {} already finished as {}, resignation not recorded", matchId, match.getStatus());
                     } else {
-                        finalStatus = MatchStatus.PLAYER1_WON; // Player2 resigned, Player1 wins
+                        // Determine who resigned and set winner
+                        MatchStatus finalStatus;
+                        if (match.getPlayer1().getUsername().equals(username)) {
+                            finalStatus = MatchStatus.PLAYER2_WON; // Player1 resigned, Player2 wins
+                        } else {
+                            finalStatus = MatchStatus.PLAYER1_WON; // Player2 resigned, Player1 wins
+                        }
+
+                        handleGameCompletion(match, finalStatus);
                     }
                     
-                    handleGameCompletion(match, finalStatus);
-                    
                 } else {
                     logger.warn("⚠️ Match {} not found in database", matchId);
                 }
@@ -553,7 +647,7 @@ public class GameService {
             statusDTO.setStatus("RESIGNED");
             statusDTO.setPlayerColor(getPlayerColor(matchId, username));
 
-            messagingTemplate.convertAndSend("/topic/game-state/" + matchId, statusDTO);
+            gameBroadcaster.broadcast("/topic/game-state/" + matchId, statusDTO);
         }
     }
 
@@ -597,44 +691,127 @@ public class GameService {
         return null;
     }
 
-    private String getUsernameFromRequest(HttpServletRequest request) {
-        String token = extractToken(request);
-        if (token != null) {
-            String username = jwtService.extractUsername(token);
-            if (username != null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(token, userDetails)) {
-                    return jwtService.extractUsername(token);
-                }
+    // Games this node no longer owns go to their new owner after a cluster membership change
+    @PostConstruct
+    void registerWithCluster() {
+        gameCluster.addOwnershipListener(this::handOffMovedGames);
+    }
+
+    void handOffMovedGames() {
+        for (Long matchId : activeGames.keySet()) {
+            if (!gameCluster.isLocal(matchId)) {
+                // Under the game's log, so no command runs between the export and the removal
+                eventLog.serialize(matchId, () -> handOff(matchId));
             }
         }
-        return null;
     }
 
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    private void handOff(Long matchId) {
+        GameSnapshot snapshot = exportGame(matchId);
+        if (snapshot == null) {
+            return;
         }
-
-        // Also check cookies
-        jakarta.servlet.http.Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (jakarta.servlet.http.Cookie cookie : cookies) {
-                if ("JWT".equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
+        Map<String, MoveDTO> moves = recentMoves.get(matchId);
+        if (moves != null) {
+            synchronized (moves) {
+                snapshot.setRecentMoves(new ArrayList<>(moves.values()));
             }
         }
+        if (gameCluster.handOff(snapshot)) {
+            activeGames.remove(matchId);
+            gamePlayers.remove(matchId);
+            recentMoves.remove(matchId);
+            eventLog.discard(matchId);
+            readModel.remove(matchId);
+        }
+    }
 
-        return null;
+    public Set<Long> getActiveGameIds() {
+        return Collections.unmodifiableSet(activeGames.keySet());
+    }
+
+    public GameSnapshot exportGame(Long matchId) {
+        GameState gameState = activeGames.get(matchId);
+        if (gameState == null) {
+            return null;
+        }
+        return eventLog.read(matchId, seq -> toSnapshot(matchId, gameState, seq));
+    }
+
+    private static GameSnapshot toSnapshot(Long matchId, GameState gameState, long seq) {
+        return new GameSnapshot(matchId, gameState.getBoard(), gameState.isWhiteTurn(), gameState.getStatus(),
+                gameState.getPlayer1Username(), gameState.getPlayer2Username(), gameState.getPly(),
+                gameState.getStartedAtMillis(),
+                gameState.getLastMoveTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), seq,
+                gameState.getMoves().toBytes());
+    }
+
+    /**
+     * Takes over a game handed off by another node; keeps whichever state has more moves
+     */
+    public void importGame(GameSnapshot snapshot) {
+        GameState incoming = fromSnapshot(snapshot);
+        activeGames.merge(snapshot.getMatchId(), incoming,
+                (current, handedOff) -> handedOff.getPly() >= current.getPly() ? handedOff : current);
+        gamePlayers.put(snapshot.getMatchId(),
+                new ArrayList<>(List.of(snapshot.getPlayer1Username(), snapshot.getPlayer2Username())));
+        eventLog.restore(snapshot.getMatchId(), snapshot.getSeq());
+        if (snapshot.getRecentMoves() != null) {
+            snapshot.getRecentMoves().forEach(move -> rememberMove(snapshot.getMatchId(), move));
+        }
+        readModel.apply(exportGame(snapshot.getMatchId()));
+        logger.info("📥 Took over game {} at ply {}", snapshot.getMatchId(), snapshot.getPly());
+    }
+
+    /**
+     * Owner side of GameCluster.openOnOwner: the game's state, initializing it if needed
+     */
+    public GameSnapshot openGame(Long matchId) {
+        if (!activeGames.containsKey(matchId)) {
+            Match match = matchRepo.findById(matchId).orElseThrow(() -> new RuntimeException("Game not found"));
+            return start(match).state();
+        }
+        return exportGame(matchId);
+    }
+
+    private static GameState fromSnapshot(GameSnapshot snapshot) {
+        return new GameState(snapshot.getBoard(), snapshot.isWhiteTurn(), snapshot.getStatus(),
+                snapshot.getPlayer1Username(), snapshot.getPlayer2Username(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.getLastMoveMillis()), ZoneId.systemDefault()),
+                snapshot.getPly(), snapshot.getStartedAtMillis(), PackedMoveList.fromBytes(snapshot.getMoves()));
+    }
+
+    /**
+     * A game's moves without loading Match or Move entities: a live game's from memory (its
+     * owner's, if another node owns it), a finished game's from the moves archived with it
+     */
+    public List<MoveHistoryDTO> getMoveHistory(Long matchId) {
+        GameState gameState = activeGames.get(matchId);
+        if (gameState != null) {
+            return gameState.getMoves().toHistory();
+        }
+        Optional<byte[]> archived = matchRepo.findPackedMoves(matchId);
+        if (archived.isPresent()) {
+            return PackedMoveList.fromBytes(archived.get()).toHistory();
+        }
+        if (!gameCluster.isLocal(matchId)) {
+            return PackedMoveList.fromBytes(gameCluster.openOnOwner(matchId).getMoves()).toHistory();
+        }
+        // Finished before moves were archived, or not started here yet
+        return moveService.getMoveHistory(matchId);
     }
 
     public void cleanupInactiveGames() {
         LocalDateTime cutoff = LocalDateTime.now().minusHours(2);
-        activeGames.entrySet().removeIf(entry ->
-                entry.getValue().getLastMoveTime().isBefore(cutoff)
-        );
+        activeGames.entrySet().removeIf(entry -> {
+            if (entry.getValue().getLastMoveTime().isBefore(cutoff)) {
+                recentMoves.remove(entry.getKey());
+                eventLog.discard(entry.getKey());
+                readModel.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -644,15 +821,31 @@ public class GameService {
         try {
             match.setStatus(finalStatus);
             match.setFinishedAt(LocalDateTime.now());
+            GameState gameState = activeGames.get(match.getId());
+            if (gameState != null) {
+                match.setPackedMoves(gameState.getMoves().toBytes());
+            }
             matchRepo.save(match);
-            
-            // Update player ratings
+        } catch (Exception e) {
+            logger.error("❌ Failed to save completed game {}: {}", match.getId(), e.getMessage());
+            return;
+        }
+
+        // Rating and tournament updates are independent: a failed rating update must not
+        // leave the tournament game unscored (and its round unable to finish)
+        try {
             ratingService.updateRatingsAfterGame(match);
-            
-            logger.info("🏆 Game {} completed with status: {}. Ratings updated.", 
+            logger.info("🏆 Game {} completed with status: {}. Ratings updated.",
                        match.getId(), finalStatus);
         } catch (Exception e) {
-            logger.error("❌ Failed to complete game and update ratings: {}", e.getMessage());
+            logger.error("❌ Failed to update ratings for game {}: {}", match.getId(), e.getMessage());
+        }
+
+        // Score tournament games and pair the next round or arena game
+        try {
+            tournamentService.onMatchFinished(match);
+        } catch (Exception e) {
+            logger.error("❌ Failed to score tournament game {}: {}", match.getId(), e.getMessage());
         }
     }
 }
@@ -0,0 +1,122 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.List;
+
+/**
+ * Glicko-2 rating calculation (Glickman, "Example of the Glicko-2 system").
+ * Pure and thread-safe: one call computes a player's rating at the end of a rating period
+ * from their rating at the start of the period and every game they played in it.
+ */
+public class Glicko2Calculator {
+
+    public static final double SCALE_CENTER = 1500.0;
+    public static final double DEFAULT_DEVIATION = 350.0;
+    public static final double DEFAULT_VOLATILITY = 0.06;
+
+    public static final double SCALE = 173.7178;
+    private static final double CONVERGENCE_TOLERANCE = 0.000001;
+
+    // System constant: how much volatility may change between periods (0.3 - 1.2)
+    private final double tau;
+
+    public Glicko2Calculator(double tau) {
+        this.tau = tau;
+    }
+
+    /**
+     * A player's state on the Glicko-2 rating scale
+     */
+    public record PlayerRating(double rating, double deviation, double volatility) {
+    }
+
+    /**
+     * One game in the period: the opponent's rating at the start of the period and the player's score
+     */
+    public record Outcome(double opponentRating, double opponentDeviation, double score) {
+    }
+
+    /**
+     * Rate a player for one period. With no games only the deviation grows.
+     */
+    public PlayerRating rate(PlayerRating player, List<Outcome> games) {
+        double mu = (player.rating() - SCALE_CENTER) / SCALE;
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+
+        if (games.isEmpty()) {
+            double phiStar = Math.sqrt(phi * phi + sigma * sigma);
+            return new PlayerRating(player.rating(), phiStar * SCALE, sigma);
+        }
+
+        // Estimated variance (v) and improvement (delta) from this period's games
+        double vInverse = 0.0;
+        double scoreSum = 0.0;
+        for (Outcome game : games) {
+            double muJ = (game.opponentRating() - SCALE_CENTER) / SCALE;
+            double phiJ = game.opponentDeviation() / SCALE;
+            double g = g(phiJ);
+            double e = expectedScore(mu, muJ, g);
+            vInverse += g * g * e * (1.0 - e);
+            scoreSum += g * (game.score() - e);
+        }
+        double v = 1.0 / vInverse;
+        double delta = v * scoreSum;
+
+        double newSigma = newVolatility(sigma, phi, v, delta);
+
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1.0 / Math.sqrt(1.0 / (phiStar * phiStar) + 1.0 / v);
+        double newMu = mu + newPhi * newPhi * scoreSum;
+
+        return new PlayerRating(SCALE * newMu + SCALE_CENTER, SCALE * newPhi, newSigma);
+    }
+
+    private static double g(double phi) {
+        return 1.0 / Math.sqrt(1.0 + 3.0 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    private static double expectedScore(double mu, double muJ, double g) {
+        return 1.0 / (1.0 + Math.exp(-g * (mu - muJ)));
+    }
+
+    // Step 5 of the paper: solve for the new volatility with the Illinois algorithm
+    private double newVolatility(double sigma, double phi, double v, double delta) {
+        double a = Math.log(sigma * sigma);
+        double phi2 = phi * phi;
+        double delta2 = delta * delta;
+
+        double lowerA = a;
+        double upperB;
+        if (delta2 > phi2 + v) {
+            upperB = Math.log(delta2 - phi2 - v);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, a, phi2, v, delta2) < 0) {
+                k++;
+            }
+            upperB = a - k * tau;
+        }
+
+        double fA = f(lowerA, a, phi2, v, delta2);
+        double fB = f(upperB, a, phi2, v, delta2);
+        while (Math.abs(upperB - lowerA) > CONVERGENCE_TOLERANCE) {
+            double c = lowerA + (lowerA - upperB) * fA / (fB - fA);
+            double fC = f(c, a, phi2, v, delta2);
+            if (fC * fB <= 0) {
+                lowerA = upperB;
+                fA = fB;
+            } else {
+                fA = fA / 2.0;
+            }
+            upperB = c;
+            fB = fC;
+        }
+        return Math.exp(lowerA / 2.0);
+    }
+
+    private double f(double x, double a, double phi2, double v, double delta2) {
+        double ex = Math.exp(x);
+        double denominator = phi2 + v + ex;
+        return ex * (delta2 - phi2 - v - ex) / (2.0 * denominator * denominator) - (x - a) / (tau * tau);
+    }
+}
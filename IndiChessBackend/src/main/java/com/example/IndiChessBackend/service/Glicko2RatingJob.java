@@ -0,0 +1,311 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.RatingPeriodView;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Rating;
+import com.example.IndiChessBackend.model.RatingHistory;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.RatingHistoryRepo;
+import com.example.IndiChessBackend.repo.RatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Glicko-2 rating periods (active when rating.system=glicko2).
+ *
+ * Finished games are queued by RatingService instead of changing ratings immediately.
+ * When a period closes, every affected player is rated in parallel on a fork-join pool
+ * against their opponents' start-of-period ratings, then all rows are written in one
+ * transaction and pushed to the leaderboard indexes. Every other rated player's deviation
+ * grows for the period. Only the rating columns are written, never the W/L/D counters that
+ * RatingService updates while the period runs.
+ */
+@Service
+@RequiredArgsConstructor
+public class Glicko2RatingJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(Glicko2RatingJob.class);
+
+    private final RatingRepo ratingRepo;
+    private final RatingHistoryRepo ratingHistoryRepo;
+    private final UserRepo userRepo;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final int BATCH_SIZE = 500;
+
+    @Value("${rating.system:elo}")
+    private String ratingSystem;
+
+    @Value("${rating.glicko2.tau:0.5}")
+    private double tau;
+
+    // 0 = one worker per core
+    @Value("${rating.glicko2.parallelism:0}")
+    private int parallelism;
+
+    private final Queue<PeriodGame> pendingGames = new ConcurrentLinkedQueue<>();
+
+    private volatile RunStats lastRun;
+
+    /**
+     * A finished game waiting for the current period to close
+     */
+    public record PeriodGame(Long player1Id, Long player2Id, GameType gameType, double player1Score) {
+    }
+
+    /**
+     * Throughput of the last closed period
+     */
+    public record RunStats(int games, int players, long elapsedMs, double playersPerSecond, LocalDateTime finishedAt) {
+    }
+
+    private record RatedPlayer(Long userId, String username, String country, int rating) {
+    }
+
+    /**
+     * Queue a finished game for the current period. Inside a transaction the game is only
+     * queued once it commits, so a rolled-back result is never rated.
+     */
+    public void recordGame(Long player1Id, Long player2Id, GameType gameType, double player1Score) {
+        PeriodGame game = new PeriodGame(player1Id, player2Id, gameType, player1Score);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingGames.add(game);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingGames.add(game);
+            }
+        });
+    }
+
+    public int getPendingGameCount() {
+        return pendingGames.size();
+    }
+
+    public RunStats getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Close the current rating period
+     */
+    @Scheduled(fixedDelayString = "${rating.glicko2.period-ms:3600000}",
+               initialDelayString = "${rating.glicko2.period-ms:3600000}")
+    public void closeRatingPeriod() {
+        if (!"glicko2".equalsIgnoreCase(ratingSystem)) {
+            return;
+        }
+        List<PeriodGame> games = new ArrayList<>();
+        for (PeriodGame game; (game = pendingGames.poll()) != null; ) {
+            games.add(game);
+        }
+        long start = System.nanoTime();
+        Map<GameType, List<PeriodGame>> byType = games.stream()
+                .collect(Collectors.groupingBy(PeriodGame::gameType, () -> new EnumMap<>(GameType.class), Collectors.toList()));
+
+        List<RatedPlayer> rated = new ArrayList<>();
+        Map<GameType, List<RatedPlayer>> ratedByType = new EnumMap<>(GameType.class);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Every type closes, with or without games: idle players' deviations still grow
+                for (GameType type : GameType.values()) {
+                    List<RatedPlayer> players = ratePeriod(type, byType.getOrDefault(type, List.of()));
+                    ratedByType.put(type, players);
+                    rated.addAll(players);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Put the games back so the next period retries them
+            pendingGames.addAll(games);
+            logger.error("❌ Glicko-2 rating period failed, {} games re-queued: {}", games.size(), e.getMessage(), e);
+            return;
+        }
+
+        ratedByType.forEach((type, players) -> players.forEach(p ->
+                leaderboardService.onRatingChanged(type, p.username(), p.rating(), p.country())));
+
+        if (games.isEmpty()) {
+            logger.debug("Glicko-2 period closed without games");
+            return;
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        lastRun = new RunStats(games.size(), rated.size(), elapsedMs,
+                rated.size() * 1000.0 / elapsedMs, LocalDateTime.now());
+        logger.info("📈 Glicko-2 period closed: {} games, {} players rated in {} ms ({} players/s)",
+                games.size(), rated.size(), elapsedMs, String.format("%.0f", lastRun.playersPerSecond()));
+    }
+
+    private List<RatedPlayer> ratePeriod(GameType gameType, List<PeriodGame> games) {
+        if (games.isEmpty()) {
+            increaseDeviations(gameType);
+            return List.of();
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        for (PeriodGame game : games) {
+            userIds.add(game.player1Id());
+            userIds.add(game.player2Id());
+        }
+
+        // Load every affected player's rating state in one query; first-timers get a row below
+        Map<Long, RatingPeriodView> rows = new HashMap<>();
+        for (RatingPeriodView row : ratingRepo.findPeriodStates(userIds, gameType)) {
+            rows.put(row.getUserId(), row);
+        }
+        Set<Long> missing = new HashSet<>(userIds);
+        missing.removeAll(rows.keySet());
+        Map<Long, User> newPlayers = new HashMap<>();
+        for (User user : userRepo.findAllById(missing)) {
+            newPlayers.put(user.getUserId(), user);
+        }
+
+        // Everyone is rated against the start-of-period snapshot
+        Map<Long, Glicko2Calculator.PlayerRating> before = new HashMap<>();
+        rows.forEach((id, row) -> before.put(id, new Glicko2Calculator.PlayerRating(row.getRating(),
+                row.getRatingDeviation() != null ? row.getRatingDeviation() : Glicko2Calculator.DEFAULT_DEVIATION,
+                row.getVolatility() != null ? row.getVolatility() : Glicko2Calculator.DEFAULT_VOLATILITY)));
+        newPlayers.forEach((id, user) -> before.put(id, new Glicko2Calculator.PlayerRating(seed(user, gameType),
+                Glicko2Calculator.DEFAULT_DEVIATION, Glicko2Calculator.DEFAULT_VOLATILITY)));
+
+        Map<Long, List<Glicko2Calculator.Outcome>> outcomes = new HashMap<>();
+        for (PeriodGame game : games) {
+            Glicko2Calculator.PlayerRating p1 = before.get(game.player1Id());
+            Glicko2Calculator.PlayerRating p2 = before.get(game.player2Id());
+            if (p1 == null || p2 == null) {
+                continue; // user deleted since the game finished
+            }
+            outcomes.computeIfAbsent(game.player1Id(), id -> new ArrayList<>())
+                    .add(new Glicko2Calculator.Outcome(p2.rating(), p2.deviation(), game.player1Score()));
+            outcomes.computeIfAbsent(game.player2Id(), id -> new ArrayList<>())
+                    .add(new Glicko2Calculator.Outcome(p1.rating(), p1.deviation(), 1.0 - game.player1Score()));
+        }
+
+        Map<Long, Glicko2Calculator.PlayerRating> after = rateInParallel(before, outcomes);
+
+        // Players without games this period only get the deviation increase; those with games
+        // are overwritten with their result below
+        increaseDeviations(gameType);
+
+        List<RatedPlayer> rated = new ArrayList<>(after.size());
+        List<RatingHistory> history = new ArrayList<>(after.size());
+        List<Rating> updated = new ArrayList<>(after.size());
+        List<Rating> created = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Glicko2Calculator.PlayerRating> entry : after.entrySet()) {
+            Long userId = entry.getKey();
+            RatingPeriodView row = rows.get(userId);
+            User newPlayer = newPlayers.get(userId);
+            // Detached: only the rating columns of an existing row are written back
+            Rating state = row != null ? detachedState(row, gameType) : new Rating(newPlayer, gameType, seed(newPlayer, gameType));
+
+            Glicko2Calculator.PlayerRating result = entry.getValue();
+            int newRating = Math.max(RatingService.MIN_RATING, (int) Math.round(result.rating()));
+            // One history point per player per period
+            history.add(RatingService.recordRating(state, userId, newRating, null, now));
+            state.setRatingDeviation(Math.min(Glicko2Calculator.DEFAULT_DEVIATION, result.deviation()));
+            state.setVolatility(result.volatility());
+            state.setUpdatedAt(now);
+            (row != null ? updated : created).add(state);
+
+            String username = row != null ? row.getUsername() : newPlayer.getUsername();
+            String country = row != null ? row.getCountry() : newPlayer.getCountry();
+            rated.add(new RatedPlayer(userId, username, country, newRating));
+        }
+
+        ratingRepo.saveAll(created);
+        writeRatingStates(updated);
+        if (gameType == GameType.STANDARD) {
+            // users.rating mirrors STANDARD
+            jdbcTemplate.batchUpdate("UPDATE users SET rating = ? WHERE user_id = ?", rated, BATCH_SIZE,
+                    (ps, player) -> {
+                        ps.setInt(1, player.rating());
+                        ps.setLong(2, player.userId());
+                    });
+        }
+        ratingHistoryRepo.saveAll(history);
+        return rated;
+    }
+
+    private void increaseDeviations(GameType gameType) {
+        ratingRepo.increaseDeviations(gameType, Glicko2Calculator.DEFAULT_DEVIATION,
+                Glicko2Calculator.SCALE * Glicko2Calculator.SCALE);
+    }
+
+    // One JDBC batch for the period's results, touching only the columns the period owns. Each row is
+    // only written if its history_points is still the one the seq was derived from; otherwise the
+    // period rolls back and its games are retried
+    private void writeRatingStates(List<Rating> states) {
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE user_ratings SET rating = ?, rating_deviation = ?, " +
+                        "volatility = ?, highest_rating = ?, lowest_rating = ?, history_points = ?, updated_at = ? " +
+                        "WHERE id = ? AND COALESCE(history_points, 0) = ?",
+                states, BATCH_SIZE, (ps, state) -> {
+                    ps.setInt(1, state.getRating());
+                    ps.setDouble(2, state.getRatingDeviation());
+                    ps.setDouble(3, state.getVolatility());
+                    ps.setInt(4, state.getHighestRating());
+                    ps.setInt(5, state.getLowestRating());
+                    ps.setInt(6, state.getHistoryPoints());
+                    ps.setTimestamp(7, Timestamp.valueOf(state.getUpdatedAt()));
+                    ps.setLong(8, state.getId());
+                    ps.setInt(9, state.getHistoryPoints() - 1);
+                });
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    throw new IllegalStateException("Rating row changed while its period was being rated");
+                }
+            }
+        }
+    }
+
+    private static Rating detachedState(RatingPeriodView row, GameType gameType) {
+        Rating state = new Rating(null, gameType, row.getRating());
+        state.setId(row.getId());
+        state.setHighestRating(row.getHighestRating());
+        state.setLowestRating(row.getLowestRating());
+        state.setHistoryPoints(row.getHistoryPoints());
+        return state;
+    }
+
+    private static int seed(User user, GameType gameType) {
+        return RatingService.initialRating(user.getRating(), gameType);
+    }
+
+    private Map<Long, Glicko2Calculator.PlayerRating> rateInParallel(
+            Map<Long, Glicko2Calculator.PlayerRating> before,
+            Map<Long, List<Glicko2Calculator.Outcome>> outcomes) {
+
+        Glicko2Calculator calculator = new Glicko2Calculator(tau);
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            return pool.submit(() -> outcomes.entrySet().parallelStream()
+                    .collect(Collectors.toMap(
+                            Map.Entry::getKey,
+                            e -> calculator.rate(before.get(e.getKey()), e.getValue()))))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * GameClusterTransport over the /internal/cluster endpoints (ClusterController) of the other
+ * nodes, authenticated with the shared cluster.secret. Calls are synchronous, so a forwarded
+ * command costs the caller one round trip to the owner.
+ */
+@Component
+public class HttpGameClusterTransport implements GameClusterTransport {
+
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private final RestClient restClient;
+
+    HttpGameClusterTransport(@Value("${cluster.secret:}") String secret,
+                             @Value("${cluster.timeout-ms:2000}") long timeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(SECRET_HEADER, secret)
+                .build();
+    }
+
+    @Override
+    public void forward(GameCluster.Member target, GameCommand command) {
+        post(target, "/internal/cluster/commands", command);
+    }
+
+    @Override
+    public GameSnapshot open(GameCluster.Member target, long matchId) {
+        return restClient.get()
+                .uri(target.url() + "/internal/cluster/games/{matchId}", matchId)
+                .retrieve()
+                .body(GameSnapshot.class);
+    }
+
+    @Override
+    public void handOff(GameCluster.Member target, GameSnapshot snapshot) {
+        post(target, "/internal/cluster/games", snapshot);
+    }
+
+    @Override
+    public void announce(GameCluster.Member target, GameCluster.Member joining) {
+        post(target, "/internal/cluster/members", joining);
+    }
+
+    @Override
+    public void leave(GameCluster.Member target, String nodeId) {
+        restClient.delete()
+                .uri(target.url() + "/internal/cluster/members/{nodeId}", nodeId)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private void post(GameCluster.Member target, String path, Object body) {
+        restClient.post()
+                .uri(target.url() + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.IndiChessBackend.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -8,16 +9,50 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
     private final String SECRET = "aluesgo8q37g4tifqbhrefg8g3124ib801g7br18b7gb17g4b";
 
+    // Recently verified tokens, keyed by SHA-256 digest so raw tokens are never retained
+    private static final int VERIFIED_CACHE_MAX_ENTRIES = 10_000;
+    private static final long VERIFIED_CACHE_TTL_MS = 5 * 60 * 1000L;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    // Built once: decoding the secret and creating the HMAC key is not free
+    private final Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    private final Map<String, CachedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Result of a successful signature check: the subject and when it stops being trusted
+     */
+    public record VerifiedToken(String username, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+
+    private record CachedToken(VerifiedToken token, long cachedUntilMillis) {
+    }
+
     public String generateToken(String username) {
 //        System.out.println("Inside token generation service " + username );
         return Jwts.builder().
@@ -29,26 +64,71 @@ public class JwtService {
     }
 
     Key getKey(){
-        byte [] bytekey = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(bytekey);
+        return signingKey;
+    }
+
+    /**
+     * Verify a token once and return its subject and expiry.
+     * Repeat tokens are answered from the cache without re-parsing or re-checking the signature.
+     * Throws the usual jjwt exceptions for malformed, tampered or expired tokens.
+     */
+    public VerifiedToken verifyToken(String token) {
+        long now = System.currentTimeMillis();
+        String digest = digest(token);
+
+        CachedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (cached.cachedUntilMillis() > now) {
+                return cached.token();
+            }
+            verifiedTokens.remove(digest, cached);
+        }
+
+        Claims claims = extractClaims(token);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
+
+        // Cache entries never outlive the token, and are re-verified at least every TTL
+        long cacheUntil = Math.min(verified.expiresAtMillis(), now + VERIFIED_CACHE_TTL_MS);
+        if (verifiedTokens.size() >= VERIFIED_CACHE_MAX_ENTRIES) {
+            evictExpired(now);
+        }
+        verifiedTokens.put(digest, new CachedToken(verified, cacheUntil));
+
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
+        return verifyToken(token).username();
     }
+
     private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
+
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        return extractUsername(token).equals(userDetails.getUsername())
-                && !isTokenExpired(token);
+        return isTokenValid(verifyToken(token), userDetails);
+    }
+
+    public boolean isTokenValid(VerifiedToken verified, UserDetails userDetails) {
+        return verified.username().equals(userDetails.getUsername())
+                && !verified.isExpired(System.currentTimeMillis());
     }
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    private void evictExpired(long now) {
+        verifiedTokens.values().removeIf(c -> c.cachedUntilMillis() <= now);
+        if (verifiedTokens.size() >= VERIFIED_CACHE_MAX_ENTRIES) {
+            // Still full of live tokens: start over rather than track recency
+            verifiedTokens.clear();
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
     }
 
 }
@@ -0,0 +1,362 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ranked index of player ratings.
+ *
+ * Players are grouped into one bucket per rating point, highest rating first.
+ * A Fenwick tree over the bucket sizes answers "how many players rank above this one"
+ * and "which bucket holds position N" in O(log buckets), so top-N pages, exact ranks and
+ * neighbours-around-me never touch more entries than they return.
+ * Within a bucket players are kept sorted by username, which makes ties deterministic, in an
+ * order-statistic tree, so a crowded bucket (the default rating holds most players) still costs
+ * O(log n) per update and lookup.
+ *
+ * Ranks are competition ranks: players with equal rating share the same rank.
+ */
+public class LeaderboardIndex {
+
+    public static final int MIN_RATING = 0;
+    public static final int MAX_RATING = 5000;
+
+    private static final int BUCKETS = MAX_RATING - MIN_RATING + 1;
+
+    public record Entry(String username, int rating, String country) {
+    }
+
+    public record RankedEntry(int rank, Entry entry) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // tree[i] holds partial sums of bucket sizes (1-based Fenwick layout)
+    private final int[] tree = new int[BUCKETS + 1];
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    /**
+     * Insert a player or move them to a new rating
+     */
+    public void update(String username, int rating, String country) {
+        Entry entry = new Entry(username, rating, country);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(username, entry);
+            if (previous != null) {
+                removeFromBucket(previous);
+            }
+            addToBucket(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String username) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(username);
+            if (previous != null) {
+                removeFromBucket(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index in one go (used when loading from the database)
+     */
+    public void rebuild(Collection<Entry> all) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            Arrays.fill(tree, 0);
+            Arrays.fill(buckets, null);
+            for (Entry entry : all) {
+                Entry previous = entries.put(entry.username(), entry);
+                if (previous != null) {
+                    removeFromBucket(previous);
+                }
+                addToBucket(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Entry> get(String username) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(entries.get(username));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Competition rank of a player (1 = best), or empty if not indexed
+     */
+    public OptionalInt rankOf(String username) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(username);
+            if (entry == null) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of(countAbove(bucketOf(entry.rating())) + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Players at positions [offset, offset + limit) in leaderboard order
+     */
+    public List<RankedEntry> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return collect(Math.max(0, offset), Math.max(0, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to radius players either side of the given player, including the player themselves
+     */
+    public List<RankedEntry> around(String username, int radius) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(username);
+            if (entry == null) {
+                return List.of();
+            }
+            int bucket = bucketOf(entry.rating());
+            int position = countAbove(bucket) + buckets[bucket].indexOf(username);
+            int r = Math.max(0, radius);
+            int from = Math.max(0, position - r);
+            return collect(from, position - from + r + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<RankedEntry> collect(int offset, int limit) {
+        int total = entries.size();
+        int end = (int) Math.min(total, (long) offset + limit);
+        List<RankedEntry> result = new ArrayList<>(Math.max(0, end - offset));
+
+        int position = offset;
+        while (position < end) {
+            int bucket = findBucket(position);
+            int above = countAbove(bucket);
+            Bucket inBucket = buckets[bucket];
+            for (int i = position - above; i < inBucket.size() && position < end; i++, position++) {
+                result.add(new RankedEntry(above + 1, inBucket.get(i)));
+            }
+        }
+        return result;
+    }
+
+    private void addToBucket(Entry entry) {
+        int bucket = bucketOf(entry.rating());
+        if (buckets[bucket] == null) {
+            buckets[bucket] = new Bucket();
+        }
+        buckets[bucket].add(entry);
+        fenwickAdd(bucket, 1);
+    }
+
+    private void removeFromBucket(Entry entry) {
+        int bucket = bucketOf(entry.rating());
+        buckets[bucket].remove(entry.username());
+        fenwickAdd(bucket, -1);
+    }
+
+    // Bucket 0 holds the highest rating, so prefix sums count players ranked above
+    private static int bucketOf(int rating) {
+        int clamped = Math.max(MIN_RATING, Math.min(MAX_RATING, rating));
+        return MAX_RATING - clamped;
+    }
+
+    private void fenwickAdd(int bucket, int delta) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Number of players in buckets [0, bucket)
+    private int countAbove(int bucket) {
+        int sum = 0;
+        for (int i = bucket; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Bucket containing the 0-based leaderboard position
+    private int findBucket(int position) {
+        int idx = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = idx + step;
+            if (next <= BUCKETS && tree[next] <= remaining) {
+                idx = next;
+                remaining -= tree[next];
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * One rating's players by username: a treap whose nodes count their subtree, so the
+     * position of a player and the player at a position are found in O(log n)
+     */
+    private static final class Bucket {
+
+        private static final class Node {
+            final Entry entry;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            int size = 1;
+            Node left;
+            Node right;
+
+            Node(Entry entry) {
+                this.entry = entry;
+            }
+        }
+
+        private Node root;
+
+        int size() {
+            return size(root);
+        }
+
+        void add(Entry entry) {
+            root = insert(root, new Node(entry));
+        }
+
+        void remove(String username) {
+            root = delete(root, username);
+        }
+
+        // 0-based position of the player in the bucket
+        int indexOf(String username) {
+            int index = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = username.compareTo(node.entry.username());
+                if (cmp < 0) {
+                    node = node.left;
+                } else if (cmp > 0) {
+                    index += size(node.left) + 1;
+                    node = node.right;
+                } else {
+                    return index + size(node.left);
+                }
+            }
+            return -1;
+        }
+
+        Entry get(int index) {
+            Node node = root;
+            while (true) {
+                int leftSize = size(node.left);
+                if (index < leftSize) {
+                    node = node.left;
+                } else if (index > leftSize) {
+                    index -= leftSize + 1;
+                    node = node.right;
+                } else {
+                    return node.entry;
+                }
+            }
+        }
+
+        private static Node insert(Node node, Node added) {
+            if (node == null) {
+                return added;
+            }
+            if (added.priority > node.priority) {
+                Node[] parts = split(node, added.entry.username());
+                added.left = parts[0];
+                added.right = parts[1];
+                return resize(added);
+            }
+            if (added.entry.username().compareTo(node.entry.username()) < 0) {
+                node.left = insert(node.left, added);
+            } else {
+                node.right = insert(node.right, added);
+            }
+            return resize(node);
+        }
+
+        private static Node delete(Node node, String username) {
+            if (node == null) {
+                return null;
+            }
+            int cmp = username.compareTo(node.entry.username());
+            if (cmp == 0) {
+                return merge(node.left, node.right);
+            }
+            if (cmp < 0) {
+                node.left = delete(node.left, username);
+            } else {
+                node.right = delete(node.right, username);
+            }
+            return resize(node);
+        }
+
+        // Nodes before username, and from username on
+        private static Node[] split(Node node, String username) {
+            if (node == null) {
+                return new Node[2];
+            }
+            if (node.entry.username().compareTo(username) < 0) {
+                Node[] parts = split(node.right, username);
+                node.right = parts[0];
+                parts[0] = resize(node);
+                return parts;
+            }
+            Node[] parts = split(node.left, username);
+            node.left = parts[1];
+            parts[1] = resize(node);
+            return parts;
+        }
+
+        // Every node of low sorts before every node of high
+        private static Node merge(Node low, Node high) {
+            if (low == null || high == null) {
+                return low != null ? low : high;
+            }
+            if (low.priority > high.priority) {
+                low.right = merge(low.right, high);
+                return resize(low);
+            }
+            high.left = merge(low, high.left);
+            return resize(high);
+        }
+
+        private static Node resize(Node node) {
+            node.size = 1 + size(node.left) + size(node.right);
+            return node;
+        }
+
+        private static int size(Node node) {
+            return node != null ? node.size : 0;
+        }
+    }
+}
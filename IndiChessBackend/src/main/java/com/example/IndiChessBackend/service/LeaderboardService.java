@@ -0,0 +1,129 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.UserRatingView;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.RatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Serves leaderboards from one in-memory LeaderboardIndex per GameType.
+ * The indexes are loaded once at startup and then kept in sync by RatingService and sign-up,
+ * so leaderboard reads and rating lookups for matchmaking never hit the database.
+ *
+ * STANDARD is seeded from users.rating (which mirrors the STANDARD rating, so every user
+ * appears); the other types only list players who have a user_ratings row for them.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public static final int DEFAULT_RATING = 1200;
+
+    private final UserRepo userRepo;
+    private final RatingRepo ratingRepo;
+
+    private final Map<GameType, LeaderboardIndex> indexes = createIndexes();
+
+    private static Map<GameType, LeaderboardIndex> createIndexes() {
+        Map<GameType, LeaderboardIndex> map = new EnumMap<>(GameType.class);
+        for (GameType type : GameType.values()) {
+            map.put(type, new LeaderboardIndex());
+        }
+        return map;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        long start = System.currentTimeMillis();
+        for (GameType type : GameType.values()) {
+            List<UserRatingView> rows = type == GameType.STANDARD
+                    ? userRepo.findAllRatings()
+                    : ratingRepo.findRatingViewsByGameType(type);
+            List<LeaderboardIndex.Entry> entries = new ArrayList<>(rows.size());
+            for (UserRatingView row : rows) {
+                if (row.getUsername() != null) {
+                    entries.add(new LeaderboardIndex.Entry(row.getUsername(), ratingOrDefault(row.getRating()), row.getCountry()));
+                }
+            }
+            indexes.get(type).rebuild(entries);
+            logger.info("🏅 {} leaderboard index loaded with {} players", type, entries.size());
+        }
+        logger.info("🏅 Leaderboard indexes loaded in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Record a user's headline (STANDARD) rating, e.g. after sign-up
+     */
+    public void onRatingChanged(User user) {
+        if (user.getUsername() != null) {
+            onRatingChanged(GameType.STANDARD, user.getUsername(), ratingOrDefault(user.getRating()), user.getCountry());
+        }
+    }
+
+    /**
+     * Record a player's current rating for one game type. Inside a transaction the index only
+     * changes once it commits, so a rolled-back rating update is never ranked.
+     */
+    public void onRatingChanged(GameType gameType, String username, int rating, String country) {
+        LeaderboardIndex index = index(gameType);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index.update(username, rating, country);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index.update(username, rating, country);
+            }
+        });
+    }
+
+    /**
+     * Cached rating for matchmaking and display; players without games of this type get the default
+     */
+    public int getCachedRating(String username, GameType gameType) {
+        return index(gameType).get(username)
+                .map(LeaderboardIndex.Entry::rating)
+                .orElse(DEFAULT_RATING);
+    }
+
+    public List<LeaderboardIndex.RankedEntry> getPage(GameType gameType, int page, int size) {
+        LeaderboardIndex index = index(gameType);
+        // As a long: a large page number must not wrap around to a negative offset
+        long offset = (long) Math.max(0, page) * Math.max(0, size);
+        return index.page((int) Math.min(offset, index.size()), size);
+    }
+
+    public OptionalInt getRank(GameType gameType, String username) {
+        return index(gameType).rankOf(username);
+    }
+
+    public List<LeaderboardIndex.RankedEntry> getAround(GameType gameType, String username, int radius) {
+        return index(gameType).around(username, radius);
+    }
+
+    public int getPlayerCount(GameType gameType) {
+        return index(gameType).size();
+    }
+
+    private LeaderboardIndex index(GameType gameType) {
+        return indexes.get(gameType != null ? gameType : GameType.STANDARD);
+    }
+
+    private static int ratingOrDefault(Integer rating) {
+        return rating != null ? rating : DEFAULT_RATING;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read side of the live games this node owns: what GET /api/games/{id} and its status endpoint
+ * show, kept ready to serve without touching the database.
+ *
+ * GameService writes a game's view when it starts or takes the game over, and GameCommandService
+ * after each command that changed the game has been published, so a view is always current to
+ * its seq. Views are immutable and replaced whole; FEN is derived once per change, not per read.
+ * The match's players are only known once the game was started (or first read) on this node.
+ */
+@Service
+public class LiveGameReadModel {
+
+    public record LiveGameView(Long matchId, User player1, User player2, LocalDateTime createdAt,
+                               LocalDateTime updatedAt, GameSnapshot state, String fen) {
+
+        public boolean hasPlayers() {
+            return player1 != null && player2 != null;
+        }
+
+        public boolean isWhite(String username) {
+            return state.getPlayer1Username().equals(username);
+        }
+
+        public boolean isMyTurn(String username) {
+            return username.equals(state.isWhiteTurn() ? state.getPlayer1Username() : state.getPlayer2Username());
+        }
+    }
+
+    private final Map<Long, LiveGameView> views = new ConcurrentHashMap<>();
+
+    public LiveGameView get(Long matchId) {
+        return views.get(matchId);
+    }
+
+    /**
+     * A game started (or first read) here: its players and state
+     */
+    public LiveGameView register(Match match, GameSnapshot state) {
+        LiveGameView view = new LiveGameView(match.getId(), match.getPlayer1(), match.getPlayer2(),
+                match.getCreatedAt(), match.getUpdatedAt(), state, fenOf(state));
+        views.put(match.getId(), view);
+        return view;
+    }
+
+    /**
+     * The game's new state, keeping what is known about the match
+     */
+    public void apply(GameSnapshot state) {
+        String fen = fenOf(state);
+        views.compute(state.getMatchId(), (id, view) -> view == null
+                ? new LiveGameView(id, null, null, null, null, state, fen)
+                : new LiveGameView(id, view.player1(), view.player2(), view.createdAt(), view.updatedAt(), state, fen));
+    }
+
+    public void remove(Long matchId) {
+        views.remove(matchId);
+    }
+
+    public int size() {
+        return views.size();
+    }
+
+    private static String fenOf(GameSnapshot state) {
+        return GameService.convertBoardToFEN(state.getBoard(), state.isWhiteTurn());
+    }
+}
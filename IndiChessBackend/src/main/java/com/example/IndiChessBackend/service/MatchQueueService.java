@@ -1,36 +1,47 @@
 package com.example.IndiChessBackend.service;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Matches found for players who were not in the request that created them.
+ * They are pushed over STOMP as soon as pairing happens; this username-indexed map is the
+ * REST fallback (GET /game/check-match) for clients that missed the push.
+ */
 @Service
 public class MatchQueueService {
+
+    // Unclaimed entries are dropped after this long (the client has had the push by then)
+    private static final long PENDING_TTL_MS = 5 * 60 * 1000L;
+
+    private record PendingMatch(Long matchId, long createdAtMillis) {
+    }
+
     // Store which user has which match
-    private final Map<String, Long> userToMatchId = new ConcurrentHashMap<>();
-    private final Map<String, String> matchToUsers = new ConcurrentHashMap<>();
+    private final Map<String, PendingMatch> userToMatch = new ConcurrentHashMap<>();
 
-    public void addPendingMatch(String player1, String player2, Long matchId) {
-        userToMatchId.put(player1, matchId);
-        userToMatchId.put(player2, matchId);
-        matchToUsers.put(matchId.toString(), player1 + "," + player2);
+    public void addPendingMatch(String username, Long matchId) {
+        userToMatch.put(username, new PendingMatch(matchId, System.currentTimeMillis()));
     }
 
+    /**
+     * Hand out (and forget) the caller's pending match; the opponent's entry is left alone
+     */
     public Long getPendingMatchId(String username) {
-        Long matchId = userToMatchId.get(username);
-        if (matchId != null) {
-            // Clean up after retrieving
-            userToMatchId.remove(username);
-            String users = matchToUsers.get(matchId.toString());
-            if (users != null) {
-                String[] playerUsernames = users.split(",");
-                for (String player : playerUsernames) {
-                    userToMatchId.remove(player);
-                }
-                matchToUsers.remove(matchId.toString());
-            }
-        }
-        return matchId;
+        PendingMatch pending = userToMatch.remove(username);
+        return pending != null ? pending.matchId() : null;
+    }
+
+    public void removePendingMatch(String username) {
+        userToMatch.remove(username);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void removeExpired() {
+        long cutoff = System.currentTimeMillis() - PENDING_TTL_MS;
+        userToMatch.values().removeIf(pending -> pending.createdAtMillis() < cutoff);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.example.IndiChessBackend.service;
 
+import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Match;
 import com.example.IndiChessBackend.model.User;
 import com.example.IndiChessBackend.repo.MatchRepo;
@@ -9,26 +10,31 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS;
 
+/**
+ * Matchmaking and match lookups for the REST API.
+ * Waiting players sit in one lock-free MatchmakingPool per GameType, indexed by rating; a join
+ * claims the closest acceptable opponent with a CAS, so joins in different game types or rating
+ * bands never contend, and the match is created (users loaded, row saved, game started)
+ * once both players are out of the pool.
+ * Players who are waiting learn about their match from a push to /user/queue/match-found.
+ *
+ * With matchmaking.mode=batch a join only queues the player, and every matchmaking.tick-ms
+ * each pool is paired in one go by BatchMatchmaker (better pairings, slightly longer waits).
+ */
 @Service
 public class MatchService {
 
     private static final Logger logger = LoggerFactory.getLogger(MatchService.class);
 
-    // Store waiting players and the timestamp when they started waiting
-    // username -> timestampMillis
-    private static final Map<String, Long> waitingPlayers = new ConcurrentHashMap<>();
-    private static final Map<Long, String[]> matchPlayers = new ConcurrentHashMap<>();
-
-    // Dedicated lock for matching operations
-    private static final Object MATCH_LOCK = new Object();
-
     // Time-to-live for waiting entries (5 minutes)
     private static final long WAITING_TTL_MS = 5 * 60 * 1000L;
 
@@ -36,20 +42,38 @@ public class MatchService {
     private final UserRepo userRepo;
     private final MatchRepo matchRepo;
     private final GameService gameService;
+    private final LeaderboardService leaderboardService;
+    private final MatchQueueService matchQueueService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<GameType, MatchmakingPool> pools = new EnumMap<>(GameType.class);
+    private final boolean batchMode;
+    private final BatchMatchmaker batchMatchmaker;
 
     @Autowired
-    MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService) {
+    MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService,
+                 LeaderboardService leaderboardService, MatchQueueService matchQueueService,
+                 SimpMessagingTemplate messagingTemplate,
+                 @Value("${matchmaking.window.initial:100}") int initialWindow,
+                 @Value("${matchmaking.window.growth-per-second:10}") double windowGrowthPerSecond,
+                 @Value("${matchmaking.window.max:800}") int maxWindow,
+                 @Value("${matchmaking.mode:instant}") String mode,
+                 @Value("${matchmaking.batch.unmatched-penalty:50}") double unmatchedPenalty,
+                 @Value("${matchmaking.batch.wait-penalty-per-second:5}") double waitPenaltyPerSecond) {
         this.jwtService = jwtService;
         this.userRepo = userRepo;
         this.matchRepo = matchRepo;
         this.gameService = gameService;
+        this.leaderboardService = leaderboardService;
+        this.matchQueueService = matchQueueService;
+        this.messagingTemplate = messagingTemplate;
 
-        // Clean up old entries periodically
-        new Timer().schedule(new TimerTask() {
-            public void run() {
-                cleanupOldEntries();
-            }
-        }, 0, 60000); // Clean up every minute
+        this.batchMode = "batch".equalsIgnoreCase(mode);
+        this.batchMatchmaker = new BatchMatchmaker(unmatchedPenalty, waitPenaltyPerSecond);
+
+        for (GameType type : GameType.values()) {
+            pools.put(type, new MatchmakingPool(initialWindow, windowGrowthPerSecond, maxWindow, WAITING_TTL_MS));
+        }
     }
 
     public String getJwtFromCookie(HttpServletRequest request) {
@@ -64,84 +88,159 @@ public class MatchService {
         return null;
     }
 
-    private void cleanupOldEntries() {
-        long cutoff = System.currentTimeMillis() - WAITING_TTL_MS;
-        List<String> removed = new ArrayList<>();
-        for (Map.Entry<String, Long> e : waitingPlayers.entrySet()) {
-            Long ts = e.getValue();
-            if (ts == null || ts < cutoff) {
-                removed.add(e.getKey());
+    /**
+     * Drop players who have waited longer than the TTL; only the expired tickets are touched
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.expiry-sweep-ms:1000}")
+    public void expireWaitingPlayers() {
+        long now = System.currentTimeMillis();
+        pools.forEach((type, pool) -> {
+            int removed = pool.expire(now);
+            if (removed > 0) {
+                logger.debug("Removed {} stale waiting users from the {} pool", removed, type);
             }
-        }
-        for (String u : removed) {
-            waitingPlayers.remove(u);
-            logger.debug("Removed stale waiting user: {}", u);
-        }
+        });
     }
 
     // Create match or add to waiting queue
-    public Optional<Long> createMatch(HttpServletRequest request) {
+    public Optional<Long> createMatch(HttpServletRequest request, GameType gameType) {
         String tk = getJwtFromCookie(request);
         String userName = jwtService.extractUsername(tk);
 
         if (userName == null) {
             return Optional.empty();
         }
+        return joinQueue(userName, gameType);
+    }
 
-        logger.debug("User {} requesting match", userName);
+    /**
+     * Pair the user with a waiting player of similar rating, or put them in the queue.
+     * @return the new match id, or -1 if the user is now waiting
+     */
+    public Optional<Long> joinQueue(String userName, GameType gameType) {
+        GameType type = gameType != null ? gameType : GameType.STANDARD;
+        int rating = leaderboardService.getCachedRating(userName, type);
+        logger.debug("User {} ({}) requesting {} match", userName, rating, type);
+
+        // Waiting in one pool at a time
+        pools.forEach((otherType, pool) -> {
+            if (otherType != type) {
+                pool.remove(userName);
+            }
+        });
 
         long now = System.currentTimeMillis();
-        long cutoff = now - WAITING_TTL_MS;
-
-        synchronized (MATCH_LOCK) {
-            // Remove stale waiting entries first
-            Iterator<Map.Entry<String, Long>> it = waitingPlayers.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<String, Long> entry = it.next();
-                Long ts = entry.getValue();
-                if (ts == null || ts < cutoff) {
-                    it.remove();
-                    logger.debug("Removed stale waiting user during match creation: {}", entry.getKey());
-                }
-            }
+        if (batchMode) {
+            pools.get(type).enqueue(userName, rating, now);
+            logger.debug("User {} queued for the next {} matchmaking tick", userName, type);
+            return Optional.of(-1L);
+        }
 
-            // Check if there's already a waiting player
-            for (String waitingPlayer : waitingPlayers.keySet()) {
-                if (!waitingPlayer.equals(userName)) {
-                    // Found opponent
-                    User player1 = userRepo.getUserByUsername(waitingPlayer);
-                    User player2 = userRepo.getUserByUsername(userName);
+        Optional<MatchmakingPool.Pairing> pairing = pools.get(type).join(userName, rating, now);
+        if (pairing.isEmpty()) {
+            logger.debug("User {} added to the {} waiting queue at {}", userName, type, new Date(now));
+            return Optional.of(-1L);
+        }
+        Optional<Long> matchId = createPairedMatch(pairing.get(), type);
+        // The joiner gets the id in this response, no fallback entry needed
+        matchQueueService.removePendingMatch(userName);
+        return matchId;
+    }
 
-                    if (player1 != null && player2 != null) {
-                        // Create the match
-                        Match newMatch = matchRepo.save(new Match(player1, player2, IN_PROGRESS, 1));
-                        Long matchId = newMatch.getId();
+    /**
+     * Pair waiting players whose rating windows have widened enough to accept each other
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.sweep-ms:1000}")
+    public void pairWaitingPlayers() {
+        if (batchMode) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pools.forEach((type, pool) -> {
+            for (MatchmakingPool.Pairing pairing : pool.pairWaiting(now)) {
+                createPairedMatch(pairing, type);
+            }
+        });
+    }
 
-                        // Store match info
-                        matchPlayers.put(matchId, new String[]{waitingPlayer, userName});
+    /**
+     * Batch mode: pair each pool's whole queue, computed on a snapshot and claimed pair by pair
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.tick-ms:250}")
+    public void runMatchmakingTick() {
+        if (!batchMode) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pools.forEach((type, pool) -> {
+            List<MatchmakingPool.Ticket> waiting = pool.snapshot(now);
+            if (waiting.size() < 2) {
+                return;
+            }
+            for (MatchmakingPool.Pairing pairing : batchMatchmaker.pair(waiting, now, t -> pool.window(t, now))) {
+                // Skip players who cancelled or re-joined since the snapshot
+                if (pool.claim(pairing)) {
+                    createPairedMatch(pairing, type);
+                }
+            }
+        });
+    }
 
-                        // Remove waiting player
-                        waitingPlayers.remove(waitingPlayer);
+    // Runs after both tickets are claimed: two user lookups, one insert, game state initialization
+    private Optional<Long> createPairedMatch(MatchmakingPool.Pairing pairing, GameType type) {
+        MatchmakingPool.Ticket waiting = pairing.waiting();
+        MatchmakingPool.Ticket joining = pairing.joining();
+        User player1 = userRepo.getUserByUsername(waiting.username());
+        User player2 = userRepo.getUserByUsername(joining.username());
+
+        if (player1 == null || player2 == null) {
+            // Whoever still exists goes back to the queue with their original wait time
+            if (player1 != null) {
+                pools.get(type).requeue(waiting);
+            }
+            if (player2 != null) {
+                pools.get(type).requeue(joining);
+            }
+            logger.warn("⚠️ Could not create {} match for {} and {}: user not found",
+                    type, waiting.username(), joining.username());
+            return player2 != null ? Optional.of(-1L) : Optional.empty();
+        }
 
-                        logger.debug("Match created: {}", matchId);
+        // The player who waited plays white
+        Match match = new Match(player1, player2, IN_PROGRESS, 0);
+        match.setGameType(type);
+        Long matchId = matchRepo.save(match).getId();
 
-                        // Initialize game state
-                        gameService.getGameDetails(matchId, request);
+        notifyMatchFound(waiting, joining, matchId, type, "white");
+        notifyMatchFound(joining, waiting, matchId, type, "black");
+        logger.debug("{} match created: {} ({} {} vs {} {})", type, matchId,
+                waiting.username(), waiting.rating(), joining.username(), joining.rating());
 
-                        return Optional.of(matchId);
-                    }
-                }
-            }
+        // Start the game from the entity just saved; first joins and reads then find it running
+        gameService.startGame(match);
 
-            // No opponent found, add/update waiting queue with timestamp
-            waitingPlayers.put(userName, now);
-            logger.debug("User {} added to waiting queue at {}", userName, new Date(now));
+        return Optional.of(matchId);
+    }
 
-            return Optional.of(-1L);
+    // Push to the player's STOMP session, and keep it for the REST fallback
+    private void notifyMatchFound(MatchmakingPool.Ticket player, MatchmakingPool.Ticket opponent,
+                                  Long matchId, GameType type, String playerColor) {
+        matchQueueService.addPendingMatch(player.username(), matchId);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("matchId", matchId);
+        payload.put("gameType", type);
+        payload.put("playerColor", playerColor);
+        payload.put("opponent", opponent.username());
+        payload.put("opponentRating", opponent.rating());
+        try {
+            messagingTemplate.convertAndSendToUser(player.username(), "/queue/match-found", payload);
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not push match {} to {}: {}", matchId, player.username(), e.getMessage());
         }
     }
 
-    // Method for Player1 to check if match was created
+    // Fallback for clients without a STOMP session: check if a match was created
     public Optional<Long> checkMatch(HttpServletRequest request) {
         String tk = getJwtFromCookie(request);
         String userName = jwtService.extractUsername(tk);
@@ -149,44 +248,32 @@ public class MatchService {
         if (userName == null) {
             return Optional.empty();
         }
+        return checkMatch(userName);
+    }
 
-        long now = System.currentTimeMillis();
-        long cutoff = now - WAITING_TTL_MS;
-
-        synchronized (MATCH_LOCK) {
-            // Remove stale waiting entries first
-            Iterator<Map.Entry<String, Long>> it = waitingPlayers.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<String, Long> entry = it.next();
-                Long ts = entry.getValue();
-                if (ts == null || ts < cutoff) {
-                    it.remove();
-                    logger.debug("Removed stale waiting user during match check: {}", entry.getKey());
-                }
-            }
-
-            // Check if user is still waiting
-            if (waitingPlayers.containsKey(userName)) {
-                // User is still waiting
+    public Optional<Long> checkMatch(String userName) {
+        // Check if user is still waiting
+        for (MatchmakingPool pool : pools.values()) {
+            if (pool.contains(userName)) {
                 return Optional.of(-1L);
             }
+        }
 
-            // Check if user has a match in matchPlayers
-            for (Map.Entry<Long, String[]> entry : matchPlayers.entrySet()) {
-                String[] players = entry.getValue();
-                if (players[0].equals(userName) || players[1].equals(userName)) {
-                    Long matchId = entry.getKey();
-                    // Clean up after retrieving
-                    matchPlayers.remove(matchId);
-                    waitingPlayers.remove(players[0]);
-                    waitingPlayers.remove(players[1]);
-                    logger.debug("Returning match {} to {}", matchId, userName);
-                    return Optional.of(matchId);
-                }
-            }
+        // Check if a match was created for the user while they waited
+        Long matchId = matchQueueService.getPendingMatchId(userName);
+        if (matchId != null) {
+            logger.debug("Returning match {} to {}", matchId, userName);
         }
+        return Optional.ofNullable(matchId);
+    }
 
-        return Optional.empty();
+    /**
+     * Players currently waiting, per game type
+     */
+    public Map<GameType, Integer> getQueueSizes() {
+        Map<GameType, Integer> sizes = new EnumMap<>(GameType.class);
+        pools.forEach((type, pool) -> sizes.put(type, pool.size()));
+        return sizes;
     }
 
     // Method to cancel waiting
@@ -197,14 +284,18 @@ public class MatchService {
         if (userName == null) {
             return false;
         }
+        return cancelWaiting(userName);
+    }
 
-        synchronized (MATCH_LOCK) {
-            boolean removed = waitingPlayers.remove(userName) != null;
-            if (removed) {
-                logger.debug("User {} cancelled waiting", userName);
-            }
-            return removed;
+    public boolean cancelWaiting(String userName) {
+        boolean removed = false;
+        for (MatchmakingPool pool : pools.values()) {
+            removed |= pool.remove(userName);
+        }
+        if (removed) {
+            logger.debug("User {} cancelled waiting", userName);
         }
+        return removed;
     }
 
     private Map<String, Object> createPlayerInfo(User user) {
@@ -0,0 +1,295 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Players waiting for a game of one GameType, ordered by rating.
+ *
+ * A joining player is paired with the closest-rated waiting player that both of them accept:
+ * each player accepts opponents within a rating window that starts narrow and widens the
+ * longer they wait. The search walks outwards from the joiner's rating in the sorted set,
+ * so it costs O(log n) plus the few players inside the window.
+ *
+ * The pool takes no lock. Waiting players are indexed in concurrent skip lists, and the
+ * username map is the source of truth: a ticket belongs to whoever removes it from that map
+ * with remove(username, ticket), so two joiners racing for the same opponent cannot both get
+ * them, and joins in different rating bands only touch different skip list nodes. Two players
+ * who join at the same moment may both miss each other and wait; pairWaiting() pairs them on
+ * its next sweep.
+ *
+ * Tickets are also kept in a set ordered by expiry time. expire() takes only tickets whose
+ * TTL has passed, so dropping stale players costs O(expired log n) and never scans the pool.
+ * Tickets that left the pool earlier (paired, cancelled, re-joined) are skipped when they
+ * reach the head of that set.
+ */
+public class MatchmakingPool {
+
+    /**
+     * A waiting player
+     */
+    public record Ticket(String username, int rating, long joinedAtMillis, long seq) {
+    }
+
+    /**
+     * Two players taken out of the pool to play each other; waiting is the one who queued first
+     */
+    public record Pairing(Ticket waiting, Ticket joining) {
+    }
+
+    private static final Comparator<Ticket> BY_RATING = Comparator
+            .comparingInt(Ticket::rating)
+            .thenComparingLong(Ticket::seq);
+
+    private static final Comparator<Ticket> BY_EXPIRY = Comparator
+            .comparingLong(Ticket::joinedAtMillis)
+            .thenComparingLong(Ticket::seq);
+
+    private final int initialWindow;
+    private final double windowGrowthPerSecond;
+    private final int maxWindow;
+    private final long ttlMillis;
+
+    private final NavigableSet<Ticket> byRating = new ConcurrentSkipListSet<>(BY_RATING);
+    private final ConcurrentHashMap<String, Ticket> byUsername = new ConcurrentHashMap<>();
+    private final NavigableSet<Ticket> byExpiry = new ConcurrentSkipListSet<>(BY_EXPIRY);
+    private final AtomicLong nextSeq = new AtomicLong();
+
+    public MatchmakingPool(int initialWindow, double windowGrowthPerSecond, int maxWindow, long ttlMillis) {
+        this.initialWindow = initialWindow;
+        this.windowGrowthPerSecond = windowGrowthPerSecond;
+        this.maxWindow = maxWindow;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Pair the player with the closest acceptable opponent, or start (or refresh) their wait.
+     * @return the pairing, or empty if the player is now waiting (or was just paired by someone else)
+     */
+    public Optional<Pairing> join(String username, int rating, long now) {
+        Ticket previous = byUsername.get(username);
+        if (previous != null && !release(previous)) {
+            // Claimed by another joiner a moment ago; they create the match
+            return Optional.empty();
+        }
+
+        // A re-join keeps its place in the queue (and its widened window)
+        long joinedAt = previous != null && !isExpired(previous, now) ? previous.joinedAtMillis() : now;
+        Ticket me = new Ticket(username, rating, joinedAt, nextSeq.getAndIncrement());
+
+        Ticket opponent = claimOpponent(me, now);
+        if (opponent != null) {
+            return Optional.of(new Pairing(opponent, me));
+        }
+        addTicket(me);
+        return Optional.empty();
+    }
+
+    /**
+     * Start (or refresh) a wait without looking for an opponent; used by the batch matchmaker
+     */
+    public Ticket enqueue(String username, int rating, long now) {
+        Ticket previous = byUsername.get(username);
+        if (previous != null && !release(previous)) {
+            return previous; // already claimed by this tick's pairing
+        }
+        long joinedAt = previous != null && !isExpired(previous, now) ? previous.joinedAtMillis() : now;
+        Ticket ticket = new Ticket(username, rating, joinedAt, nextSeq.getAndIncrement());
+        addTicket(ticket);
+        return ticket;
+    }
+
+    /**
+     * Waiting players in rating order (a copy, so pairing can work on a stable list)
+     */
+    public List<Ticket> snapshot(long now) {
+        List<Ticket> tickets = new ArrayList<>();
+        for (Ticket ticket : byRating) {
+            if (isCurrent(ticket) && !isExpired(ticket, now)) {
+                tickets.add(ticket);
+            }
+        }
+        return tickets;
+    }
+
+    /**
+     * Take both players of a pairing computed from a snapshot, if neither has left or re-joined since
+     */
+    public boolean claim(Pairing pairing) {
+        return claimBoth(pairing.waiting(), pairing.joining());
+    }
+
+    /**
+     * Put a ticket back, e.g. when creating the match failed for its opponent
+     */
+    public void requeue(Ticket ticket) {
+        if (byUsername.putIfAbsent(ticket.username(), ticket) == null) {
+            byRating.add(ticket);
+            byExpiry.add(ticket);
+        }
+    }
+
+    public boolean remove(String username) {
+        Ticket ticket = byUsername.remove(username);
+        if (ticket == null) {
+            return false;
+        }
+        byRating.remove(ticket);
+        return true;
+    }
+
+    public boolean contains(String username) {
+        return byUsername.containsKey(username);
+    }
+
+    public int size() {
+        return byUsername.size();
+    }
+
+    /**
+     * Pair neighbours whose windows have widened enough to accept each other while waiting
+     */
+    public List<Pairing> pairWaiting(long now) {
+        List<Pairing> pairings = new ArrayList<>();
+        Ticket previous = null;
+        for (Ticket ticket : byRating) {
+            if (!isCurrent(ticket)) {
+                continue;
+            }
+            if (isExpired(ticket, now)) {
+                release(ticket);
+                continue;
+            }
+            if (previous != null && accepts(previous, ticket, now) && accepts(ticket, previous, now)) {
+                Ticket first = previous.joinedAtMillis() <= ticket.joinedAtMillis() ? previous : ticket;
+                Ticket second = first == previous ? ticket : previous;
+                if (claimBoth(first, second)) {
+                    pairings.add(new Pairing(first, second));
+                    previous = null;
+                    continue;
+                }
+            }
+            previous = ticket;
+        }
+        return pairings;
+    }
+
+    /**
+     * Drop players who have waited longer than the TTL
+     * @return how many were still waiting
+     */
+    public int expire(long now) {
+        int removed = 0;
+        for (Ticket head : byExpiry) {
+            if (!isExpired(head, now)) {
+                break; // everything after it joined later
+            }
+            if (!byExpiry.remove(head)) {
+                continue; // another sweep took it
+            }
+            // Only the player's current ticket counts; older ones are leftovers
+            if (release(head)) {
+                removed++;
+            } else {
+                byRating.remove(head);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Rating difference a player accepts after waiting since joinedAt
+     */
+    public int window(Ticket ticket, long now) {
+        double waitedSeconds = Math.max(0, now - ticket.joinedAtMillis()) / 1000.0;
+        return (int) Math.min(maxWindow, initialWindow + windowGrowthPerSecond * waitedSeconds);
+    }
+
+    // Closest waiting player inside my window whose own window also includes me, taken out of the pool
+    private Ticket claimOpponent(Ticket me, long now) {
+        int myWindow = window(me, now);
+        // Skip-list iterators are weakly consistent: they tolerate concurrent joins and removals
+        Iterator<Ticket> below = byRating.headSet(me, false).descendingIterator();
+        Iterator<Ticket> above = byRating.tailSet(me, false).iterator();
+        Ticket nextBelow = nextLive(below, now);
+        Ticket nextAbove = nextLive(above, now);
+
+        while (nextBelow != null || nextAbove != null) {
+            boolean takeBelow = nextAbove == null
+                    || (nextBelow != null && me.rating() - nextBelow.rating() <= nextAbove.rating() - me.rating());
+            Ticket candidate = takeBelow ? nextBelow : nextAbove;
+            if (Math.abs(candidate.rating() - me.rating()) > myWindow) {
+                return null; // everyone further out is outside my window too
+            }
+            if (accepts(candidate, me, now) && release(candidate)) {
+                return candidate;
+            }
+            // Not acceptable, or another joiner claimed them first
+            if (takeBelow) {
+                nextBelow = nextLive(below, now);
+            } else {
+                nextAbove = nextLive(above, now);
+            }
+        }
+        return null;
+    }
+
+    // Next current, unexpired ticket; expired ones met on the way are dropped
+    private Ticket nextLive(Iterator<Ticket> it, long now) {
+        while (it.hasNext()) {
+            Ticket ticket = it.next();
+            if (!isCurrent(ticket)) {
+                continue;
+            }
+            if (!isExpired(ticket, now)) {
+                return ticket;
+            }
+            release(ticket);
+        }
+        return null;
+    }
+
+    // Both or neither: if the second is gone, the first goes back with its original wait time
+    private boolean claimBoth(Ticket first, Ticket second) {
+        if (!release(first)) {
+            return false;
+        }
+        if (!release(second)) {
+            requeue(first);
+            return false;
+        }
+        return true;
+    }
+
+    // The CAS that decides who owns a ticket: true for exactly one caller
+    private boolean release(Ticket ticket) {
+        if (!byUsername.remove(ticket.username(), ticket)) {
+            return false;
+        }
+        byRating.remove(ticket);
+        return true;
+    }
+
+    private boolean isCurrent(Ticket ticket) {
+        return ticket.equals(byUsername.get(ticket.username()));
+    }
+
+    private boolean accepts(Ticket player, Ticket opponent, long now) {
+        return !player.username().equals(opponent.username())
+                && Math.abs(player.rating() - opponent.rating()) <= window(player, now);
+    }
+
+    // Removed tickets stay in byExpiry until they reach its head (lazy deletion)
+    private boolean isExpired(Ticket ticket, long now) {
+        return now - ticket.joinedAtMillis() > ttlMillis;
+    }
+
+    private void addTicket(Ticket ticket) {
+        // The map first: a ticket found through an index is only used once it is current
+        byUsername.put(ticket.username(), ticket);
+        byRating.add(ticket);
+        byExpiry.add(ticket);
+    }
+}
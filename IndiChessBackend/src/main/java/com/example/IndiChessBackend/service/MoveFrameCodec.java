@@ -0,0 +1,118 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.MoveDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary move frames (format "binary-v1") for clients that ask for them at CONNECT.
+ *
+ * Move frame, 18 bytes, big-endian:
+ *   u8  type = 1
+ *   u16 move: from | to << 6 | promotion << 12 (squares are row * 8 + col;
+ *       promotion 0 none, 1 knight, 2 bishop, 3 rook, 4 queen)
+ *   u8  flags: 1 capture, 2 castle, 4 en passant, 8 promotion, 16 white to move next
+ *   u16 ply after the move
+ *   u32 clock: milliseconds since the game started, when the server applied the move
+ *   u64 Zobrist hash of the position after the move (see ZobristHasher)
+ *
+ * Error frame: u8 type = 2, then the UTF-8 message.
+ *
+ * Everything else a JSON MoveDTO carries (board, FENs, notation, usernames) can be derived
+ * from the previous position and the move.
+ */
+public final class MoveFrameCodec {
+
+    public static final String FORMAT = "binary-v1";
+
+    public static final byte TYPE_MOVE = 1;
+    public static final byte TYPE_ERROR = 2;
+
+    public static final int FLAG_CAPTURE = 1;
+    public static final int FLAG_CASTLE = 2;
+    public static final int FLAG_EN_PASSANT = 4;
+    public static final int FLAG_PROMOTION = 8;
+    public static final int FLAG_WHITE_TO_MOVE = 16;
+
+    public static final int MOVE_FRAME_SIZE = 18;
+
+    private static final String PROMOTIONS = "nbrq";
+
+    /**
+     * A decoded move frame
+     */
+    public record MoveFrame(int from, int to, int promotion, int flags, int ply, long clockMillis, long positionHash) {
+    }
+
+    private MoveFrameCodec() {
+    }
+
+    public static byte[] encodeMove(MoveDTO move) {
+        return encodeMove(move, move.getPly() != null ? move.getPly() : 0,
+                move.getClockMillis() != null ? move.getClockMillis() : 0,
+                move.getPositionHash() != null ? Long.parseUnsignedLong(move.getPositionHash(), 16) : 0);
+    }
+
+    public static byte[] encodeMove(MoveDTO move, int ply, long clockMillis, long positionHash) {
+        int from = move.getFromRow() * 8 + move.getFromCol();
+        int to = move.getToRow() * 8 + move.getToCol();
+        int promotion = Boolean.TRUE.equals(move.getIsPromotion()) ? promotionCode(move.getPromotedTo()) : 0;
+
+        int flags = 0;
+        if (move.getCapturedPiece() != null && !move.getCapturedPiece().isEmpty()) {
+            flags |= FLAG_CAPTURE;
+        }
+        if (Boolean.TRUE.equals(move.getCastled())) {
+            flags |= FLAG_CASTLE;
+        }
+        if (Boolean.TRUE.equals(move.getIsEnPassant())) {
+            flags |= FLAG_EN_PASSANT;
+        }
+        if (promotion != 0) {
+            flags |= FLAG_PROMOTION;
+        }
+        if (Boolean.TRUE.equals(move.getIsWhiteTurn())) {
+            flags |= FLAG_WHITE_TO_MOVE;
+        }
+
+        return ByteBuffer.allocate(MOVE_FRAME_SIZE)
+                .put(TYPE_MOVE)
+                .putShort((short) (from | to << 6 | promotion << 12))
+                .put((byte) flags)
+                .putShort((short) ply)
+                .putInt((int) Math.min(clockMillis, 0xFFFFFFFFL))
+                .putLong(positionHash)
+                .array();
+    }
+
+    public static byte[] encodeError(String message) {
+        byte[] text = (message != null ? message : "").getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + text.length).put(TYPE_ERROR).put(text).array();
+    }
+
+    public static MoveFrame decodeMove(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        if (frame.length != MOVE_FRAME_SIZE || buffer.get() != TYPE_MOVE) {
+            throw new IllegalArgumentException("Not a move frame");
+        }
+        int move = Short.toUnsignedInt(buffer.getShort());
+        int flags = Byte.toUnsignedInt(buffer.get());
+        int ply = Short.toUnsignedInt(buffer.getShort());
+        long clock = Integer.toUnsignedLong(buffer.getInt());
+        long hash = buffer.getLong();
+        return new MoveFrame(move & 63, (move >>> 6) & 63, move >>> 12, flags, ply, clock, hash);
+    }
+
+    // "Q", "q", "queen" -> 4
+    static int promotionCode(String promotedTo) {
+        if (promotedTo == null || promotedTo.isEmpty()) {
+            return 4; // the client default is a queen
+        }
+        if (promotedTo.equalsIgnoreCase("knight")) {
+            return 1;
+        }
+        int index = PROMOTIONS.indexOf(Character.toLowerCase(promotedTo.charAt(0)));
+        return index >= 0 ? index + 1 : 4;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.IndiChessBackend.service;
 
+import com.example.IndiChessBackend.model.DTO.MoveHistoryDTO;
 import com.example.IndiChessBackend.model.Match;
 import com.example.IndiChessBackend.model.Move;
 import com.example.IndiChessBackend.model.PieceColor;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Service for persisting chess moves to database
@@ -57,7 +59,7 @@ public class MoveService {
             }
             
             // Create SAN notation (simplified)
-            String san = createSimpleSan(piece, toRow, toCol, capturedPiece != null);
+            String san = createSimpleSan(piece, fromCol, toRow, toCol, capturedPiece != null);
             
             // Create move entity
             Move move = new Move();
@@ -96,7 +98,7 @@ public class MoveService {
      * @param col Column (0-7)
      * @return UCI position (e.g., "e4")
      */
-    private String positionToUci(int row, int col) {
+    static String positionToUci(int row, int col) {
         char file = (char) ('a' + col); // a-h
         int rank = 8 - row; // 1-8 (inverted because array is top-down)
         return "" + file + rank;
@@ -105,12 +107,13 @@ public class MoveService {
     /**
      * Create simplified SAN notation
      * @param piece Piece character
+     * @param fromCol Source column (names the file of a pawn capture)
      * @param toRow Destination row
      * @param toCol Destination column
      * @param isCapture Whether it's a capture
      * @return SAN notation
      */
-    private String createSimpleSan(String piece, int toRow, int toCol, boolean isCapture) {
+    static String createSimpleSan(String piece, int fromCol, int toRow, int toCol, boolean isCapture) {
         String san = "";
         
         // Piece prefix (uppercase for white, lowercase for black)
@@ -122,8 +125,8 @@ public class MoveService {
         // Capture notation
         if (isCapture) {
             if (Character.toLowerCase(pieceChar) == 'p') {
-                // Pawn captures include file
-                san += (char) ('a' + toCol);
+                // Pawn captures start with the file the pawn came from (exd5)
+                san += (char) ('a' + fromCol);
             }
             san += "x";
         }
@@ -144,11 +147,10 @@ public class MoveService {
     }
 
     /**
-     * Load all moves for a match (for game replay/history)
+     * Move history from the moves table, for games finished before their moves were archived
+     * with the match (see GameService.getMoveHistory)
      */
-    public java.util.List<Move> getMovesForMatch(Long matchId) {
-        Match match = matchRepo.findById(matchId)
-                .orElseThrow(() -> new RuntimeException("Match not found"));
-        return match.getMoves(); // OrderBy ply is set in Match entity
+    public List<MoveHistoryDTO> getMoveHistory(Long matchId) {
+        return moveRepo.findHistory(matchId);
     }
 }
@@ -0,0 +1,120 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.MoveDTO;
+import com.example.IndiChessBackend.model.DTO.MoveHistoryDTO;
+import com.example.IndiChessBackend.model.PieceColor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A game's moves, one int each: kept with the live game, and archived with the finished match
+ * (Match.packedMoves, 3 bytes a move), so move history is served without loading Move entities.
+ *
+ * Move: from | to << 6 | promotion << 12 (squares and promotion as in MoveFrameCodec)
+ *       | piece << 15 (1 pawn, 2 knight, 3 bishop, 4 rook, 5 queen, 6 king)
+ *       | flags << 18 (MoveFrameCodec's capture, castle, en passant and promotion flags)
+ * White moves at odd plies.
+ */
+public final class PackedMoveList {
+
+    private static final String PIECES = "?pnbrqk";
+    private static final String PROMOTIONS = "?nbrq";
+    private static final int BYTES_PER_MOVE = 3;
+
+    private int[] moves;
+    private int size;
+
+    public PackedMoveList() {
+        this(new int[16], 0);
+    }
+
+    private PackedMoveList(int[] moves, int size) {
+        this.moves = moves;
+        this.size = size;
+    }
+
+    public synchronized void add(MoveDTO move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = pack(move);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized byte[] toBytes() {
+        byte[] packed = new byte[size * BYTES_PER_MOVE];
+        for (int i = 0; i < size; i++) {
+            packed[i * 3] = (byte) (moves[i] >>> 16);
+            packed[i * 3 + 1] = (byte) (moves[i] >>> 8);
+            packed[i * 3 + 2] = (byte) moves[i];
+        }
+        return packed;
+    }
+
+    public static PackedMoveList fromBytes(byte[] packed) {
+        if (packed == null) {
+            return new PackedMoveList();
+        }
+        int count = packed.length / BYTES_PER_MOVE;
+        int[] moves = new int[Math.max(16, count)];
+        for (int i = 0; i < count; i++) {
+            moves[i] = (packed[i * 3] & 0xFF) << 16 | (packed[i * 3 + 1] & 0xFF) << 8 | (packed[i * 3 + 2] & 0xFF);
+        }
+        return new PackedMoveList(moves, count);
+    }
+
+    /**
+     * The moves in order, with the UCI and (simplified) SAN that MoveService stores for each
+     */
+    public synchronized List<MoveHistoryDTO> toHistory() {
+        List<MoveHistoryDTO> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            int from = move & 63;
+            int to = (move >>> 6) & 63;
+            int promotion = (move >>> 12) & 7;
+            char piece = PIECES.charAt((move >>> 15) & 7);
+            int flags = move >>> 18;
+
+            String uci = MoveService.positionToUci(from / 8, from % 8) + MoveService.positionToUci(to / 8, to % 8);
+            if (promotion != 0) {
+                uci += PROMOTIONS.charAt(promotion);
+            }
+            String san = MoveService.createSimpleSan(piece == '?' ? "p" : String.valueOf(piece), from % 8, to / 8, to % 8,
+                    (flags & MoveFrameCodec.FLAG_CAPTURE) != 0);
+
+            int ply = i + 1;
+            history.add(new MoveHistoryDTO(ply, (ply + 1) / 2, ply % 2 == 1 ? PieceColor.WHITE : PieceColor.BLACK,
+                    uci, san));
+        }
+        return history;
+    }
+
+    static int pack(MoveDTO move) {
+        int from = move.getFromRow() * 8 + move.getFromCol();
+        int to = move.getToRow() * 8 + move.getToCol();
+        int promotion = Boolean.TRUE.equals(move.getIsPromotion()) ? MoveFrameCodec.promotionCode(move.getPromotedTo()) : 0;
+        int piece = move.getPiece() == null || move.getPiece().isEmpty() ? 0
+                : Math.max(0, PIECES.indexOf(Character.toLowerCase(move.getPiece().charAt(0))));
+
+        int flags = 0;
+        if (move.getCapturedPiece() != null && !move.getCapturedPiece().isEmpty()) {
+            flags |= MoveFrameCodec.FLAG_CAPTURE;
+        }
+        if (Boolean.TRUE.equals(move.getCastled())) {
+            flags |= MoveFrameCodec.FLAG_CASTLE;
+        }
+        if (Boolean.TRUE.equals(move.getIsEnPassant())) {
+            flags |= MoveFrameCodec.FLAG_EN_PASSANT;
+        }
+        if (promotion != 0) {
+            flags |= MoveFrameCodec.FLAG_PROMOTION;
+        }
+        return from | to << 6 | promotion << 12 | piece << 15 | flags << 18;
+    }
+}
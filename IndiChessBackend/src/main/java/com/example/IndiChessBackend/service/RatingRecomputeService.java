@@ -0,0 +1,403 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.*;
+import com.example.IndiChessBackend.model.DTO.FinishedMatchView;
+import com.example.IndiChessBackend.model.DTO.RatingStateView;
+import com.example.IndiChessBackend.model.DTO.UserRatingView;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.RatingHistoryRepo;
+import com.example.IndiChessBackend.repo.RatingRecomputeCheckpointRepo;
+import com.example.IndiChessBackend.repo.RatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds every rating from match history, e.g. after changing rating parameters.
+ *
+ * Finished games are streamed in (finishedAt, id) order with a keyset cursor, one chunk at a
+ * time, while the next chunk is prefetched. RatingReplayEngine applies RatingService's rules
+ * in parallel (players are sharded into conflict-free waves), and the changed rows are written
+ * in batches together with the checkpoint, so a crashed or restarted run resumes where it
+ * stopped. The rating_history series is rebuilt along the way. When the replay reaches the
+ * present, users.rating and the leaderboards are reloaded.
+ *
+ * Games that finish while the job runs are picked up by a catch-up pass at the end, but
+ * a game finishing during the final write can still be overwritten: run it in a quiet period.
+ */
+@Service
+@RequiredArgsConstructor
+public class RatingRecomputeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingRecomputeService.class);
+
+    static final String JOB_NAME = "ratings";
+
+    private static final List<MatchStatus> FINAL_STATUSES =
+            List.of(MatchStatus.PLAYER1_WON, MatchStatus.PLAYER2_WON, MatchStatus.DRAW);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final MatchRepo matchRepo;
+    private final RatingRepo ratingRepo;
+    private final RatingHistoryRepo ratingHistoryRepo;
+    private final UserRepo userRepo;
+    private final RatingRecomputeCheckpointRepo checkpointRepo;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${rating.system:elo}")
+    private String ratingSystem;
+
+    @Value("${rating.glicko2.tau:0.5}")
+    private double tau;
+
+    @Value("${rating.glicko2.period-ms:3600000}")
+    private long periodMillis;
+
+    // Games fetched per keyset page
+    @Value("${rating.recompute.chunk-size:5000}")
+    private int chunkSize;
+
+    // Rating rows written per flush
+    @Value("${rating.recompute.write-batch-size:1000}")
+    private int writeBatchSize;
+
+    // 0 = one worker per core
+    @Value("${rating.recompute.parallelism:0}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rating-recompute-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long gamesThisRun;
+    private volatile long runStartedNanos;
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    /**
+     * Start a recompute in the background.
+     * @param fresh true to discard any checkpoint and replay from the first game
+     * @return false if a recompute is already running
+     */
+    public boolean start(boolean fresh) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                run(fresh);
+            } finally {
+                running.set(false);
+            }
+        }, "rating-recompute");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Current or last run, as stored in the checkpoint
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running.get());
+        checkpointRepo.findById(JOB_NAME).ifPresent(checkpoint -> {
+            status.put("status", checkpoint.getStatus());
+            status.put("ratingSystem", checkpoint.getRatingSystem());
+            status.put("gamesApplied", checkpoint.getGamesApplied());
+            status.put("lastFinishedAt", checkpoint.getLastFinishedAt());
+            status.put("lastMatchId", checkpoint.getLastMatchId());
+            status.put("startedAt", checkpoint.getStartedAt());
+            status.put("updatedAt", checkpoint.getUpdatedAt());
+            status.put("lastError", checkpoint.getLastError());
+        });
+        if (running.get() && runStartedNanos > 0) {
+            long elapsedMs = Math.max(1, (System.nanoTime() - runStartedNanos) / 1_000_000);
+            status.put("gamesPerSecond", Math.round(gamesThisRun * 1000.0 / elapsedMs));
+        }
+        return status;
+    }
+
+    void run(boolean fresh) {
+        runStartedNanos = System.nanoTime();
+        gamesThisRun = 0;
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            RatingRecomputeCheckpoint checkpoint = prepare(fresh);
+            // Players start from their rows (reset to where they started on a fresh run), or, without
+            // a row, from the rule RatingService applies when it creates one
+            Map<Long, Integer> usersRatings = new HashMap<>();
+            for (UserRatingView user : userRepo.findAllRatings()) {
+                usersRatings.put(user.getUserId(), user.getRating());
+            }
+            RatingReplayEngine engine = new RatingReplayEngine(isGlicko2(), new Glicko2Calculator(tau), periodMillis,
+                    pool, (userId, gameType) -> RatingService.initialRating(usersRatings.get(userId), gameType));
+            seedFromDatabase(engine);
+
+            // Read position; for Glicko-2 it runs ahead of the checkpoint by the open rating period
+            Cursor cursor = new Cursor(
+                    checkpoint.getLastFinishedAt() != null ? checkpoint.getLastFinishedAt() : BEGINNING,
+                    checkpoint.getLastMatchId() != null ? checkpoint.getLastMatchId() : 0L);
+            logger.info("🔁 Rating recompute ({}) {} after {} #{}", checkpoint.getRatingSystem(),
+                    checkpoint.getGamesApplied() > 0 ? "resuming" : "starting", cursor.finishedAt, cursor.matchId);
+
+            // Replay up to now, then catch up on games that finished meanwhile until none are left
+            while (replay(engine, checkpoint, cursor, LocalDateTime.now()) > 0) {
+                logger.info("🔁 Rating recompute checking for games finished during the run");
+            }
+
+            engine.finish();
+            checkpoint.setStatus(RatingRecomputeCheckpoint.Status.COMPLETED);
+            write(engine, checkpoint);
+            transactionTemplate.executeWithoutResult(status ->
+                    userRepo.syncStandardRatings());
+            leaderboardService.loadIndexes();
+
+            long elapsedMs = Math.max(1, (System.nanoTime() - runStartedNanos) / 1_000_000);
+            logger.info("✅ Rating recompute finished: {} games in {} ms ({} games/s)",
+                    checkpoint.getGamesApplied(), elapsedMs, Math.round(gamesThisRun * 1000.0 / elapsedMs));
+        } catch (RuntimeException e) {
+            logger.error("❌ Rating recompute failed, it can be resumed from the last checkpoint: {}", e.getMessage(), e);
+            markFailed(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final class Cursor {
+        LocalDateTime finishedAt;
+        long matchId;
+
+        Cursor(LocalDateTime finishedAt, long matchId) {
+            this.finishedAt = finishedAt;
+            this.matchId = matchId;
+        }
+    }
+
+    /**
+     * Replay every game after the cursor that finished up to upTo, advancing the cursor;
+     * returns how many games were read
+     */
+    private long replay(RatingReplayEngine engine, RatingRecomputeCheckpoint checkpoint,
+                        Cursor cursor, LocalDateTime upTo) {
+        long read = 0;
+        CompletableFuture<List<FinishedMatchView>> next = fetch(upTo, cursor.finishedAt, cursor.matchId);
+        while (true) {
+            List<FinishedMatchView> chunk = next.join();
+            if (chunk.isEmpty()) {
+                return read;
+            }
+            FinishedMatchView last = chunk.get(chunk.size() - 1);
+            cursor.finishedAt = last.getFinishedAt();
+            cursor.matchId = last.getId();
+            // Read the next page while this one is rated and written
+            next = chunk.size() < chunkSize
+                    ? CompletableFuture.completedFuture(List.of())
+                    : fetch(upTo, last.getFinishedAt(), last.getId());
+
+            engine.apply(toGames(chunk));
+            read += chunk.size();
+            gamesThisRun += chunk.size();
+            write(engine, checkpoint);
+        }
+    }
+
+    private CompletableFuture<List<FinishedMatchView>> fetch(LocalDateTime upTo, LocalDateTime after, long afterId) {
+        return CompletableFuture.supplyAsync(() -> matchRepo.findFinishedAfter(
+                FINAL_STATUSES, upTo, after, afterId, PageRequest.of(0, chunkSize)), prefetcher);
+    }
+
+    private static List<RatingReplayEngine.ReplayGame> toGames(List<FinishedMatchView> chunk) {
+        List<RatingReplayEngine.ReplayGame> games = new ArrayList<>(chunk.size());
+        for (FinishedMatchView match : chunk) {
+            games.add(new RatingReplayEngine.ReplayGame(
+                    match.getId(), match.getPlayer1Id(), match.getPlayer2Id(),
+                    match.getGameType() != null ? match.getGameType() : GameType.STANDARD,
+                    player1Score(match.getStatus()), match.getFinishedAt()));
+        }
+        return games;
+    }
+
+    static double player1Score(MatchStatus status) {
+        return switch (status) {
+            case PLAYER1_WON -> 1.0;
+            case PLAYER2_WON -> 0.0;
+            default -> 0.5;
+        };
+    }
+
+    /**
+     * Start a new run or pick up the checkpoint of an interrupted one
+     */
+    private RatingRecomputeCheckpoint prepare(boolean fresh) {
+        return transactionTemplate.execute(status -> {
+            RatingRecomputeCheckpoint existing = checkpointRepo.findById(JOB_NAME).orElse(null);
+            boolean resumable = !fresh && existing != null
+                    && existing.getStatus() != RatingRecomputeCheckpoint.Status.COMPLETED
+                    && ratingSystem.equalsIgnoreCase(existing.getRatingSystem());
+            if (resumable) {
+                existing.setStatus(RatingRecomputeCheckpoint.Status.RUNNING);
+                existing.setLastError(null);
+                return checkpointRepo.save(existing);
+            }
+
+            int reset = ratingRepo.resetAll(LeaderboardService.DEFAULT_RATING);
+            int deleted = ratingHistoryRepo.deleteAllHistory();
+            logger.info("🔁 Rating recompute reset {} rating rows and deleted {} history points", reset, deleted);
+            return checkpointRepo.save(new RatingRecomputeCheckpoint(JOB_NAME, ratingSystem.toLowerCase()));
+        });
+    }
+
+    private void seedFromDatabase(RatingReplayEngine engine) {
+        List<RatingStateView> rows = ratingRepo.findAllStates();
+        for (RatingStateView row : rows) {
+            RatingReplayEngine.PlayerState state =
+                    new RatingReplayEngine.PlayerState(row.getUserId(), row.getGameType(), row.getRating());
+            state.setDeviation(row.getRatingDeviation());
+            state.setVolatility(row.getVolatility());
+            state.setHistory(row.getHighestRating(), row.getLowestRating(),
+                    row.getHistoryPoints() != null ? row.getHistoryPoints() : 0);
+            state.setCounters(row.getGamesPlayed(), row.getWins(), row.getLosses(), row.getDraws());
+            engine.seed(state);
+        }
+        logger.info("🔁 Rating recompute starts from {} rating rows", rows.size());
+    }
+
+    /**
+     * Write every changed rating and the new history points and move the checkpoint, in one transaction
+     */
+    private void write(RatingReplayEngine engine, RatingRecomputeCheckpoint checkpoint) {
+        List<RatingReplayEngine.PlayerState> changed = engine.drainDirty();
+        List<RatingReplayEngine.HistoryPoint> history = engine.drainHistory();
+        engine.lastApplied().ifPresent(game -> {
+            checkpoint.setLastFinishedAt(game.finishedAt());
+            checkpoint.setLastMatchId(game.matchId());
+        });
+        checkpoint.setGamesApplied(engine.getGamesApplied());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<GameType, List<RatingReplayEngine.PlayerState>> byType = changed.stream()
+                    .collect(Collectors.groupingBy(RatingReplayEngine.PlayerState::getGameType,
+                            () -> new EnumMap<>(GameType.class), Collectors.toList()));
+            for (Map.Entry<GameType, List<RatingReplayEngine.PlayerState>> entry : byType.entrySet()) {
+                List<RatingReplayEngine.PlayerState> states = entry.getValue();
+                for (int from = 0; from < states.size(); from += writeBatchSize) {
+                    writeBatch(entry.getKey(), states.subList(from, Math.min(states.size(), from + writeBatchSize)));
+                }
+            }
+            insertHistory(history);
+            checkpointRepo.save(checkpoint);
+        });
+    }
+
+    private void writeBatch(GameType gameType, List<RatingReplayEngine.PlayerState> states) {
+        Map<Long, RatingReplayEngine.PlayerState> byUser = new HashMap<>();
+        for (RatingReplayEngine.PlayerState state : states) {
+            byUser.put(state.getUserId(), state);
+        }
+
+        Map<Long, Rating> rows = new HashMap<>();
+        for (Rating row : ratingRepo.findByUserIdsAndGameType(byUser.keySet(), gameType)) {
+            rows.put(row.getUser().getUserId(), row);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Rating> toSave = new ArrayList<>(states.size());
+        for (RatingReplayEngine.PlayerState state : states) {
+            Rating row = rows.get(state.getUserId());
+            if (row == null) {
+                row = new Rating(entityManager.getReference(User.class, state.getUserId()), gameType, state.getInitialRating());
+            }
+            row.setRating(state.getRating());
+            row.setRatingDeviation(state.getDeviation());
+            row.setVolatility(state.getVolatility());
+            row.setHighestRating(state.getHighestRating());
+            row.setLowestRating(state.getLowestRating());
+            row.setHistoryPoints(state.getHistoryPoints());
+            row.setGamesPlayed(state.getGamesPlayed());
+            row.setWins(state.getWins());
+            row.setLosses(state.getLosses());
+            row.setDraws(state.getDraws());
+            row.setUpdatedAt(now);
+            toSave.add(row);
+        }
+        ratingRepo.saveAll(toSave);
+
+        // Keep the persistence context small: push this batch out and forget it
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Plain JDBC batches: IDENTITY ids stop Hibernate from batching inserts, and this is a row per player per game
+    private void insertHistory(List<RatingReplayEngine.HistoryPoint> points) {
+        if (points.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO rating_history (user_id, game_type, seq, rating, match_id, recorded_at) VALUES (?, ?, ?, ?, ?, ?)",
+                points, writeBatchSize, (ps, point) -> {
+                    ps.setLong(1, point.userId());
+                    ps.setString(2, point.gameType().name());
+                    ps.setInt(3, point.seq());
+                    ps.setInt(4, point.rating());
+                    if (point.matchId() != null) {
+                        ps.setLong(5, point.matchId());
+                    } else {
+                        ps.setNull(5, Types.BIGINT);
+                    }
+                    ps.setTimestamp(6, point.recordedAt() != null ? Timestamp.valueOf(point.recordedAt()) : null);
+                });
+    }
+
+    private void markFailed(RuntimeException e) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    checkpointRepo.findById(JOB_NAME).ifPresent(checkpoint -> {
+                        checkpoint.setStatus(RatingRecomputeCheckpoint.Status.FAILED);
+                        String message = String.valueOf(e.getMessage());
+                        checkpoint.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                        checkpoint.setUpdatedAt(LocalDateTime.now());
+                    }));
+        } catch (RuntimeException ignored) {
+            logger.warn("⚠️ Could not record the rating recompute failure");
+        }
+    }
+
+    private boolean isGlicko2() {
+        return "glicko2".equalsIgnoreCase(ratingSystem);
+    }
+}
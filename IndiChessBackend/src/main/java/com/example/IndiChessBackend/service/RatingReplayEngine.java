@@ -0,0 +1,326 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.GameType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Replays finished games in chronological order with RatingService's rules, in memory.
+ *
+ * ELO: each chunk of games is split into waves. A game goes into the wave after the latest
+ * wave that touched either of its players, so games in one wave share no players and can be
+ * rated in parallel while every player still sees their own games in order.
+ *
+ * Glicko-2: games are grouped into rating periods by finish time; when a period closes all
+ * of its players are rated in parallel against the start-of-period snapshot.
+ *
+ * Every rating change also produces a rating_history point (one per player per ELO game,
+ * one per player per Glicko-2 period), in the order the live rating code would write them.
+ *
+ * A player without a seeded state starts from InitialRatings, which applies the rule
+ * RatingService uses for a first rating row (RatingService.initialRating).
+ *
+ * Not thread-safe itself: one job drives it from a single thread.
+ */
+public class RatingReplayEngine {
+
+    // Waves smaller than this are cheaper to run on the calling thread
+    private static final int PARALLEL_WAVE_THRESHOLD = 256;
+
+    private final boolean glicko2;
+    private final Glicko2Calculator calculator;
+    private final long periodMillis;
+    private final ForkJoinPool pool;
+    private final InitialRatings initialRatings;
+
+    private final Map<GameType, Map<Long, PlayerState>> states = new EnumMap<>(GameType.class);
+    private final Set<PlayerState> dirty = new HashSet<>();
+    private final List<HistoryPoint> history = new ArrayList<>();
+
+    // Glicko-2: games of the period that is still open
+    private final List<ReplayGame> openPeriod = new ArrayList<>();
+    private long openPeriodIndex = Long.MIN_VALUE;
+
+    private ReplayGame lastApplied;
+    private long gamesApplied;
+
+    /**
+     * Rating a player starts from in a game type they have no state for yet
+     */
+    @FunctionalInterface
+    public interface InitialRatings {
+        int of(long userId, GameType gameType);
+    }
+
+    /**
+     * A finished game, reduced to what the rating rules need
+     */
+    public record ReplayGame(long matchId, long player1Id, long player2Id, GameType gameType,
+                             double player1Score, LocalDateTime finishedAt) {
+    }
+
+    /**
+     * A rating_history row to append
+     */
+    public record HistoryPoint(long userId, GameType gameType, int seq, int rating, Long matchId, LocalDateTime recordedAt) {
+    }
+
+    /**
+     * One player's replayed rating for one game type
+     */
+    public static final class PlayerState {
+        final long userId;
+        final GameType gameType;
+        final int initialRating;
+        int rating;
+        Double deviation;
+        Double volatility;
+        Integer highestRating;
+        Integer lowestRating;
+        int historyPoints;
+        int gamesPlayed;
+        int wins;
+        int losses;
+        int draws;
+
+        public PlayerState(long userId, GameType gameType, int rating) {
+            this.userId = userId;
+            this.gameType = gameType;
+            this.initialRating = rating;
+            this.rating = rating;
+        }
+
+        public long getUserId() { return userId; }
+        public GameType getGameType() { return gameType; }
+        public int getInitialRating() { return initialRating; }
+        public int getRating() { return rating; }
+        public Double getDeviation() { return deviation; }
+        public Double getVolatility() { return volatility; }
+        public Integer getHighestRating() { return highestRating; }
+        public Integer getLowestRating() { return lowestRating; }
+        public int getHistoryPoints() { return historyPoints; }
+        public int getGamesPlayed() { return gamesPlayed; }
+        public int getWins() { return wins; }
+        public int getLosses() { return losses; }
+        public int getDraws() { return draws; }
+
+        public void setDeviation(Double deviation) { this.deviation = deviation; }
+        public void setVolatility(Double volatility) { this.volatility = volatility; }
+        public void setHistory(Integer highestRating, Integer lowestRating, int historyPoints) {
+            this.highestRating = highestRating;
+            this.lowestRating = lowestRating;
+            this.historyPoints = historyPoints;
+        }
+        public void setCounters(int gamesPlayed, int wins, int losses, int draws) {
+            this.gamesPlayed = gamesPlayed;
+            this.wins = wins;
+            this.losses = losses;
+            this.draws = draws;
+        }
+
+        // Same bookkeeping as RatingService.recordRating
+        HistoryPoint changeRating(int newRating, Long matchId, LocalDateTime at) {
+            highestRating = Math.max(highestRating != null ? highestRating : rating, newRating);
+            lowestRating = Math.min(lowestRating != null ? lowestRating : rating, newRating);
+            rating = newRating;
+            historyPoints++;
+            return new HistoryPoint(userId, gameType, historyPoints, newRating, matchId, at);
+        }
+
+        void recordResult(double score) {
+            gamesPlayed++;
+            if (score == 1.0) {
+                wins++;
+            } else if (score == 0.0) {
+                losses++;
+            } else {
+                draws++;
+            }
+        }
+    }
+
+    public RatingReplayEngine(boolean glicko2, Glicko2Calculator calculator, long periodMillis, ForkJoinPool pool,
+                              InitialRatings initialRatings) {
+        this.glicko2 = glicko2;
+        this.calculator = calculator;
+        this.periodMillis = periodMillis;
+        this.pool = pool;
+        this.initialRatings = initialRatings;
+    }
+
+    /**
+     * Restore a player's state (when resuming from a checkpoint)
+     */
+    public void seed(PlayerState state) {
+        states.computeIfAbsent(state.gameType, t -> new HashMap<>()).put(state.userId, state);
+    }
+
+    /**
+     * Apply the next games, which must continue the chronological order
+     */
+    public void apply(List<ReplayGame> games) {
+        if (glicko2) {
+            for (ReplayGame game : games) {
+                long period = Math.floorDiv(game.finishedAt().toInstant(ZoneOffset.UTC).toEpochMilli(), periodMillis);
+                if (period != openPeriodIndex && !openPeriod.isEmpty()) {
+                    closePeriod();
+                }
+                openPeriodIndex = period;
+                openPeriod.add(game);
+            }
+        } else {
+            applyElo(games);
+        }
+    }
+
+    /**
+     * Close the last open Glicko-2 period at the end of the replay
+     */
+    public void finish() {
+        if (glicko2 && !openPeriod.isEmpty()) {
+            closePeriod();
+        }
+    }
+
+    /**
+     * Last game whose effects are fully reflected in the player states
+     */
+    public Optional<ReplayGame> lastApplied() {
+        return Optional.ofNullable(lastApplied);
+    }
+
+    public long getGamesApplied() {
+        return gamesApplied;
+    }
+
+    /**
+     * History points produced since the previous call, in replay order
+     */
+    public List<HistoryPoint> drainHistory() {
+        List<HistoryPoint> points = new ArrayList<>(history);
+        history.clear();
+        return points;
+    }
+
+    /**
+     * States changed since the previous call
+     */
+    public List<PlayerState> drainDirty() {
+        List<PlayerState> changed = new ArrayList<>(dirty);
+        dirty.clear();
+        return changed;
+    }
+
+    public Optional<PlayerState> getState(long userId, GameType gameType) {
+        return Optional.ofNullable(states.getOrDefault(gameType, Map.of()).get(userId));
+    }
+
+    private void applyElo(List<ReplayGame> games) {
+        // Wave per game: one past the latest wave of either player (per game type)
+        Map<GameType, Map<Long, Integer>> lastWave = new EnumMap<>(GameType.class);
+        List<List<Runnable>> waves = new ArrayList<>();
+        // Each game fills its own two slots, so waves can write without locking
+        HistoryPoint[] points = new HistoryPoint[games.size() * 2];
+
+        for (int i = 0; i < games.size(); i++) {
+            ReplayGame game = games.get(i);
+            PlayerState p1 = state(game.player1Id(), game.gameType());
+            PlayerState p2 = state(game.player2Id(), game.gameType());
+            dirty.add(p1);
+            dirty.add(p2);
+
+            Map<Long, Integer> typeWaves = lastWave.computeIfAbsent(game.gameType(), t -> new HashMap<>());
+            int wave = Math.max(typeWaves.getOrDefault(game.player1Id(), -1),
+                                typeWaves.getOrDefault(game.player2Id(), -1)) + 1;
+            typeWaves.put(game.player1Id(), wave);
+            typeWaves.put(game.player2Id(), wave);
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            int slot = i * 2;
+            waves.get(wave).add(() -> applyEloGame(p1, p2, game, points, slot));
+        }
+
+        for (List<Runnable> wave : waves) {
+            if (wave.size() < PARALLEL_WAVE_THRESHOLD) {
+                wave.forEach(Runnable::run);
+            } else {
+                pool.submit(() -> wave.parallelStream().forEach(Runnable::run)).join();
+            }
+        }
+
+        history.addAll(Arrays.asList(points));
+        if (!games.isEmpty()) {
+            lastApplied = games.get(games.size() - 1);
+            gamesApplied += games.size();
+        }
+    }
+
+    private static void applyEloGame(PlayerState p1, PlayerState p2, ReplayGame game, HistoryPoint[] points, int slot) {
+        int rating1 = p1.rating;
+        int rating2 = p2.rating;
+        double score = game.player1Score();
+        points[slot] = p1.changeRating(RatingService.calculateNewRating(rating1, rating2, score), game.matchId(), game.finishedAt());
+        points[slot + 1] = p2.changeRating(RatingService.calculateNewRating(rating2, rating1, 1.0 - score), game.matchId(), game.finishedAt());
+        p1.recordResult(score);
+        p2.recordResult(1.0 - score);
+    }
+
+    private void closePeriod() {
+        Map<GameType, List<ReplayGame>> byType = openPeriod.stream()
+                .collect(Collectors.groupingBy(ReplayGame::gameType, () -> new EnumMap<>(GameType.class), Collectors.toList()));
+
+        for (Map.Entry<GameType, List<ReplayGame>> entry : byType.entrySet()) {
+            Map<PlayerState, List<Glicko2Calculator.Outcome>> outcomes = new HashMap<>();
+            Map<PlayerState, Glicko2Calculator.PlayerRating> before = new HashMap<>();
+            for (ReplayGame game : entry.getValue()) {
+                PlayerState p1 = state(game.player1Id(), entry.getKey());
+                PlayerState p2 = state(game.player2Id(), entry.getKey());
+                Glicko2Calculator.PlayerRating r1 = before.computeIfAbsent(p1, RatingReplayEngine::toPlayerRating);
+                Glicko2Calculator.PlayerRating r2 = before.computeIfAbsent(p2, RatingReplayEngine::toPlayerRating);
+                outcomes.computeIfAbsent(p1, p -> new ArrayList<>())
+                        .add(new Glicko2Calculator.Outcome(r2.rating(), r2.deviation(), game.player1Score()));
+                outcomes.computeIfAbsent(p2, p -> new ArrayList<>())
+                        .add(new Glicko2Calculator.Outcome(r1.rating(), r1.deviation(), 1.0 - game.player1Score()));
+            }
+
+            // Each player only writes their own state, so players can be rated in parallel
+            LocalDateTime periodEnd = entry.getValue().get(entry.getValue().size() - 1).finishedAt();
+            List<HistoryPoint> points = pool.submit(() -> outcomes.entrySet().parallelStream().map(e -> {
+                PlayerState player = e.getKey();
+                Glicko2Calculator.PlayerRating result = calculator.rate(before.get(player), e.getValue());
+                HistoryPoint point = player.changeRating(
+                        Math.max(RatingService.MIN_RATING, (int) Math.round(result.rating())), null, periodEnd);
+                player.deviation = Math.min(Glicko2Calculator.DEFAULT_DEVIATION, result.deviation());
+                player.volatility = result.volatility();
+                for (Glicko2Calculator.Outcome outcome : e.getValue()) {
+                    player.recordResult(outcome.score());
+                }
+                return point;
+            }).toList()).join();
+
+            history.addAll(points);
+            dirty.addAll(outcomes.keySet());
+        }
+
+        lastApplied = openPeriod.get(openPeriod.size() - 1);
+        gamesApplied += openPeriod.size();
+        openPeriod.clear();
+    }
+
+    private PlayerState state(long userId, GameType gameType) {
+        return states.computeIfAbsent(gameType, t -> new HashMap<>())
+                .computeIfAbsent(userId, id -> new PlayerState(id, gameType, initialRatings.of(id, gameType)));
+    }
+
+    private static Glicko2Calculator.PlayerRating toPlayerRating(PlayerState state) {
+        return new Glicko2Calculator.PlayerRating(
+                state.rating,
+                state.deviation != null ? state.deviation : Glicko2Calculator.DEFAULT_DEVIATION,
+                state.volatility != null ? state.volatility : Glicko2Calculator.DEFAULT_VOLATILITY);
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.IndiChessBackend.service;
 
 import com.example.IndiChessBackend.model.*;
+import com.example.IndiChessBackend.repo.RatingHistoryRepo;
+import com.example.IndiChessBackend.repo.RatingRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.*;
+
 /**
- * Service for calculating and updating player ratings using ELO system
+ * Service for calculating and updating player ratings.
+ * Uses the ELO system by default; with rating.system=glicko2 games are queued
+ * for Glicko2RatingJob and ratings change when the rating period closes.
  */
 @Service
 @RequiredArgsConstructor
@@ -18,13 +26,25 @@ public class RatingService {
     private static final Logger logger = LoggerFactory.getLogger(RatingService.class);
     
     private final UserRepo userRepo;
+    private final RatingRepo ratingRepo;
+    private final RatingHistoryRepo ratingHistoryRepo;
+    private final LeaderboardService leaderboardService;
+    private final Glicko2RatingJob glicko2RatingJob;
+    
+    // elo | glicko2
+    @Value("${rating.system:elo}")
+    private String ratingSystem;
     
     // ELO rating constants
-    private static final int DEFAULT_RATING = 1200;
+    private static final int DEFAULT_RATING = LeaderboardService.DEFAULT_RATING;
+    static final int MIN_RATING = 100;
     private static final int K_FACTOR = 32; // Standard K-factor for ratings under 2400
     
     /**
-     * Update ratings for both players after a game
+     * Update ratings for both players after a game.
+     * Ratings and W/L/D counters are kept per GameType in user_ratings; both rows are loaded
+     * with one query and written back in the same transaction, together with one rating_history
+     * point per player and the running highest/lowest. users.rating mirrors STANDARD.
      * @param match The completed match
      */
     @Transactional
@@ -33,17 +53,7 @@ public class RatingService {
             User player1 = match.getPlayer1();
             User player2 = match.getPlayer2();
             MatchStatus status = match.getStatus();
-            
-            // Get current ratings (default if not set)
-            int rating1 = player1.getRating() != null ? player1.getRating() : DEFAULT_RATING;
-            int rating2 = player2.getRating() != null ? player2.getRating() : DEFAULT_RATING;
-            
-            logger.info("📊 Calculating rating changes for match {} - {} ({}) vs {} ({})", 
-                       match.getId(), player1.getUsername(), rating1, player2.getUsername(), rating2);
-            
-            // Calculate expected scores
-            double expectedScore1 = calculateExpectedScore(rating1, rating2);
-            double expectedScore2 = calculateExpectedScore(rating2, rating1);
+            GameType gameType = match.getGameType() != null ? match.getGameType() : GameType.STANDARD;
             
             // Determine actual scores based on match result
             double actualScore1;
@@ -63,6 +73,31 @@ public class RatingService {
                 return;
             }
             
+            // Load (or create) both players' ratings for this game type
+            Map<Long, Rating> ratings = loadRatings(player1, player2, gameType);
+            Rating playerRating1 = ratings.get(player1.getUserId());
+            Rating playerRating2 = ratings.get(player2.getUserId());
+            
+            if (isGlicko2()) {
+                // Counters change now; the rating itself changes when the period closes
+                applyCounters(playerRating1, actualScore1);
+                applyCounters(playerRating2, actualScore2);
+                ratingRepo.saveAll(List.of(playerRating1, playerRating2));
+                glicko2RatingJob.recordGame(player1.getUserId(), player2.getUserId(), gameType, actualScore1);
+                logger.info("🕒 Match {} queued for the current {} Glicko-2 rating period", match.getId(), gameType);
+                return;
+            }
+            
+            int rating1 = playerRating1.getRating();
+            int rating2 = playerRating2.getRating();
+            
+            logger.info("📊 Calculating {} rating changes for match {} - {} ({}) vs {} ({})", 
+                       gameType, match.getId(), player1.getUsername(), rating1, player2.getUsername(), rating2);
+            
+            // Calculate expected scores
+            double expectedScore1 = calculateExpectedScore(rating1, rating2);
+            double expectedScore2 = calculateExpectedScore(rating2, rating1);
+            
             // Calculate rating changes
             int ratingChange1 = calculateRatingChange(expectedScore1, actualScore1);
             int ratingChange2 = calculateRatingChange(expectedScore2, actualScore2);
@@ -72,15 +107,26 @@ public class RatingService {
             int newRating2 = rating2 + ratingChange2;
             
             // Ensure ratings don't go below minimum
-            newRating1 = Math.max(100, newRating1);
-            newRating2 = Math.max(100, newRating2);
+            newRating1 = Math.max(MIN_RATING, newRating1);
+            newRating2 = Math.max(MIN_RATING, newRating2);
             
-            // Update user ratings
-            player1.setRating(newRating1);
-            player2.setRating(newRating2);
+            LocalDateTime now = LocalDateTime.now();
+            RatingHistory point1 = recordRating(playerRating1, player1.getUserId(), newRating1, match.getId(), now);
+            RatingHistory point2 = recordRating(playerRating2, player2.getUserId(), newRating2, match.getId(), now);
+            applyCounters(playerRating1, actualScore1);
+            applyCounters(playerRating2, actualScore2);
+            ratingRepo.saveAll(List.of(playerRating1, playerRating2));
+            ratingHistoryRepo.saveAll(List.of(point1, point2));
             
-            userRepo.save(player1);
-            userRepo.save(player2);
+            // users.rating is the headline rating older clients read: keep it equal to STANDARD
+            if (gameType == GameType.STANDARD) {
+                player1.setRating(newRating1);
+                player2.setRating(newRating2);
+                userRepo.saveAll(List.of(player1, player2));
+            }
+            
+            leaderboardService.onRatingChanged(gameType, player1.getUsername(), newRating1, player1.getCountry());
+            leaderboardService.onRatingChanged(gameType, player2.getUsername(), newRating2, player2.getCountry());
             
             logger.info("✅ Ratings updated:");
             logger.info("   {}: {} → {} ({}{}) ", 
@@ -96,11 +142,80 @@ public class RatingService {
         }
     }
     
+    /**
+     * Load both players' rating rows for a game type, locked, creating any that don't exist yet.
+     * A new STANDARD row starts from the legacy users.rating so existing players keep their rating.
+     */
+    private Map<Long, Rating> loadRatings(User player1, User player2, GameType gameType) {
+        List<User> players = List.of(player1, player2);
+        Map<Long, Rating> ratings = lockRatings(players, gameType);
+        if (ratings.size() < players.size()) {
+            // Insert-if-absent, then lock: two first games of the same player both end up on one row
+            for (User player : players) {
+                if (!ratings.containsKey(player.getUserId())) {
+                    ratingRepo.insertIfAbsent(player.getUserId(), gameType.name(),
+                            initialRating(player.getRating(), gameType));
+                }
+            }
+            ratings = lockRatings(players, gameType);
+        }
+        return ratings;
+    }
+    
+    private Map<Long, Rating> lockRatings(List<User> players, GameType gameType) {
+        Map<Long, Rating> ratings = new HashMap<>();
+        for (Rating rating : ratingRepo.findByUserInAndGameType(players, gameType)) {
+            ratings.put(rating.getUser().getUserId(), rating);
+        }
+        return ratings;
+    }
+    
+    /**
+     * Rating a player's first row of a game type starts from: STANDARD continues the legacy
+     * users.rating (250 for sign-ups), other types start at the default. Replays seed the same way.
+     */
+    static int initialRating(Integer usersRating, GameType gameType) {
+        return gameType == GameType.STANDARD && usersRating != null ? usersRating : DEFAULT_RATING;
+    }
+    
+    /**
+     * Set a new rating, fold it into the running highest/lowest and return the history point to append.
+     * Rows from before the history existed start their extremes at the rating they had.
+     */
+    static RatingHistory recordRating(Rating row, Long userId, int newRating, Long matchId, LocalDateTime at) {
+        int previous = row.getRating();
+        int highest = row.getHighestRating() != null ? row.getHighestRating() : previous;
+        int lowest = row.getLowestRating() != null ? row.getLowestRating() : previous;
+        int seq = (row.getHistoryPoints() != null ? row.getHistoryPoints() : 0) + 1;
+        
+        row.setRating(newRating);
+        row.setHighestRating(Math.max(highest, newRating));
+        row.setLowestRating(Math.min(lowest, newRating));
+        row.setHistoryPoints(seq);
+        return new RatingHistory(userId, row.getGameType(), seq, newRating, matchId, at);
+    }
+    
+    private void applyCounters(Rating rating, double actualScore) {
+        rating.setGamesPlayed(rating.getGamesPlayed() + 1);
+        if (actualScore == 1.0) {
+            rating.setWins(rating.getWins() + 1);
+        } else if (actualScore == 0.0) {
+            rating.setLosses(rating.getLosses() + 1);
+        } else {
+            rating.setDraws(rating.getDraws() + 1);
+        }
+        rating.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    private boolean isGlicko2() {
+        return "glicko2".equalsIgnoreCase(ratingSystem);
+    }
+    
     /**
      * Calculate expected score using ELO formula
      * Expected score = 1 / (1 + 10^((opponent_rating - player_rating) / 400))
      */
-    private double calculateExpectedScore(int playerRating, int opponentRating) {
+    static double calculateExpectedScore(int playerRating, int opponentRating) {
         return 1.0 / (1.0 + Math.pow(10.0, (opponentRating - playerRating) / 400.0));
     }
     
@@ -108,10 +223,18 @@ public class RatingService {
      * Calculate rating change
      * Change = K * (actual_score - expected_score)
      */
-    private int calculateRatingChange(double expectedScore, double actualScore) {
+    static int calculateRatingChange(double expectedScore, double actualScore) {
         return (int) Math.round(K_FACTOR * (actualScore - expectedScore));
     }
     
+    /**
+     * New ELO rating for one player after one game (same rules as updateRatingsAfterGame)
+     */
+    static int calculateNewRating(int playerRating, int opponentRating, double actualScore) {
+        int change = calculateRatingChange(calculateExpectedScore(playerRating, opponentRating), actualScore);
+        return Math.max(MIN_RATING, playerRating + change);
+    }
+    
     /**
      * Get player's current rating
      */
@@ -121,22 +244,72 @@ public class RatingService {
     }
     
     /**
-     * Get rating statistics for a user
+     * Get player's current rating for a game type from the in-memory cache
+     */
+    public int getPlayerRating(String username, GameType gameType) {
+        return leaderboardService.getCachedRating(username, gameType);
+    }
+    
+    /**
+     * Get STANDARD rating statistics for a user
      */
     public RatingStats getRatingStats(User user) {
-        int currentRating = getPlayerRating(user);
-        
-        // TODO: Calculate from actual game history
-        // For now, return basic stats
+        return getRatingStats(user, GameType.STANDARD);
+    }
+    
+    /**
+     * Get rating statistics for a user and game type, read from the running aggregates on the rating row
+     */
+    public RatingStats getRatingStats(User user, GameType gameType) {
         RatingStats stats = new RatingStats();
-        stats.setCurrentRating(currentRating);
-        stats.setHighestRating(currentRating); // Will be calculated from history
-        stats.setLowestRating(currentRating);  // Will be calculated from history
-        stats.setGamesPlayed(0);               // Will be calculated from matches
+        Optional<Rating> row = ratingRepo.findByUserAndGameType(user, gameType);
+        if (row.isEmpty()) {
+            int currentRating = gameType == GameType.STANDARD ? getPlayerRating(user) : DEFAULT_RATING;
+            stats.setCurrentRating(currentRating);
+            stats.setHighestRating(currentRating);
+            stats.setLowestRating(currentRating);
+            return stats;
+        }
         
+        Rating rating = row.get();
+        stats.setCurrentRating(rating.getRating());
+        stats.setHighestRating(rating.getHighestRating() != null ? rating.getHighestRating() : rating.getRating());
+        stats.setLowestRating(rating.getLowestRating() != null ? rating.getLowestRating() : rating.getRating());
+        stats.setGamesPlayed(rating.getGamesPlayed());
+        stats.setWins(rating.getWins());
+        stats.setLosses(rating.getLosses());
+        stats.setDraws(rating.getDraws());
         return stats;
     }
     
+    /**
+     * Rating-over-time series with at most maxPoints points, evenly spaced over the player's
+     * history and always ending with the latest rating. Only the sampled rows are read.
+     */
+    public List<RatingHistory> getRatingHistory(User user, GameType gameType, int maxPoints) {
+        Optional<Rating> row = ratingRepo.findByUserAndGameType(user, gameType);
+        int total = row.map(Rating::getHistoryPoints).orElse(0);
+        if (total == 0) {
+            return List.of();
+        }
+        
+        List<Integer> seqs = sampleSeqs(total, Math.max(2, maxPoints));
+        return ratingHistoryRepo.findByUserIdAndGameTypeAndSeqInOrderBySeqAsc(user.getUserId(), gameType, seqs);
+    }
+    
+    /**
+     * Seq numbers 1..total thinned to at most maxPoints with a fixed stride, keeping the last one
+     */
+    static List<Integer> sampleSeqs(int total, int maxPoints) {
+        int stride = (total + maxPoints - 2) / (maxPoints - 1);
+        List<Integer> seqs = new ArrayList<>();
+        for (int seq = 1; seq < total; seq += Math.max(1, stride)) {
+            seqs.add(seq);
+        }
+        seqs.add(total);
+        return seqs;
+    }
+    
     /**
      * Inner class for rating statistics
      */
@@ -145,6 +318,9 @@ public class RatingService {
         private int highestRating;
         private int lowestRating;
         private int gamesPlayed;
+        private int wins;
+        private int losses;
+        private int draws;
         
         public int getCurrentRating() { return currentRating; }
         public void setCurrentRating(int currentRating) { this.currentRating = currentRating; }
@@ -157,5 +333,14 @@ public class RatingService {
         
         public int getGamesPlayed() { return gamesPlayed; }
         public void setGamesPlayed(int gamesPlayed) { this.gamesPlayed = gamesPlayed; }
+        
+        public int getWins() { return wins; }
+        public void setWins(int wins) { this.wins = wins; }
+        
+        public int getLosses() { return losses; }
+        public void setLosses(int losses) { this.losses = losses; }
+        
+        public int getDraws() { return draws; }
+        public void setDraws(int draws) { this.draws = draws; }
     }
 }
@@ -0,0 +1,319 @@
+package com.example.IndiChessBackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spectator fan-out for /topic/spectate/{matchId}, kept apart from the players' topics.
+ *
+ * Subscriptions to that prefix are tracked here (see SpectatorInterceptor) rather than left to
+ * the broker. A published frame is encoded once on a low-priority fan-out thread and offered
+ * to each viewer's bounded SpectatorQueue, which conflates to the latest position when the
+ * viewer falls behind. Viewers have at most one frame in the client outbound channel at a
+ * time, and all viewers together at most spectator.max-in-flight, so player frames never queue
+ * behind more than that many spectator frames however many people are watching. A frame
+ * counts as delivered once the outbound channel has handed it to the WebSocket session (this
+ * class is registered on that channel as an ExecutorChannelInterceptor).
+ *
+ * With the external broker relay (websocket.broker=relay) viewers of one game may be on any
+ * node, so the encoded frame is published once to RELAY_DESTINATION on the broker and every
+ * node queues it for its own viewers from a system subscription (handleRelayedFrame). That is
+ * one topic for all games, since Spring matches system subscriptions by exact destination;
+ * nodes skip frames for games nobody there is watching.
+ */
+@Service
+public class SpectatorHub implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpectatorHub.class);
+
+    public static final String DESTINATION_PREFIX = "/topic/spectate/";
+
+    /**
+     * Broker topic relayed frames are published on
+     */
+    public static final String RELAY_DESTINATION = "/topic/spectate-relay";
+
+    private static final String VIEWER_HEADER = "spectatorViewer";
+    private static final String MATCH_HEADER = "spectator-match";
+    private static final String POSITION_HEADER = "spectator-position";
+
+    private final MessageChannel clientOutboundChannel;
+    private final MessageChannel brokerChannel;
+    private final boolean relayed;
+    private final JsonMapper jsonMapper;
+    private final int queueCapacity;
+    private final int maxInFlight;
+    private final ExecutorService fanOut;
+
+    private final Map<Long, Map<String, Viewer>> viewersByMatch = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Viewer>> viewersBySession = new ConcurrentHashMap<>();
+    private final Queue<Viewer> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder framesPublished = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    // Conflated frames of viewers who have left
+    private final LongAdder framesConflatedClosed = new LongAdder();
+
+    private static final class Viewer {
+        final String sessionId;
+        final String subscriptionId;
+        final long matchId;
+        final SpectatorQueue queue;
+        volatile boolean closed;
+
+        Viewer(String sessionId, String subscriptionId, long matchId, int capacity) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.matchId = matchId;
+            this.queue = new SpectatorQueue(capacity);
+        }
+    }
+
+    SpectatorHub(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                 @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                 JsonMapper jsonMapper,
+                 @Value("${websocket.broker:simple}") String broker,
+                 @Value("${spectator.queue-capacity:8}") int queueCapacity,
+                 @Value("${spectator.max-in-flight:256}") int maxInFlight,
+                 @Value("${spectator.fanout-threads:1}") int fanOutThreads) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.brokerChannel = brokerChannel;
+        this.relayed = "relay".equalsIgnoreCase(broker);
+        this.jsonMapper = jsonMapper;
+        this.queueCapacity = queueCapacity;
+        this.maxInFlight = Math.max(1, maxInFlight);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fanOut = Executors.newFixedThreadPool(Math.max(1, fanOutThreads), r -> {
+            Thread thread = new Thread(r, "spectator-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, long matchId) {
+        Viewer viewer = new Viewer(sessionId, subscriptionId, matchId, queueCapacity);
+        viewersByMatch.computeIfAbsent(matchId, id -> new ConcurrentHashMap<>())
+                .put(sessionId + "/" + subscriptionId, viewer);
+        viewersBySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, viewer);
+        logger.debug("👀 Session {} is watching game {}", sessionId, matchId);
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, Viewer> subscriptions = viewersBySession.get(sessionId);
+        Viewer viewer = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+        if (viewer != null) {
+            close(viewer);
+        }
+    }
+
+    public void disconnect(String sessionId) {
+        Map<String, Viewer> subscriptions = viewersBySession.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::close);
+        }
+    }
+
+    private void close(Viewer viewer) {
+        viewer.closed = true;
+        viewer.queue.clear();
+        framesConflatedClosed.add(viewer.queue.conflated());
+        viewersByMatch.computeIfPresent(viewer.matchId, (id, viewers) -> {
+            viewers.remove(viewer.sessionId + "/" + viewer.subscriptionId);
+            return viewers.isEmpty() ? null : viewers;
+        });
+    }
+
+    public int getViewerCount(long matchId) {
+        Map<String, Viewer> viewers = viewersByMatch.get(matchId);
+        return viewers != null ? viewers.size() : 0;
+    }
+
+    /**
+     * A frame that carries the whole position (a MoveDTO with its board); may be conflated
+     */
+    public void publishPosition(long matchId, Object payload) {
+        publish(matchId, payload, true);
+    }
+
+    /**
+     * A game-state change (resignation, draw); kept even when the viewer is behind
+     */
+    public void publishState(long matchId, Object payload) {
+        publish(matchId, payload, false);
+    }
+
+    private void publish(long matchId, Object payload, boolean position) {
+        if (relayed) {
+            // Viewers elsewhere are not known here; the broker drops frames nobody subscribes to
+            fanOut.execute(() -> {
+                brokerChannel.send(toRelayMessage(matchId, jsonMapper.writeValueAsBytes(payload), position));
+                framesPublished.increment();
+            });
+            return;
+        }
+        if (getViewerCount(matchId) == 0) {
+            return;
+        }
+        fanOut.execute(() -> {
+            framesPublished.increment();
+            deliver(matchId, new SpectatorQueue.Frame(jsonMapper.writeValueAsBytes(payload), position));
+        });
+    }
+
+    /**
+     * System subscription handler for RELAY_DESTINATION: queues frames for this node's viewers
+     */
+    public void handleRelayedFrame(Message<?> message) {
+        String match = SimpMessageHeaderAccessor.getFirstNativeHeader(MATCH_HEADER, message.getHeaders());
+        if (match == null || !(message.getPayload() instanceof byte[] payload)) {
+            return;
+        }
+        long matchId;
+        try {
+            matchId = Long.parseLong(match);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (getViewerCount(matchId) == 0) {
+            return;
+        }
+        boolean position = "true".equals(
+                SimpMessageHeaderAccessor.getFirstNativeHeader(POSITION_HEADER, message.getHeaders()));
+        fanOut.execute(() -> deliver(matchId, new SpectatorQueue.Frame(payload, position)));
+    }
+
+    // On the fan-out thread
+    private void deliver(long matchId, SpectatorQueue.Frame frame) {
+        Map<String, Viewer> viewers = viewersByMatch.get(matchId);
+        if (viewers == null) {
+            return;
+        }
+        for (Viewer viewer : viewers.values()) {
+            if (viewer.queue.offer(frame)) {
+                ready.add(viewer);
+            }
+        }
+        pump();
+    }
+
+    // Move frames from ready viewers into the outbound channel while under the in-flight limit
+    private void pump() {
+        while (!ready.isEmpty()) {
+            if (!tryAcquire()) {
+                return;
+            }
+            Viewer viewer = ready.poll();
+            SpectatorQueue.Frame frame = viewer != null ? viewer.queue.poll() : null;
+            if (frame == null || viewer.closed) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            try {
+                clientOutboundChannel.send(toMessage(viewer, frame));
+                framesSent.increment();
+            } catch (RuntimeException e) {
+                logger.debug("Dropping spectator session {}: {}", viewer.sessionId, e.getMessage());
+                inFlight.decrementAndGet();
+                close(viewer);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private Message<byte[]> toMessage(Viewer viewer, SpectatorQueue.Frame frame) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(viewer.sessionId);
+        headers.setSubscriptionId(viewer.subscriptionId);
+        headers.setDestination(DESTINATION_PREFIX + viewer.matchId);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setHeader(VIEWER_HEADER, viewer);
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage(frame.payload(), headers.getMessageHeaders());
+    }
+
+    private Message<byte[]> toRelayMessage(long matchId, byte[] payload, boolean position) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(RELAY_DESTINATION);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setNativeHeader(MATCH_HEADER, Long.toString(matchId));
+        headers.setNativeHeader(POSITION_HEADER, Boolean.toString(position));
+        return MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+    }
+
+    // The outbound channel is done with one of our frames: free its slot and send that viewer's next
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (!(message.getHeaders().get(VIEWER_HEADER) instanceof Viewer viewer)) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        ready.add(viewer);
+        pump();
+    }
+
+    /**
+     * Viewers, frames and conflation totals, plus the most watched games
+     */
+    public Map<String, Object> getStats() {
+        long conflated = framesConflatedClosed.sum();
+        int queued = 0;
+        for (Map<String, Viewer> subscriptions : viewersBySession.values()) {
+            for (Viewer viewer : subscriptions.values()) {
+                conflated += viewer.queue.conflated();
+                queued += viewer.queue.size();
+            }
+        }
+        List<Map<String, Object>> topGames = viewersByMatch.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<Long, Map<String, Viewer>> e) -> e.getValue().size()).reversed())
+                .limit(10)
+                .map(e -> Map.<String, Object>of("matchId", e.getKey(), "viewers", e.getValue().size()))
+                .toList();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("viewers", viewersBySession.values().stream().mapToInt(Map::size).sum());
+        stats.put("gamesWatched", viewersByMatch.size());
+        stats.put("framesPublished", framesPublished.sum());
+        stats.put("framesSent", framesSent.sum());
+        stats.put("framesConflated", conflated);
+        stats.put("framesQueued", queued);
+        stats.put("inFlight", inFlight.get());
+        stats.put("topGames", topGames);
+        return stats;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Frames waiting to go out to one spectator.
+ *
+ * Holds at most capacity frames. When a frame does not fit, the queue conflates: every
+ * position frame carries the full board, so queued positions older than the newest one are
+ * dropped and a slow spectator skips straight to the latest position. Game-state frames
+ * (resignation, draw) are only dropped if the queue holds nothing else.
+ *
+ * A queue is "scheduled" from the offer that makes it non-empty until a poll finds it empty;
+ * the hub keeps each scheduled queue in exactly one place (ready to send, or in flight).
+ */
+final class SpectatorQueue {
+
+    record Frame(byte[] payload, boolean position) {
+    }
+
+    private final int capacity;
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private boolean scheduled;
+    private long conflated;
+
+    SpectatorQueue(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * @return true if the queue just became scheduled and the caller has to hand it to the sender
+     */
+    synchronized boolean offer(Frame frame) {
+        if (frames.size() >= capacity) {
+            conflate(frame.position());
+        }
+        frames.addLast(frame);
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    /**
+     * Next frame to send, or null (and no longer scheduled) when there is none
+     */
+    synchronized Frame poll() {
+        Frame frame = frames.pollFirst();
+        if (frame == null) {
+            scheduled = false;
+        }
+        return frame;
+    }
+
+    synchronized void clear() {
+        frames.clear();
+    }
+
+    synchronized int size() {
+        return frames.size();
+    }
+
+    synchronized long conflated() {
+        return conflated;
+    }
+
+    // Incoming position: drop every queued position. Incoming state frame: keep the newest one.
+    private void conflate(boolean incomingPosition) {
+        Frame newestPosition = null;
+        if (!incomingPosition) {
+            for (Frame frame : frames) {
+                if (frame.position()) {
+                    newestPosition = frame;
+                }
+            }
+        }
+        Iterator<Frame> it = frames.iterator();
+        while (it.hasNext()) {
+            Frame frame = it.next();
+            if (frame.position() && frame != newestPosition) {
+                it.remove();
+                conflated++;
+            }
+        }
+        while (frames.size() >= capacity) {
+            frames.pollFirst();
+            conflated++;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.PieceColor;
+
+import java.util.*;
+
+/**
+ * Pairing rules for tournaments; pure functions over the players' standings.
+ *
+ * Swiss (Dutch-style): players are ranked by points then rating and paired score group by
+ * score group, top half against bottom half. A player who cannot be paired in their group
+ * without a rematch floats down to the next one. Players who are still unpaired at the
+ * bottom are fixed by swapping with an existing board. A rematch is only allowed if no swap
+ * works either. With an odd number of players the lowest-ranked player without a bye sits
+ * out. Each board costs O(1) unless its natural opponent is taken or already played, so a
+ * 5,000-player round takes milliseconds.
+ *
+ * Arena: players waiting for a game are paired with their rating-rank neighbour, skipping
+ * their previous opponent when anyone else is available.
+ *
+ * Colours go to whoever has had fewer whites, then to whoever had black last time, then
+ * alternate by board.
+ */
+public final class TournamentPairing {
+
+    /**
+     * A player's standing; colorBalance is white games minus black games
+     */
+    public record Entrant(long playerId, int points, int rating, int colorBalance, PieceColor lastColor,
+                          boolean hadBye, Long lastOpponentId) {
+    }
+
+    public record Board(long whiteId, long blackId) {
+    }
+
+    /**
+     * @param repeats boards that are rematches (0 unless the pool is too small to avoid them)
+     */
+    public record SwissRound(List<Board> boards, Long byePlayerId, int repeats) {
+    }
+
+    private static final Comparator<Entrant> BY_RANK = Comparator
+            .comparingInt(Entrant::points).reversed()
+            .thenComparing(Comparator.comparingInt(Entrant::rating).reversed())
+            .thenComparingLong(Entrant::playerId);
+
+    // Opponents due the same colour skipped before settling for one of them
+    private static final int COLOUR_LOOKAHEAD = 8;
+
+    private TournamentPairing() {
+    }
+
+    /**
+     * Key for an unordered pair of player ids, for the set of games already played
+     */
+    public static long pairKey(long a, long b) {
+        return (Math.min(a, b) << 32) | (Math.max(a, b) & 0xFFFFFFFFL);
+    }
+
+    public static SwissRound swiss(List<Entrant> entrants, Set<Long> played) {
+        List<Entrant> ranked = new ArrayList<>(entrants);
+        ranked.sort(BY_RANK);
+
+        Long bye = null;
+        if (ranked.size() % 2 == 1) {
+            int byeIndex = ranked.size() - 1;
+            for (int i = ranked.size() - 1; i >= 0; i--) {
+                if (!ranked.get(i).hadBye()) {
+                    byeIndex = i;
+                    break;
+                }
+            }
+            bye = ranked.remove(byeIndex).playerId();
+        }
+
+        List<Entrant[]> pairs = new ArrayList<>(ranked.size() / 2);
+        List<Entrant> floaters = new ArrayList<>();
+        int start = 0;
+        while (start < ranked.size()) {
+            int end = start;
+            int points = ranked.get(start).points();
+            while (end < ranked.size() && ranked.get(end).points() == points) {
+                end++;
+            }
+            List<Entrant> bracket = new ArrayList<>(floaters.size() + end - start);
+            bracket.addAll(floaters);
+            bracket.addAll(ranked.subList(start, end));
+            floaters = pairBracket(bracket, played, pairs);
+            start = end;
+        }
+
+        int repeats = repairBottom(floaters, played, pairs);
+
+        List<Board> boards = new ArrayList<>(pairs.size());
+        for (Entrant[] pair : pairs) {
+            boards.add(board(pair[0], pair[1], boards.size()));
+        }
+        return new SwissRound(boards, bye, repeats);
+    }
+
+    public static List<Board> arena(List<Entrant> waiting) {
+        List<Entrant> ranked = new ArrayList<>(waiting);
+        ranked.sort(BY_RANK);
+
+        List<Board> boards = new ArrayList<>(ranked.size() / 2);
+        int i = 0;
+        while (i + 1 < ranked.size()) {
+            Entrant player = ranked.get(i);
+            if (isRematch(player, ranked.get(i + 1)) && i + 2 < ranked.size()) {
+                Collections.swap(ranked, i + 1, i + 2);
+            }
+            Entrant opponent = ranked.get(i + 1);
+            if (isRematch(player, opponent)) {
+                i++; // nobody else to play right now; waits for the next pairing
+                continue;
+            }
+            boards.add(board(player, opponent, boards.size()));
+            i += 2;
+        }
+        return boards;
+    }
+
+    // Top half against bottom half; returns the players who float down to the next group
+    private static List<Entrant> pairBracket(List<Entrant> bracket, Set<Long> played, List<Entrant[]> pairs) {
+        int n = bracket.size();
+        int half = n / 2;
+        boolean[] used = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (used[i]) {
+                continue;
+            }
+            int partner = findPartner(bracket, i, half, used, played);
+            if (partner >= 0) {
+                used[i] = true;
+                used[partner] = true;
+                pairs.add(new Entrant[]{bracket.get(i), bracket.get(partner)});
+            }
+        }
+
+        List<Entrant> floaters = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!used[i]) {
+                floaters.add(bracket.get(i));
+            }
+        }
+        return floaters;
+    }
+
+    // Natural opponent first (same position in the bottom half), then the rest of the bottom
+    // half, then the rest of the top half. The first pass skips opponents who are due the same
+    // colour, looking a few boards ahead at most; the second takes anyone not played yet.
+    private static int findPartner(List<Entrant> bracket, int i, int half, boolean[] used, Set<Long> played) {
+        for (int lookahead : new int[]{COLOUR_LOOKAHEAD, Integer.MAX_VALUE}) {
+            boolean colours = lookahead != Integer.MAX_VALUE;
+            int[] budget = {lookahead};
+            int n = bracket.size();
+            int partner = i >= half
+                    ? firstFree(bracket, i, i + 1, n, used, played, colours, budget)
+                    : firstFree(bracket, i, half + i, n, used, played, colours, budget);
+            if (partner < 0 && i < half) {
+                partner = firstFree(bracket, i, half, half + i, used, played, colours, budget);
+            }
+            if (partner < 0 && i < half) {
+                partner = firstFree(bracket, i, i + 1, half, used, played, colours, budget);
+            }
+            if (partner >= 0) {
+                return partner;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstFree(List<Entrant> bracket, int i, int from, int to, boolean[] used, Set<Long> played,
+                                 boolean colours, int[] budget) {
+        Entrant player = bracket.get(i);
+        for (int j = from; j < to && budget[0] > 0; j++) {
+            if (used[j] || played.contains(pairKey(player.playerId(), bracket.get(j).playerId()))) {
+                continue;
+            }
+            if (!colours || colourPreference(player) == 0 || colourPreference(player) != colourPreference(bracket.get(j))) {
+                return j;
+            }
+            budget[0]--;
+        }
+        return -1;
+    }
+
+    // +1 due white, -1 due black, 0 no preference
+    private static int colourPreference(Entrant entrant) {
+        if (entrant.colorBalance() != 0) {
+            return entrant.colorBalance() < 0 ? 1 : -1;
+        }
+        return 0;
+    }
+
+    // Players nobody below could take: swap them into an existing board, lowest boards first
+    private static int repairBottom(List<Entrant> leftovers, Set<Long> played, List<Entrant[]> pairs) {
+        int repeats = 0;
+        for (int k = 0; k + 1 < leftovers.size(); k += 2) {
+            Entrant x = leftovers.get(k);
+            Entrant y = leftovers.get(k + 1);
+            if (!played.contains(pairKey(x.playerId(), y.playerId()))) {
+                pairs.add(new Entrant[]{x, y});
+                continue;
+            }
+            boolean swapped = false;
+            for (int b = pairs.size() - 1; b >= 0 && !swapped; b--) {
+                Entrant a = pairs.get(b)[0];
+                Entrant c = pairs.get(b)[1];
+                if (fresh(x, a, played) && fresh(y, c, played)) {
+                    pairs.set(b, new Entrant[]{a, x});
+                    pairs.add(new Entrant[]{c, y});
+                    swapped = true;
+                } else if (fresh(x, c, played) && fresh(y, a, played)) {
+                    pairs.set(b, new Entrant[]{a, y});
+                    pairs.add(new Entrant[]{c, x});
+                    swapped = true;
+                }
+            }
+            if (!swapped) {
+                pairs.add(new Entrant[]{x, y});
+                repeats++;
+            }
+        }
+        return repeats;
+    }
+
+    private static boolean fresh(Entrant a, Entrant b, Set<Long> played) {
+        return !played.contains(pairKey(a.playerId(), b.playerId()));
+    }
+
+    private static boolean isRematch(Entrant a, Entrant b) {
+        return Objects.equals(a.lastOpponentId(), b.playerId()) || Objects.equals(b.lastOpponentId(), a.playerId());
+    }
+
+    private static Board board(Entrant a, Entrant b, int boardIndex) {
+        Entrant higher = BY_RANK.compare(a, b) <= 0 ? a : b;
+        Entrant lower = higher == a ? b : a;
+        boolean higherWhite;
+        if (higher.colorBalance() != lower.colorBalance()) {
+            higherWhite = higher.colorBalance() < lower.colorBalance();
+        } else if (higher.lastColor() != null && lower.lastColor() != null && higher.lastColor() != lower.lastColor()) {
+            higherWhite = higher.lastColor() == PieceColor.BLACK;
+        } else {
+            higherWhite = boardIndex % 2 == 0;
+        }
+        return higherWhite
+                ? new Board(higher.playerId(), lower.playerId())
+                : new Board(lower.playerId(), higher.playerId());
+    }
+}
@@ -0,0 +1,501 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.*;
+import com.example.IndiChessBackend.model.DTO.TournamentPairingView;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.TournamentPlayerRepo;
+import com.example.IndiChessBackend.repo.TournamentRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS;
+
+/**
+ * Swiss and Arena tournaments on top of regular matches.
+ *
+ * Swiss: the organizer starts the event, every round is paired at once by TournamentPairing
+ * and its matches are inserted in one transaction; the next round is paired when the last
+ * game of the current one finishes.
+ *
+ * Arena: players go back into the tournament's waiting set whenever their game ends, and a
+ * scheduled job (tournament.arena.pair-ms) pairs everyone waiting in one batch until the
+ * arena's time is up. The waiting sets live in memory; after a restart players re-join.
+ *
+ * Games are played like any other match (tournamentId/tournamentRound are set on the row);
+ * GameService reports finished games here. Wins are worth 2 points, draws and byes 1 and 2.
+ * A Swiss round game nobody has moved in for tournament.swiss.move-timeout-minutes is forfeited
+ * by the player to move, so a no-show or an abandoned game cannot hold the round open.
+ */
+@Service
+@RequiredArgsConstructor
+public class TournamentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TournamentService.class);
+
+    private static final int MAX_ROUNDS = 20;
+    private static final int MAX_ARENA_MINUTES = 24 * 60;
+
+    private final TournamentRepo tournamentRepo;
+    private final TournamentPlayerRepo tournamentPlayerRepo;
+    private final MatchRepo matchRepo;
+    private final UserRepo userRepo;
+    private final LeaderboardService leaderboardService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Swiss: a round game without a move for this long is lost by the player to move
+    @Value("${tournament.swiss.move-timeout-minutes:30}")
+    private long moveTimeoutMinutes;
+
+    // Arena: user ids waiting for their next game, per tournament
+    private final Map<Long, Set<Long>> arenaWaiting = new ConcurrentHashMap<>();
+
+    // One pairing at a time per tournament (round completion can race with itself)
+    private final Map<Long, Object> pairingLocks = new ConcurrentHashMap<>();
+
+    private record CreatedGame(Long matchId, Long whiteId, String white, Long blackId, String black,
+                               int whiteRating, int blackRating) {
+    }
+
+    public Tournament create(String name, TournamentFormat format, GameType gameType,
+                             Integer rounds, Integer durationMinutes, String organizer) {
+        if (name == null || name.isBlank() || name.length() > 100) {
+            throw new IllegalArgumentException("Name is required (at most 100 characters)");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Format is required");
+        }
+        Tournament tournament = new Tournament(name.trim(), format, gameType != null ? gameType : GameType.BLITZ, organizer);
+        if (format == TournamentFormat.SWISS) {
+            if (rounds == null || rounds < 1 || rounds > MAX_ROUNDS) {
+                throw new IllegalArgumentException("Swiss tournaments need 1 to " + MAX_ROUNDS + " rounds");
+            }
+            tournament.setTotalRounds(rounds);
+        } else {
+            if (durationMinutes == null || durationMinutes < 1 || durationMinutes > MAX_ARENA_MINUTES) {
+                throw new IllegalArgumentException("Arena tournaments need a duration of 1 to " + MAX_ARENA_MINUTES + " minutes");
+            }
+            tournament.setDurationMinutes(durationMinutes);
+        }
+        tournament = tournamentRepo.save(tournament);
+        logger.info("🏆 {} tournament {} '{}' created by {}", format, tournament.getId(), tournament.getName(), organizer);
+        return tournament;
+    }
+
+    public Optional<Tournament> getTournament(Long tournamentId) {
+        return tournamentRepo.findById(tournamentId);
+    }
+
+    public List<Tournament> getOpenTournaments() {
+        return tournamentRepo.findByStatusInOrderByCreatedAtDesc(List.of(TournamentStatus.CREATED, TournamentStatus.RUNNING));
+    }
+
+    public List<TournamentPlayer> getStandings(Long tournamentId) {
+        return tournamentPlayerRepo.findStandings(tournamentId);
+    }
+
+    /**
+     * Register (or re-register after withdrawing). Swiss events close at the start, arenas stay open.
+     */
+    public TournamentPlayer join(Long tournamentId, String username) {
+        Tournament tournament = require(tournamentId);
+        User user = userRepo.getUserByUsername(username);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+        boolean open = tournament.getStatus() == TournamentStatus.CREATED
+                || (tournament.getStatus() == TournamentStatus.RUNNING && tournament.getFormat() == TournamentFormat.ARENA);
+        if (!open) {
+            throw new IllegalStateException("Registration is closed");
+        }
+
+        Optional<TournamentPlayer> existing = tournamentPlayerRepo.findByTournamentIdAndUserUserId(tournamentId, user.getUserId());
+        TournamentPlayer player;
+        if (existing.isPresent()) {
+            // Only the flag: saving the whole row could write back points from before a game just scored
+            player = existing.get();
+            player.setWithdrawn(false);
+            transactionTemplate.executeWithoutResult(status -> tournamentPlayerRepo.setWithdrawn(existing.get().getId(), false));
+        } else {
+            player = tournamentPlayerRepo.save(new TournamentPlayer(tournamentId, user,
+                    leaderboardService.getCachedRating(username, tournament.getGameType())));
+        }
+
+        if (tournament.getStatus() == TournamentStatus.RUNNING) {
+            arenaWaiting.computeIfAbsent(tournamentId, id -> ConcurrentHashMap.newKeySet()).add(user.getUserId());
+        }
+        return player;
+    }
+
+    public boolean withdraw(Long tournamentId, String username) {
+        User user = userRepo.getUserByUsername(username);
+        if (user == null) {
+            return false;
+        }
+        Optional<TournamentPlayer> player = tournamentPlayerRepo.findByTournamentIdAndUserUserId(tournamentId, user.getUserId());
+        if (player.isEmpty() || player.get().isWithdrawn()) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> tournamentPlayerRepo.setWithdrawn(player.get().getId(), true));
+        Set<Long> waiting = arenaWaiting.get(tournamentId);
+        if (waiting != null) {
+            waiting.remove(user.getUserId());
+        }
+        return true;
+    }
+
+    /**
+     * Organizer only: close registration and pair the first round (Swiss) or everyone (Arena)
+     */
+    public Tournament start(Long tournamentId, String username) {
+        Tournament tournament = require(tournamentId);
+        if (!tournament.getCreatedBy().equals(username)) {
+            throw new SecurityException("Only the organizer can start the tournament");
+        }
+        synchronized (lock(tournamentId)) {
+            tournament = require(tournamentId);
+            if (tournament.getStatus() != TournamentStatus.CREATED) {
+                throw new IllegalStateException("Tournament already started");
+            }
+            List<TournamentPlayer> players = tournamentPlayerRepo.findActiveWithUser(tournamentId);
+            if (players.size() < 2) {
+                throw new IllegalStateException("At least 2 players are needed");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            tournament.setStatus(TournamentStatus.RUNNING);
+            tournament.setStartedAt(now);
+            if (tournament.getFormat() == TournamentFormat.ARENA) {
+                tournament.setEndsAt(now.plusMinutes(tournament.getDurationMinutes()));
+            }
+            tournament = tournamentRepo.save(tournament);
+            logger.info("🏁 Tournament {} started with {} players", tournamentId, players.size());
+
+            if (tournament.getFormat() == TournamentFormat.SWISS) {
+                pairSwissRound(tournament);
+            } else {
+                Set<Long> waiting = arenaWaiting.computeIfAbsent(tournamentId, id -> ConcurrentHashMap.newKeySet());
+                players.forEach(p -> waiting.add(p.getUser().getUserId()));
+                pairArena(tournament);
+            }
+            return tournament;
+        }
+    }
+
+    /**
+     * Called by GameService when a game ends: score it and move the tournament along.
+     * The points, the round check and the next round's pairing run under the tournament's lock in
+     * one transaction, so pairing always reads (and never races) the game's result.
+     */
+    public void onMatchFinished(Match match) {
+        Long tournamentId = match.getTournamentId();
+        if (tournamentId == null) {
+            return;
+        }
+        Long player1Id = match.getPlayer1().getUserId();
+        Long player2Id = match.getPlayer2().getUserId();
+
+        synchronized (lock(tournamentId)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                switch (match.getStatus()) {
+                    case PLAYER1_WON -> tournamentPlayerRepo.addPoints(tournamentId, player1Id, 2);
+                    case PLAYER2_WON -> tournamentPlayerRepo.addPoints(tournamentId, player2Id, 2);
+                    case DRAW -> {
+                        tournamentPlayerRepo.addPoints(tournamentId, player1Id, 1);
+                        tournamentPlayerRepo.addPoints(tournamentId, player2Id, 1);
+                    }
+                    default -> {
+                    }
+                }
+
+                Tournament tournament = tournamentRepo.findById(tournamentId).orElse(null);
+                if (tournament == null || tournament.getStatus() != TournamentStatus.RUNNING) {
+                    return;
+                }
+                if (tournament.getFormat() == TournamentFormat.ARENA) {
+                    if (LocalDateTime.now().isBefore(tournament.getEndsAt())) {
+                        Set<Long> waiting = arenaWaiting.computeIfAbsent(tournamentId, id -> ConcurrentHashMap.newKeySet());
+                        waiting.add(player1Id);
+                        waiting.add(player2Id);
+                    }
+                    return;
+                }
+
+                advanceSwissRound(tournament, match.getTournamentRound());
+            });
+        }
+    }
+
+    /**
+     * Swiss: forfeit round games that have stalled, then move the tournament along
+     */
+    @Scheduled(fixedDelayString = "${tournament.swiss.stale-sweep-ms:60000}")
+    public void forfeitStaleGames() {
+        forfeitStaleGames(LocalDateTime.now().minusMinutes(moveTimeoutMinutes));
+    }
+
+    void forfeitStaleGames(LocalDateTime cutoff) {
+        for (Tournament tournament : tournamentRepo.findByFormatAndStatus(TournamentFormat.SWISS, TournamentStatus.RUNNING)) {
+            try {
+                synchronized (lock(tournament.getId())) {
+                    transactionTemplate.executeWithoutResult(status -> forfeitStaleGames(tournament.getId(), cutoff));
+                }
+            } catch (Exception e) {
+                logger.error("❌ Forfeiting stale games failed for tournament {}: {}", tournament.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Caller holds the tournament's lock and a transaction
+    private void forfeitStaleGames(Long tournamentId, LocalDateTime cutoff) {
+        Tournament tournament = tournamentRepo.findById(tournamentId).orElse(null);
+        if (tournament == null || tournament.getStatus() != TournamentStatus.RUNNING) {
+            return;
+        }
+        int round = tournament.getCurrentRound();
+        List<Match> stale = matchRepo.findStaleTournamentGames(tournamentId, round, cutoff);
+        if (stale.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Match match : stale) {
+            // Player 1 plays white, who is to move after an even number of plies (none: white never showed up)
+            boolean whiteToMove = match.getCurrentPly() == null || match.getCurrentPly() % 2 == 0;
+            MatchStatus result = whiteToMove ? MatchStatus.PLAYER2_WON : MatchStatus.PLAYER1_WON;
+            // A resignation may have got there first
+            if (matchRepo.finishIfInProgress(match.getId(), result, now) == 0) {
+                continue;
+            }
+            match.setStatus(result);
+            match.setFinishedAt(now);
+            User winner = whiteToMove ? match.getPlayer2() : match.getPlayer1();
+            tournamentPlayerRepo.addPoints(tournamentId, winner.getUserId(), 2);
+            logger.info("⏱️ Tournament {} round {}: game {} forfeited by {}", tournamentId, round, match.getId(),
+                    (whiteToMove ? match.getPlayer1() : match.getPlayer2()).getUsername());
+        }
+        advanceSwissRound(tournament, round);
+    }
+
+    // Caller holds the tournament's lock and a transaction: finish or pair once the round is complete
+    private void advanceSwissRound(Tournament tournament, Integer round) {
+        // Someone else may have finished the round already
+        if (!Objects.equals(round, tournament.getCurrentRound())
+                || matchRepo.countByTournamentIdAndTournamentRoundAndStatus(tournament.getId(),
+                        tournament.getCurrentRound(), IN_PROGRESS) > 0) {
+            return;
+        }
+        if (tournament.getCurrentRound() >= tournament.getTotalRounds()) {
+            finish(tournament);
+        } else {
+            pairSwissRound(tournament);
+        }
+    }
+
+    /**
+     * Arena: pair everyone who is waiting, and close arenas whose time is up
+     */
+    @Scheduled(fixedDelayString = "${tournament.arena.pair-ms:2000}")
+    public void pairArenas() {
+        for (Tournament tournament : tournamentRepo.findByFormatAndStatus(TournamentFormat.ARENA, TournamentStatus.RUNNING)) {
+            try {
+                synchronized (lock(tournament.getId())) {
+                    if (!LocalDateTime.now().isBefore(tournament.getEndsAt())) {
+                        arenaWaiting.remove(tournament.getId());
+                        finish(tournament);
+                    } else {
+                        pairArena(tournament);
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("❌ Arena pairing failed for tournament {}: {}", tournament.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private record SwissResult(TournamentPairing.SwissRound pairing, List<CreatedGame> games, long pairingMs) {
+    }
+
+    // Caller holds the tournament's lock; joins the caller's transaction if there is one
+    private void pairSwissRound(Tournament tournament) {
+        Long tournamentId = tournament.getId();
+        int round = tournament.getCurrentRound() + 1;
+        long start = System.currentTimeMillis();
+
+        SwissResult result = transactionTemplate.execute(status -> {
+            List<TournamentPlayer> players = tournamentPlayerRepo.findActiveWithUser(tournamentId);
+            if (players.size() < 2) {
+                return null;
+            }
+            Set<Long> played = new HashSet<>();
+            for (TournamentPairingView pairing : matchRepo.findTournamentPairings(tournamentId)) {
+                played.add(TournamentPairing.pairKey(pairing.getPlayer1Id(), pairing.getPlayer2Id()));
+            }
+
+            long pairingStart = System.currentTimeMillis();
+            TournamentPairing.SwissRound pairing = TournamentPairing.swiss(entrants(players), played);
+            long pairingMs = System.currentTimeMillis() - pairingStart;
+
+            List<CreatedGame> created = createMatches(tournament, round, pairing.boards(), players);
+            if (pairing.byePlayerId() != null) {
+                tournamentPlayerRepo.recordBye(byUserId(players).get(pairing.byePlayerId()).getId(), 2);
+            }
+            tournament.setCurrentRound(round);
+            tournamentRepo.save(tournament);
+            return new SwissResult(pairing, created, pairingMs);
+        });
+
+        if (result == null) {
+            finish(tournament);
+            return;
+        }
+        afterCommit(() -> notifyPlayers(tournament, round, result.games()));
+        TournamentPairing.SwissRound pairing = result.pairing();
+        logger.info("♟️ Tournament {} round {}: {} boards{} (pairing {} ms, total {} ms){}", tournamentId, round,
+                pairing.boards().size(), pairing.byePlayerId() != null ? " and a bye" : "",
+                result.pairingMs(), System.currentTimeMillis() - start,
+                pairing.repeats() > 0 ? ", " + pairing.repeats() + " unavoidable rematches" : "");
+    }
+
+    // Caller holds the tournament's lock
+    private void pairArena(Tournament tournament) {
+        Set<Long> waiting = arenaWaiting.get(tournament.getId());
+        if (waiting == null || waiting.size() < 2) {
+            return;
+        }
+        List<Long> userIds = new ArrayList<>(waiting);
+
+        List<CreatedGame> games = transactionTemplate.execute(status -> {
+            List<TournamentPlayer> players = tournamentPlayerRepo.findActiveWithUserByUserIds(tournament.getId(), userIds);
+            List<TournamentPairing.Board> boards = TournamentPairing.arena(entrants(players));
+            return boards.isEmpty() ? List.<CreatedGame>of() : createMatches(tournament, null, boards, players);
+        });
+        if (games == null || games.isEmpty()) {
+            return;
+        }
+
+        for (CreatedGame game : games) {
+            waiting.remove(game.whiteId());
+            waiting.remove(game.blackId());
+        }
+        notifyPlayers(tournament, null, games);
+        logger.debug("Arena {}: {} games started, {} players still waiting", tournament.getId(), games.size(), waiting.size());
+    }
+
+    // All boards in one transaction; the players' colour history is written column by column with it
+    private List<CreatedGame> createMatches(Tournament tournament, Integer round, List<TournamentPairing.Board> boards,
+                                            List<TournamentPlayer> players) {
+        Map<Long, TournamentPlayer> byUserId = byUserId(players);
+        List<Match> matches = new ArrayList<>(boards.size());
+        for (TournamentPairing.Board board : boards) {
+            TournamentPlayer white = byUserId.get(board.whiteId());
+            TournamentPlayer black = byUserId.get(board.blackId());
+            // Player 1 plays white
+            Match match = new Match(white.getUser(), black.getUser(), IN_PROGRESS, 0);
+            match.setGameType(tournament.getGameType());
+            match.setTournamentId(tournament.getId());
+            match.setTournamentRound(round);
+            matches.add(match);
+
+            tournamentPlayerRepo.recordWhiteGame(white.getId(), board.blackId());
+            tournamentPlayerRepo.recordBlackGame(black.getId(), board.whiteId());
+        }
+        matchRepo.saveAll(matches);
+
+        List<CreatedGame> games = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            TournamentPlayer white = byUserId.get(boards.get(i).whiteId());
+            TournamentPlayer black = byUserId.get(boards.get(i).blackId());
+            games.add(new CreatedGame(matches.get(i).getId(), boards.get(i).whiteId(), white.getUser().getUsername(),
+                    boards.get(i).blackId(), black.getUser().getUsername(), white.getRating(), black.getRating()));
+        }
+        return games;
+    }
+
+    private void notifyPlayers(Tournament tournament, Integer round, List<CreatedGame> games) {
+        for (CreatedGame game : games) {
+            notifyPlayer(tournament, round, game.matchId(), game.white(), "white", game.black(), game.blackRating());
+            notifyPlayer(tournament, round, game.matchId(), game.black(), "black", game.white(), game.whiteRating());
+        }
+    }
+
+    // Same push as regular matchmaking, with the tournament attached
+    private void notifyPlayer(Tournament tournament, Integer round, Long matchId, String username, String playerColor,
+                              String opponent, int opponentRating) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("matchId", matchId);
+        payload.put("gameType", tournament.getGameType());
+        payload.put("playerColor", playerColor);
+        payload.put("opponent", opponent);
+        payload.put("opponentRating", opponentRating);
+        payload.put("tournamentId", tournament.getId());
+        if (round != null) {
+            payload.put("round", round);
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(username, "/queue/match-found", payload);
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not push tournament match {} to {}: {}", matchId, username, e.getMessage());
+        }
+    }
+
+    private void finish(Tournament tournament) {
+        tournament.setStatus(TournamentStatus.FINISHED);
+        tournament.setFinishedAt(LocalDateTime.now());
+        tournamentRepo.save(tournament);
+        pairingLocks.remove(tournament.getId());
+        logger.info("🏆 Tournament {} '{}' finished", tournament.getId(), tournament.getName());
+    }
+
+    // Match pushes wait for the transaction that created the matches, if there is one
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static List<TournamentPairing.Entrant> entrants(List<TournamentPlayer> players) {
+        List<TournamentPairing.Entrant> entrants = new ArrayList<>(players.size());
+        for (TournamentPlayer p : players) {
+            entrants.add(new TournamentPairing.Entrant(p.getUser().getUserId(), p.getPoints(), p.getRating(),
+                    p.getWhiteGames() - p.getBlackGames(), p.getLastColor(), p.getByes() > 0, p.getLastOpponentId()));
+        }
+        return entrants;
+    }
+
+    private static Map<Long, TournamentPlayer> byUserId(List<TournamentPlayer> players) {
+        Map<Long, TournamentPlayer> map = new HashMap<>(players.size() * 2);
+        for (TournamentPlayer player : players) {
+            map.put(player.getUser().getUserId(), player);
+        }
+        return map;
+    }
+
+    private Tournament require(Long tournamentId) {
+        return tournamentRepo.findById(tournamentId)
+                .orElseThrow(() -> new NoSuchElementException("Tournament not found"));
+    }
+
+    private Object lock(Long tournamentId) {
+        return pairingLocks.computeIfAbsent(tournamentId, id -> new Object());
+    }
+}
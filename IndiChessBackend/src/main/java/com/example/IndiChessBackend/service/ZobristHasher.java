@@ -0,0 +1,58 @@
+package com.example.IndiChessBackend.service;
+
+/**
+ * 64-bit Zobrist hash of a board position, sent with every move so clients can detect that
+ * their board has drifted from the server's.
+ *
+ * The keys are the first 12 * 64 + 1 outputs of SplitMix64 seeded with SEED, so a client can
+ * rebuild the same table: key(piece, square) is output number pieceIndex * 64 + square, with
+ * pieces ordered as in PIECES and squares numbered row * 8 + col (row 0 is Black's back rank,
+ * as in the board arrays); the last output is XORed in when Black is to move.
+ */
+public final class ZobristHasher {
+
+    public static final long SEED = 0x1D1C_4E55_C0FF_EE42L;
+
+    // Index of each piece letter in the key table
+    public static final String PIECES = "PNBRQKpnbrqk";
+
+    private static final long[] KEYS = new long[12 * 64];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long state = SEED;
+        for (int i = 0; i < KEYS.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            KEYS[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private ZobristHasher() {
+    }
+
+    public static long hash(String[][] board, boolean whiteToMove) {
+        long hash = whiteToMove ? 0L : BLACK_TO_MOVE;
+        for (int row = 0; row < 8; row++) {
+            String[] cells = board[row];
+            for (int col = 0; col < 8; col++) {
+                String piece = cells[col];
+                if (piece != null && piece.length() == 1) {
+                    int index = PIECES.indexOf(piece.charAt(0));
+                    if (index >= 0) {
+                        hash ^= KEYS[index * 64 + row * 8 + col];
+                    }
+                }
+            }
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.IndiChessBackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BackpressureSessionDecorator
+ */
+class BackpressureSessionDecoratorTest {
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void testDropPolicyDropsOldestMessagesAndKeepsControlFrames() throws Exception {
+        BackpressureSessionDecorator session = new BackpressureSessionDecorator(
+                stalledSession(), 60_000, 250, BackpressureSessionDecorator.OverflowPolicy.DROP);
+        Thread writer = stallWriter(session);
+
+        session.sendMessage(frame("RECEIPT", 0));
+        for (int i = 1; i <= 5; i++) {
+            session.sendMessage(frame("MESSAGE", i));
+        }
+
+        // Two 100-byte frames fit: the receipt and the newest message
+        assertEquals(2, session.getBufferedFrames());
+        assertEquals(4, session.getDroppedFrames());
+
+        release.countDown();
+        writer.join(5_000);
+        assertEquals(List.of("MESSAGE 0", "RECEIPT 0", "MESSAGE 5"),
+                written.stream().map(m -> m.substring(0, m.indexOf('\n')) + " " + m.charAt(m.indexOf('\n') + 1)).toList());
+    }
+
+    @Test
+    void testDisconnectPolicyClosesSlowSession() throws Exception {
+        BackpressureSessionDecorator session = new BackpressureSessionDecorator(
+                stalledSession(), 60_000, 250, BackpressureSessionDecorator.OverflowPolicy.DISCONNECT);
+        Thread writer = stallWriter(session);
+
+        session.sendMessage(frame("MESSAGE", 1));
+        session.sendMessage(frame("MESSAGE", 2));
+        assertThrows(SessionLimitExceededException.class, () -> session.sendMessage(frame("MESSAGE", 3)));
+        assertTrue(session.isLimitExceeded());
+
+        release.countDown();
+        writer.join(5_000);
+    }
+
+    // The first frame blocks in the socket write until released, like a client on a stalled link
+    private Thread stallWriter(BackpressureSessionDecorator session) throws InterruptedException {
+        Thread writer = new Thread(() -> {
+            try {
+                session.sendMessage(frame("MESSAGE", 0));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        return writer;
+    }
+
+    private WebSocketSession stalledSession() {
+        return (WebSocketSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebSocketSession.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "sendMessage" -> {
+                        writing.countDown();
+                        release.await();
+                        written.add(((TextMessage) args[0]).getPayload());
+                        yield null;
+                    }
+                    case "getId" -> "s1";
+                    case "isOpen" -> true;
+                    case "toString" -> "StalledSession";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    // 100-byte STOMP frame
+    private static WebSocketMessage<?> frame(String command, int n) {
+        String head = command + "\n" + n + "\n\n";
+        return new TextMessage(head + "x".repeat(99 - head.length()) + "\0");
+    }
+}
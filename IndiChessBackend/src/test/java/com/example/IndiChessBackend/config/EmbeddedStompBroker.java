@@ -0,0 +1,169 @@
+package com.example.IndiChessBackend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process STOMP 1.2 broker for relay tests (not for production use).
+ *
+ * Handles CONNECT/STOMP, SUBSCRIBE, UNSUBSCRIBE, SEND and DISCONNECT without heart-beats,
+ * acks or transactions. SEND is delivered to every subscription to exactly that destination.
+ */
+class EmbeddedStompBroker implements AutoCloseable {
+
+    private record Subscription(ClientConnection connection, String id, String destination) {
+    }
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Set<ClientConnection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    EmbeddedStompBroker() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        threads.execute(this::accept);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getConnectionCount() {
+        return connections.size();
+    }
+
+    int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                ClientConnection connection = new ClientConnection(serverSocket.accept());
+                connections.add(connection);
+                threads.execute(connection::read);
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void route(StompHeaderAccessor send, byte[] payload) {
+        String destination = send.getDestination();
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.destination().equals(destination)) {
+                continue;
+            }
+            StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            Map<String, List<String>> nativeHeaders = send.toNativeHeaderMap();
+            nativeHeaders.forEach((name, values) -> {
+                if (!name.equals("receipt") && !name.equals("content-length")) {
+                    headers.setNativeHeaderValues(name, values);
+                }
+            });
+            headers.setSubscriptionId(subscription.id());
+            headers.setMessageId(String.valueOf(messageIds.incrementAndGet()));
+            headers.setDestination(destination);
+            subscription.connection().write(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.forEach(ClientConnection::close);
+        threads.shutdownNow();
+    }
+
+    private final class ClientConnection {
+
+        private final Socket socket;
+        private final StompEncoder encoder = new StompEncoder();
+
+        ClientConnection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void read() {
+            BufferingStompDecoder decoder = new BufferingStompDecoder(new StompDecoder(), 64 * 1024);
+            byte[] buffer = new byte[8192];
+            try (InputStream in = socket.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    for (Message<byte[]> frame : decoder.decode(ByteBuffer.wrap(Arrays.copyOf(buffer, read)))) {
+                        handle(frame);
+                    }
+                }
+            } catch (IOException e) {
+                // Closed
+            } finally {
+                close();
+            }
+        }
+
+        private void handle(Message<byte[]> frame) {
+            StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+            StompCommand command = headers.getCommand();
+            if (command == null) {
+                return; // heart-beat
+            }
+            switch (command) {
+                case CONNECT, STOMP -> {
+                    StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+                    connected.setVersion("1.2");
+                    connected.setHeartbeat(0, 0);
+                    write(MessageBuilder.createMessage(new byte[0], connected.getMessageHeaders()));
+                }
+                case SUBSCRIBE -> subscriptions.add(
+                        new Subscription(this, headers.getSubscriptionId(), headers.getDestination()));
+                case UNSUBSCRIBE -> subscriptions.removeIf(s -> s.connection() == this
+                        && s.id().equals(headers.getSubscriptionId()));
+                case SEND -> route(headers, frame.getPayload());
+                case DISCONNECT -> close();
+                default -> {
+                }
+            }
+            if (headers.getReceipt() != null && command != StompCommand.DISCONNECT) {
+                StompHeaderAccessor receipt = StompHeaderAccessor.create(StompCommand.RECEIPT);
+                receipt.setReceiptId(headers.getReceipt());
+                write(MessageBuilder.createMessage(new byte[0], receipt.getMessageHeaders()));
+            }
+        }
+
+        void write(Message<byte[]> message) {
+            byte[] bytes = encoder.encode(message);
+            try {
+                OutputStream out = socket.getOutputStream();
+                synchronized (this) {
+                    out.write(bytes);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            subscriptions.removeIf(s -> s.connection() == this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.IndiChessBackend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.DefaultUserDestinationResolver;
+import org.springframework.messaging.simp.user.MultiServerUserRegistry;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.simp.user.UserRegistryMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StompTcpClient: two broker relays ("nodes") sharing an embedded STOMP broker
+ */
+class StompTcpClientTest {
+
+    // As configured in WebSocketConfig
+    private static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user-destination";
+    private static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+
+    private EmbeddedStompBroker broker;
+    private final List<StompBrokerRelayMessageHandler> nodes = new ArrayList<>();
+    private final List<UserDestinationMessageHandler> userDestinationHandlers = new ArrayList<>();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    // What a relay node's user destination support is made of (see AbstractMessageBrokerConfiguration)
+    private record UserNode(ExecutorSubscribableChannel clientInbound, SimpMessagingTemplate brokerTemplate,
+                            DefaultSimpUserRegistry localUsers, MultiServerUserRegistry users,
+                            UserRegistryMessageHandler registryHandler) {
+    }
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        broker = new EmbeddedStompBroker();
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        userDestinationHandlers.forEach(UserDestinationMessageHandler::stop);
+        nodes.forEach(StompBrokerRelayMessageHandler::stop);
+        scheduler.shutdown();
+        broker.close();
+    }
+
+    @Test
+    void testTopicMessageReachesSubscriberOnAnotherNode() throws Exception {
+        StompBrokerRelayMessageHandler nodeA = startNode(new LinkedBlockingQueue<>(), Map.of());
+        BlockingQueue<Message<?>> outboundB = new LinkedBlockingQueue<>();
+        StompBrokerRelayMessageHandler nodeB = startNode(outboundB, Map.of());
+
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setAcceptVersion("1.2");
+        connect.setHeartbeat(0, 0);
+        nodeB.handleMessage(clientFrame(connect));
+        assertEquals(StompCommand.CONNECTED, nextFrame(outboundB).getCommand());
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination("/topic/moves/7");
+        subscribe.setReceipt("r1");
+        nodeB.handleMessage(clientFrame(subscribe));
+        assertEquals(StompCommand.RECEIPT, nextFrame(outboundB).getCommand());
+
+        nodeA.handleMessage(brokerMessage("/topic/moves/7", "e2e4", Map.of()));
+
+        StompHeaderAccessor message = nextFrame(outboundB);
+        assertEquals(StompCommand.MESSAGE, message.getCommand());
+        assertEquals("session-1", message.getSessionId());
+        assertEquals("sub-0", message.getSubscriptionId());
+    }
+
+    @Test
+    void testSystemSubscriptionReceivesRelayedFramesFromOtherNodes() throws Exception {
+        StompBrokerRelayMessageHandler nodeA = startNode(new LinkedBlockingQueue<>(), Map.of());
+        BlockingQueue<Message<?>> relayed = new LinkedBlockingQueue<>();
+        startNode(new LinkedBlockingQueue<>(), Map.of("/topic/spectate-relay", relayed::add));
+        await(() -> broker.getSubscriptionCount() == 1);
+
+        nodeA.handleMessage(brokerMessage("/topic/spectate-relay.other", "ignored", Map.of()));
+        nodeA.handleMessage(brokerMessage("/topic/spectate-relay", "{\"ply\":1}", Map.of("spectator-match", "42")));
+
+        Message<?> frame = relayed.poll(5, TimeUnit.SECONDS);
+        assertNotNull(frame);
+        assertEquals("/topic/spectate-relay", SimpMessageHeaderAccessor.getDestination(frame.getHeaders()));
+        assertEquals("42", SimpMessageHeaderAccessor.getFirstNativeHeader("spectator-match", frame.getHeaders()));
+        assertEquals("{\"ply\":1}", new String((byte[]) frame.getPayload(), StandardCharsets.UTF_8));
+        assertNull(relayed.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testUserDestinationReachesUserConnectedToAnotherNode() throws Exception {
+        BlockingQueue<Message<?>> outboundA = new LinkedBlockingQueue<>();
+        UserNode nodeA = startUserNode(outboundA);
+        UserNode nodeB = startUserNode(new LinkedBlockingQueue<>());
+        // Each node's system session listens on both broadcast topics
+        await(() -> broker.getSubscriptionCount() == 4);
+
+        // alice connects to node A and subscribes to her draw offers
+        Principal alice = () -> "alice";
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setAcceptVersion("1.2");
+        connect.setHeartbeat(0, 0);
+        connect.setUser(alice);
+        nodeA.clientInbound().send(clientFrame(connect));
+        assertEquals(StompCommand.CONNECTED, nextFrame(outboundA).getCommand());
+        nodeA.localUsers().onApplicationEvent(new SessionConnectedEvent(this,
+                clientFrame(StompHeaderAccessor.create(StompCommand.CONNECTED)), alice));
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination("/user/queue/draw-offers");
+        subscribe.setReceipt("r1");
+        subscribe.setUser(alice);
+        nodeA.clientInbound().send(clientFrame(subscribe));
+        assertEquals(StompCommand.RECEIPT, nextFrame(outboundA).getCommand());
+
+        // Node B does not know alice yet: the message goes out on the unresolved-destination topic
+        // and node A resolves it to her session
+        assertNull(nodeB.users().getUser("alice"));
+        nodeB.brokerTemplate().convertAndSendToUser("alice", "/queue/draw-offers", Map.of("from", "bob"));
+        assertDrawOffer(outboundA.poll(5, TimeUnit.SECONDS), "bob");
+
+        // Once node A has broadcast its registry, node B resolves alice itself
+        nodeA.registryHandler().onApplicationEvent(new BrokerAvailabilityEvent(true, this));
+        await(() -> nodeB.users().getUser("alice") != null);
+        assertEquals(1, nodeB.users().getUser("alice").getSessions().size());
+        nodeB.brokerTemplate().convertAndSendToUser("alice", "/queue/draw-offers", Map.of("from", "carol"));
+        assertDrawOffer(outboundA.poll(5, TimeUnit.SECONDS), "carol");
+        assertNull(outboundA.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private static void assertDrawOffer(Message<?> frame, String from) {
+        assertNotNull(frame, "No frame from the relay");
+        StompHeaderAccessor message = StompHeaderAccessor.wrap(frame);
+        assertEquals(StompCommand.MESSAGE, message.getCommand());
+        assertEquals("session-1", message.getSessionId());
+        assertEquals("sub-0", message.getSubscriptionId());
+        // The session handler shows the client the destination it subscribed to
+        assertEquals("/user/queue/draw-offers",
+                message.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION));
+        assertEquals("{\"from\":\"" + from + "\"}",
+                new String((byte[]) frame.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    private UserNode startUserNode(BlockingQueue<Message<?>> outbound) throws Exception {
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        SimpMessagingTemplate brokerTemplate = new SimpMessagingTemplate(brokerChannel);
+        brokerTemplate.setMessageConverter(new JacksonJsonMessageConverter());
+
+        DefaultSimpUserRegistry localUsers = new DefaultSimpUserRegistry();
+        MultiServerUserRegistry users = new MultiServerUserRegistry(localUsers);
+        UserDestinationMessageHandler userDestinations = new UserDestinationMessageHandler(clientInbound,
+                brokerChannel, new DefaultUserDestinationResolver(users));
+        userDestinations.setBroadcastDestination(USER_DESTINATION_BROADCAST);
+        userDestinations.start();
+        userDestinationHandlers.add(userDestinations);
+        UserRegistryMessageHandler registryHandler = new UserRegistryMessageHandler(users, brokerTemplate,
+                USER_REGISTRY_BROADCAST, scheduler);
+
+        MessageChannel clientOutboundChannel = (message, timeout) -> outbound.add(message);
+        StompBrokerRelayMessageHandler relay = new StompBrokerRelayMessageHandler(clientInbound,
+                clientOutboundChannel, brokerChannel, List.of("/topic", "/queue"));
+        relay.setTcpClient(new StompTcpClient("127.0.0.1", broker.getPort()));
+        relay.setSystemSubscriptions(Map.of(USER_DESTINATION_BROADCAST, userDestinations,
+                USER_REGISTRY_BROADCAST, registryHandler));
+        relay.start();
+        nodes.add(relay);
+        await(relay::isBrokerAvailable);
+        return new UserNode(clientInbound, brokerTemplate, localUsers, users, registryHandler);
+    }
+
+    private StompBrokerRelayMessageHandler startNode(BlockingQueue<Message<?>> outbound,
+                                                     Map<String, MessageHandler> systemSubscriptions) throws Exception {
+        MessageChannel clientOutboundChannel = (message, timeout) -> outbound.add(message);
+        StompBrokerRelayMessageHandler relay = new StompBrokerRelayMessageHandler(new ExecutorSubscribableChannel(),
+                clientOutboundChannel, new ExecutorSubscribableChannel(), List.of("/topic", "/queue"));
+        relay.setRelayPort(broker.getPort());
+        relay.setTcpClient(new StompTcpClient("127.0.0.1", broker.getPort()));
+        relay.setSystemSubscriptions(systemSubscriptions);
+        relay.start();
+        nodes.add(relay);
+        await(relay::isBrokerAvailable);
+        return relay;
+    }
+
+    private static Message<byte[]> clientFrame(StompHeaderAccessor headers) {
+        headers.setSessionId("session-1");
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+
+    private static Message<byte[]> brokerMessage(String destination, String payload, Map<String, String> nativeHeaders) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(destination);
+        nativeHeaders.forEach(headers::setNativeHeader);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders());
+    }
+
+    private static StompHeaderAccessor nextFrame(BlockingQueue<Message<?>> outbound) throws InterruptedException {
+        Message<?> message = outbound.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "No frame from the relay");
+        return StompHeaderAccessor.wrap(message);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchMatchmaker
+ */
+class BatchMatchmakerTest {
+
+    private final BatchMatchmaker matchmaker = new BatchMatchmaker(100, 5);
+
+    @Test
+    void testPrefersTwoClosePairsOverGreedyMiddlePair() {
+        // Greedy on the closest gap would pair 1210/1220 and leave 1150 and 1280 waiting
+        List<MatchmakingPool.Ticket> tickets = List.of(
+                ticket("a", 1150, 0), ticket("b", 1210, 1), ticket("c", 1220, 2), ticket("d", 1280, 3));
+
+        List<MatchmakingPool.Pairing> pairings = matchmaker.pair(tickets, 0, t -> 100);
+
+        assertEquals(2, pairings.size());
+        assertTrue(pairings.stream().allMatch(p -> Math.abs(p.waiting().rating() - p.joining().rating()) == 60));
+    }
+
+    @Test
+    void testRespectsWindowsAndLetsLongWaitersPairFirst() {
+        List<MatchmakingPool.Ticket> tickets = List.of(
+                ticket("old", 1000, 0), ticket("new", 1080, 1), ticket("far", 1600, 2));
+
+        // 1000-1080 is inside the window, 1080-1600 is not
+        List<MatchmakingPool.Pairing> pairings = matchmaker.pair(tickets, 60_000, t -> 100);
+
+        assertEquals(1, pairings.size());
+        assertEquals("old", pairings.get(0).waiting().username());
+        assertEquals("new", pairings.get(0).joining().username());
+    }
+
+    @Test
+    void testDefersPairWhenGapCostsMoreThanWaiting() {
+        List<MatchmakingPool.Ticket> tickets = List.of(ticket("a", 1000, 0), ticket("b", 1090, 1));
+
+        // A 90 point gap is cheaper than leaving both unpaired (2 x 100)...
+        assertEquals(1, matchmaker.pair(tickets, 0, t -> 100).size());
+        // ...but not when waiting is cheap: the pair is left for a later tick
+        assertTrue(new BatchMatchmaker(10, 0).pair(tickets, 0, t -> 100).isEmpty());
+    }
+
+    private static MatchmakingPool.Ticket ticket(String username, int rating, long seq) {
+        return new MatchmakingPool.Ticket(username, rating, seq, seq);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GameBroadcaster
+ */
+class GameBroadcasterTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final JsonMapper jsonMapper = spy(JsonMapper.builder().build());
+    private final SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(mock(SubscribableChannel.class),
+            mock(SubscribableChannel.class), mock(SubscribableChannel.class), List.of("/topic"));
+    private final GameEventLog eventLog = new GameEventLog(8);
+    private final GameBroadcaster gameBroadcaster = new GameBroadcaster(messagingTemplate, jsonMapper,
+            provider(broker), eventLog);
+
+    @Test
+    void testPayloadIsEncodedOnceAndSentAsIs() {
+        subscribe("alice", "/topic/moves/7");
+        subscribe("bob", "/topic/moves/7");
+        subscribe("carol", "/topic/moves/7");
+        Map<String, Object> move = Map.of("uci", "e2e4", "ply", 1);
+
+        long seq = gameBroadcaster.broadcast("/topic/moves/7", move);
+
+        verify(jsonMapper, times(1)).writeValueAsBytes(move);
+        Message<?> sent = sent("/topic/moves/7").getFirst();
+        // The logged frame, the broker's message and every session share the one encoding
+        assertSame(eventLog.since(7L, 0).getFirst().payload(), sent.getPayload());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, SimpMessageHeaderAccessor.wrap(sent).getContentType());
+        assertEquals(1, seq);
+        assertEquals("1", seqOf(sent));
+    }
+
+    @Test
+    void testSeqIncreasesPerMatchAndBinaryFramesReuseIt() {
+        assertEquals(1, gameBroadcaster.broadcast("/topic/moves/7", Map.of("ply", 1)));
+        assertEquals(2, gameBroadcaster.broadcast("/topic/game-state/7", Map.of("status", "IN_PROGRESS")));
+        assertEquals(1, gameBroadcaster.broadcast("/topic/moves/8", Map.of("ply", 1)));
+        long seq = gameBroadcaster.broadcast("/topic/moves/7", Map.of("ply", 2));
+        AtomicInteger encodes = new AtomicInteger();
+        gameBroadcaster.broadcastBinary("/topic/moves-bin/7", seq, () -> {
+            encodes.incrementAndGet();
+            return new byte[]{1, 2, 3};
+        });
+
+        assertEquals(3, seq);
+        assertEquals(List.of("1", "3"), sent("/topic/moves/7").stream().map(GameBroadcasterTest::seqOf).toList());
+        assertEquals(List.of("2"), sent("/topic/game-state/7").stream().map(GameBroadcasterTest::seqOf).toList());
+        assertEquals(List.of("1"), sent("/topic/moves/8").stream().map(GameBroadcasterTest::seqOf).toList());
+        Message<?> binary = sent("/topic/moves-bin/7").getFirst();
+        assertEquals("3", seqOf(binary));
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, SimpMessageHeaderAccessor.wrap(binary).getContentType());
+        assertEquals(1, encodes.get());
+        // Binary frames are not numbered separately, nor kept for resync
+        assertEquals(3, eventLog.currentSeq(7L));
+        assertEquals(3, eventLog.since(7L, 0).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStatsRecordFanOutAndEncodeTimePerTopic() {
+        subscribe("alice", "/topic/moves/7");
+        subscribe("bob", "/topic/moves/7");
+        subscribe("alice", "/topic/moves-bin/8");
+
+        gameBroadcaster.broadcast("/topic/moves/7", Map.of("ply", 1));
+        gameBroadcaster.broadcast("/topic/moves/8", Map.of("ply", 1));
+        gameBroadcaster.broadcastBinary("/topic/moves-bin/8", 1, () -> new byte[]{1, 2, 3, 4});
+
+        Map<String, Object> stats = gameBroadcaster.getStats();
+        assertEquals(Set.of("/topic/moves", "/topic/moves-bin"), stats.keySet());
+
+        Map<String, Object> moves = (Map<String, Object>) stats.get("/topic/moves");
+        int size = ((byte[]) sent("/topic/moves/7").getFirst().getPayload()).length;
+        assertEquals(2L, moves.get("messages"));
+        assertEquals(2L * size, moves.get("bytesEncoded"));
+        assertEquals(2L * size, moves.get("bytesDelivered"));
+        assertEquals(1.0, moves.get("avgFanOut"));
+        assertEquals(2L, moves.get("maxFanOut"));
+        assertTrue((double) moves.get("maxEncodeMicros") > 0);
+        assertTrue((double) moves.get("avgEncodeMicros") <= (double) moves.get("maxEncodeMicros"));
+
+        Map<String, Object> binary = (Map<String, Object>) stats.get("/topic/moves-bin");
+        assertEquals(1L, binary.get("messages"));
+        assertEquals(4L, binary.get("bytesDelivered"));
+        assertEquals(1L, binary.get("maxFanOut"));
+    }
+
+    private void subscribe(String sessionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId("sub-" + destination);
+        headers.setDestination(destination);
+        broker.getSubscriptionRegistry().registerSubscription(
+                MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+    }
+
+    private List<Message<?>> sent(String destination) {
+        ArgumentCaptor<Message<?>> messages = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, atLeastOnce()).send(eq(destination), messages.capture());
+        return messages.getAllValues();
+    }
+
+    private static String seqOf(Message<?> message) {
+        return SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(GameBroadcaster.SEQ_HEADER);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<SimpleBrokerMessageHandler> provider(SimpleBrokerMessageHandler broker) {
+        ObjectProvider<SimpleBrokerMessageHandler> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(broker);
+        return provider;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import com.example.IndiChessBackend.model.DTO.MoveRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GameCluster: several nodes in one JVM, connected by an in-memory transport
+ */
+class GameClusterTest {
+
+    private static final String NODES = "a=mem://a,b=mem://b,c=mem://c,d=mem://d";
+    private static final int GAMES = 300;
+
+    private final Map<String, Node> running = new ConcurrentHashMap<>();
+    private final Random random = new Random(5);
+
+    private final class Node {
+        final GameCluster cluster;
+        final GameService gameService;
+
+        Node(String id) {
+            cluster = new GameCluster(new InMemoryTransport(), id, NODES, "secret", 64, 3);
+            gameService = new GameService(null, null, null, new ChessMoveValidator(),
+                    null, null, null, null, cluster, new GameEventLog(8), new LiveGameReadModel());
+            gameService.registerWithCluster();
+        }
+
+        void submit(GameCommand command) {
+            if (!cluster.forwardIfRemote(command)) {
+                execute(command);
+            }
+        }
+
+        void execute(GameCommand command) {
+            gameService.processMove(command.getMatchId(), command.getMove(), command::getUsername);
+        }
+    }
+
+    // Calls to a node that is not running fail like a refused connection
+    private final class InMemoryTransport implements GameClusterTransport {
+
+        private Node node(GameCluster.Member target) {
+            Node node = running.get(target.id());
+            if (node == null) {
+                throw new IllegalStateException("Connection refused: " + target.url());
+            }
+            return node;
+        }
+
+        @Override
+        public void forward(GameCluster.Member target, GameCommand command) {
+            node(target).execute(command);
+        }
+
+        @Override
+        public GameSnapshot open(GameCluster.Member target, long matchId) {
+            return node(target).gameService.openGame(matchId);
+        }
+
+        @Override
+        public void handOff(GameCluster.Member target, GameSnapshot snapshot) {
+            node(target).gameService.importGame(snapshot);
+        }
+
+        @Override
+        public void announce(GameCluster.Member target, GameCluster.Member joining) {
+            node(target).cluster.join(joining);
+        }
+
+        @Override
+        public void leave(GameCluster.Member target, String nodeId) {
+            node(target).cluster.leave(nodeId);
+        }
+    }
+
+    @Test
+    void testGamesStayOnOneNodeAcrossJoinAndLeave() {
+        for (String id : List.of("a", "b", "c")) {
+            start(id);
+        }
+        for (long matchId = 1; matchId <= GAMES; matchId++) {
+            owner(matchId).gameService.importGame(newGame(matchId));
+        }
+
+        playEverywhere("white", 6, 4, 4, "P");
+        assertGamesAt(1);
+
+        // d joins: about a quarter of the games move to it, and only to it
+        Map<Long, String> before = holders();
+        start("d");
+        Map<Long, String> after = holders();
+        assertGamesAt(1);
+        long moved = before.keySet().stream().filter(id -> !before.get(id).equals(after.get(id))).count();
+        assertTrue(after.entrySet().stream().allMatch(e -> e.getValue().equals(before.get(e.getKey()))
+                || e.getValue().equals("d")));
+        assertTrue(moved > GAMES / 8 && moved < GAMES / 2, "Moved " + moved);
+        // A retry of the last move is still recognised by the game's new owner
+        after.forEach((matchId, id) -> assertNotNull(running.get(id).gameService
+                .findRecentMove(matchId, "w" + matchId, "white-6"), "Game " + matchId));
+
+        // b stops cleanly: its games go to the others, and play continues through any node
+        running.get("b").cluster.shutdown();
+        running.remove("b");
+        assertFalse(holders().containsValue("b"));
+        assertGamesAt(1);
+
+        playEverywhere("black", 1, 4, 3, "p");
+        assertGamesAt(2);
+    }
+
+    @Test
+    void testNodeThatDiesIsEvictedAfterMissedHeartbeats() {
+        for (String id : List.of("a", "b", "c")) {
+            start(id);
+        }
+        for (long matchId = 1; matchId <= GAMES; matchId++) {
+            owner(matchId).gameService.importGame(newGame(matchId));
+        }
+        Map<Long, String> before = holders();
+
+        // c crashes: no hand-off, no leave; until it is evicted its games' commands fail
+        running.remove("c");
+        long lost = before.values().stream().filter("c"::equals).count();
+        long onC = before.entrySet().stream().filter(e -> e.getValue().equals("c")).findFirst().orElseThrow().getKey();
+        GameCommand command = GameCommand.of(GameCommand.Type.MOVE, onC, "w" + onC);
+        assertThrows(IllegalStateException.class, () -> running.get("a").cluster.forwardIfRemote(command));
+
+        for (int beat = 1; beat < 3; beat++) {
+            running.values().forEach(node -> node.cluster.heartbeat());
+            assertTrue(running.get("a").cluster.getStats().get("members").toString().contains("c"));
+        }
+        running.values().forEach(node -> node.cluster.heartbeat());
+
+        for (Node node : running.values()) {
+            assertEquals(new TreeSet<>(List.of("a", "b")), node.cluster.getStats().get("members"));
+            assertEquals(1L, node.cluster.getStats().get("nodesEvicted"));
+        }
+        // The survivors keep their own games; c's are gone with it and nobody forwards to c any more
+        Map<Long, String> after = new HashMap<>();
+        running.forEach((id, node) -> node.gameService.getActiveGameIds().forEach(matchId -> after.put(matchId, id)));
+        assertEquals(GAMES - lost, after.size());
+        after.forEach((matchId, id) -> assertEquals(before.get(matchId), id));
+        for (long matchId = 1; matchId <= GAMES; matchId++) {
+            owner(matchId);
+        }
+
+        // c restarts (empty) and is back in everyone's ring after its announce
+        start("c");
+        running.values().forEach(node ->
+                assertEquals(new TreeSet<>(List.of("a", "b", "c")), node.cluster.getStats().get("members")));
+    }
+
+    @Test
+    void testRingMovesOnlyTheJoiningNodesShare() {
+        ConsistentHashRing three = new ConsistentHashRing(List.of("a", "b", "c"), 256);
+        ConsistentHashRing four = new ConsistentHashRing(List.of("a", "b", "c", "d"), 256);
+
+        int keys = 100_000;
+        Map<String, Integer> load = new HashMap<>();
+        int moved = 0;
+        for (long key = 1; key <= keys; key++) {
+            String owner = four.ownerOf(key);
+            load.merge(owner, 1, Integer::sum);
+            if (!owner.equals(three.ownerOf(key))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+        assertEquals(moved, load.get("d"));
+        for (int count : load.values()) {
+            assertTrue(Math.abs(count - keys / 4) < keys / 4 * 0.15, "Unbalanced: " + load);
+        }
+    }
+
+    private void start(String id) {
+        Node node = new Node(id);
+        running.put(id, node);
+        node.cluster.announce();
+    }
+
+    private Node owner(long matchId) {
+        List<Node> owners = running.values().stream().filter(n -> n.cluster.isLocal(matchId)).toList();
+        assertEquals(1, owners.size(), "Owners of game " + matchId);
+        return owners.get(0);
+    }
+
+    // Which node holds each game, checking that exactly one does and that it is the owner
+    private Map<Long, String> holders() {
+        Map<Long, String> holders = new HashMap<>();
+        running.forEach((id, node) -> node.gameService.getActiveGameIds().forEach(matchId ->
+                assertNull(holders.put(matchId, id), "Game " + matchId + " on two nodes")));
+        assertEquals(GAMES, holders.size());
+        holders.forEach((matchId, id) -> assertSame(running.get(id), owner(matchId)));
+        return holders;
+    }
+
+    private void assertGamesAt(int ply) {
+        holders().forEach((matchId, id) ->
+                assertEquals(ply, running.get(id).gameService.exportGame(matchId).getPly(), "Game " + matchId));
+    }
+
+    // The same double pawn push in every game, each sent to a random node
+    private void playEverywhere(String color, int fromRow, int col, int toRow, String piece) {
+        List<Node> nodes = new ArrayList<>(running.values());
+        for (long matchId = 1; matchId <= GAMES; matchId++) {
+            String[][] board = owner(matchId).gameService.exportGame(matchId).getBoard();
+            String[][] next = Arrays.stream(board).map(String[]::clone).toArray(String[][]::new);
+            next[toRow][col] = next[fromRow][col];
+            next[fromRow][col] = "";
+
+            MoveRequest move = new MoveRequest();
+            move.setFromRow(fromRow);
+            move.setFromCol(col);
+            move.setToRow(toRow);
+            move.setToCol(col);
+            move.setPiece(piece);
+            move.setPlayerColor(color);
+            move.setCastled(false);
+            move.setIsEnPassant(false);
+            move.setIsPromotion(false);
+            move.setBoard(next);
+            move.setClientMoveId(color + "-" + fromRow);
+            GameCommand command = GameCommand.of(GameCommand.Type.MOVE, matchId,
+                    (color.equals("white") ? "w" : "b") + matchId);
+            command.setMove(move);
+            nodes.get(random.nextInt(nodes.size())).submit(command);
+        }
+    }
+
+    private static GameSnapshot newGame(long matchId) {
+        String[][] board = {
+                {"r", "n", "b", "q", "k", "b", "n", "r"},
+                {"p", "p", "p", "p", "p", "p", "p", "p"},
+                {"", "", "", "", "", "", "", ""},
+                {"", "", "", "", "", "", "", ""},
+                {"", "", "", "", "", "", "", ""},
+                {"", "", "", "", "", "", "", ""},
+                {"P", "P", "P", "P", "P", "P", "P", "P"},
+                {"R", "N", "B", "Q", "K", "B", "N", "R"}
+        };
+        long now = System.currentTimeMillis();
+        return new GameSnapshot(matchId, board, true, "IN_PROGRESS", "w" + matchId, "b" + matchId, 0, now, now, 0, null);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameCommand;
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import com.example.IndiChessBackend.model.DTO.MoveDTO;
+import com.example.IndiChessBackend.model.DTO.MoveRequest;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GameCommandService: retried moves (same clientMoveId) are made only once
+ */
+class GameCommandServiceTest {
+
+    private static final long MATCH = 7L;
+    private static final String MOVES = "/topic/moves/" + MATCH;
+
+    private final MatchRepo matchRepo = mock(MatchRepo.class);
+    private final MoveService moveService = mock(MoveService.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final GameBroadcaster gameBroadcaster = mock(GameBroadcaster.class);
+    private final SpectatorHub spectatorHub = mock(SpectatorHub.class);
+    private final GameEventLog eventLog = new GameEventLog(8);
+    private final GameCluster gameCluster = new GameCluster(null, "local", "", "", 1, 3);
+    private final GameService gameService = spy(new GameService(matchRepo, mock(UserRepo.class), messagingTemplate,
+            new ChessMoveValidator(), moveService, mock(RatingService.class), mock(TournamentService.class),
+            gameBroadcaster, gameCluster, eventLog, new LiveGameReadModel()));
+    private final GameCommandService commandService = new GameCommandService(gameService, gameCluster,
+            gameBroadcaster, spectatorHub, messagingTemplate, eventLog);
+
+    @BeforeEach
+    void startGame() {
+        User alice = new User();
+        alice.setUsername("alice");
+        User bob = new User();
+        bob.setUsername("bob");
+        Match match = new Match(alice, bob, MatchStatus.IN_PROGRESS, 0);
+        match.setId(MATCH);
+        when(matchRepo.findById(MATCH)).thenReturn(Optional.of(match));
+        gameService.importGame(newGame());
+    }
+
+    @Test
+    void testRetryAfterSuccessResendsTheOriginalToItsSenderOnly() {
+        commandService.submit(move("alice", "white", 6, 4, 4, "P", "m1"));
+        ArgumentCaptor<Object> broadcast = ArgumentCaptor.forClass(Object.class);
+        verify(gameBroadcaster).broadcast(eq(MOVES), broadcast.capture());
+        MoveDTO original = (MoveDTO) broadcast.getValue();
+
+        // The ack was lost and the client sends the move again
+        commandService.submit(move("alice", "white", 6, 4, 4, "P", "m1"));
+
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("alice"), eq("/queue/moves"), same(original));
+        verify(gameService, times(1)).processMove(eq(MATCH), any(), any());
+        verify(moveService, times(1)).saveMove(any(), anyInt(), anyInt(), anyInt(), anyInt(), any(), anyBoolean(),
+                any(), any(), any(), any(), any(), any(), any());
+        verify(gameBroadcaster, times(1)).broadcast(eq(MOVES), any());
+        verify(gameBroadcaster, times(1)).broadcastBinary(eq("/topic/moves-bin/" + MATCH), anyLong(), any());
+        verify(spectatorHub, times(1)).publishPosition(eq(MATCH), any());
+        assertEquals(1, gameService.exportGame(MATCH).getPly());
+    }
+
+    @Test
+    void testRetryAfterRejectedMoveIsValidatedAgain() {
+        // Three squares: rejected, and not remembered
+        commandService.submit(move("alice", "white", 6, 4, 3, "P", "m1"));
+        commandService.submit(move("alice", "white", 6, 4, 3, "P", "m1"));
+
+        verify(gameService, times(2)).processMove(eq(MATCH), any(), any());
+        assertEquals(0, gameService.exportGame(MATCH).getPly());
+        assertNull(gameService.findRecentMove(MATCH, "alice", "m1"));
+
+        // The corrected move may reuse the id
+        commandService.submit(move("alice", "white", 6, 4, 4, "P", "m1"));
+
+        verify(gameService, times(3)).processMove(eq(MATCH), any(), any());
+        assertEquals(1, gameService.exportGame(MATCH).getPly());
+        assertNotNull(gameService.findRecentMove(MATCH, "alice", "m1"));
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), eq("/queue/moves"), any(Object.class));
+    }
+
+    @Test
+    void testSameClientMoveIdFromTheOpponentIsANewMove() {
+        commandService.submit(move("alice", "white", 6, 4, 4, "P", "m1"));
+        commandService.submit(move("bob", "black", 1, 4, 3, "p", "m1"));
+
+        verify(gameService, times(2)).processMove(eq(MATCH), any(), any());
+        assertEquals(2, gameService.exportGame(MATCH).getPly());
+        assertEquals("white", gameService.findRecentMove(MATCH, "alice", "m1").getPlayerColor());
+        assertEquals("black", gameService.findRecentMove(MATCH, "bob", "m1").getPlayerColor());
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), eq("/queue/moves"), any(Object.class));
+    }
+
+    private GameCommand move(String username, String color, int fromRow, int col, int toRow, String piece,
+                             String clientMoveId) {
+        String[][] next = Arrays.stream(gameService.exportGame(MATCH).getBoard())
+                .map(String[]::clone).toArray(String[][]::new);
+        next[toRow][col] = next[fromRow][col];
+        next[fromRow][col] = "";
+
+        MoveRequest move = new MoveRequest();
+        move.setFromRow(fromRow);
+        move.setFromCol(col);
+        move.setToRow(toRow);
+        move.setToCol(col);
+        move.setPiece(piece);
+        move.setPlayerColor(color);
+        move.setCastled(false);
+        move.setIsEnPassant(false);
+        move.setIsPromotion(false);
+        move.setBoard(next);
+        move.setClientMoveId(clientMoveId);
+        GameCommand command = GameCommand.of(GameCommand.Type.MOVE, MATCH, username);
+        command.setMove(move);
+        return command;
+    }
+
+    private static GameSnapshot newGame() {
+        String[][] board = {
+                {"r", "n", "b", "q", "k", "b", "n", "r"},
+                {"p", "p", "p", "p", "p", "p", "p", "p"},
+                {"", "", "", "", "", "", "", ""},
+                {"", "", "", "", "", "", "", ""},
+                {"", "", "", "", "", "", "", ""},
+                {"", "", "", "", "", "", "", ""},
+                {"P", "P", "P", "P", "P", "P", "P", "P"},
+                {"R", "N", "B", "Q", "K", "B", "N", "R"}
+        };
+        long now = System.currentTimeMillis();
+        return new GameSnapshot(MATCH, board, true, "IN_PROGRESS", "alice", "bob", 0, now, now, 0, null);
+    }
+}
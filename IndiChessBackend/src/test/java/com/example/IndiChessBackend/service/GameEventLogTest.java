@@ -0,0 +1,98 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GameEventLog
+ */
+class GameEventLogTest {
+
+    @Test
+    void testResyncSendsOnlyMissedFramesWhileBuffered() {
+        GameEventLog log = new GameEventLog(4);
+        List<Long> published = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            log.append(7L, "/topic/moves/7", new byte[]{(byte) i}, published::add);
+        }
+        log.append(8L, "/topic/chat/8", new byte[0], seq -> {});
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), published);
+        assertEquals(6, log.currentSeq(7L));
+        assertEquals(1, log.currentSeq(8L));
+
+        List<GameEventLog.Frame> missed = log.since(7L, 3);
+        assertEquals(List.of(4L, 5L, 6L), missed.stream().map(GameEventLog.Frame::seq).toList());
+        assertEquals(4, missed.getFirst().payload()[0]);
+        assertEquals(List.of(), log.since(7L, 6));
+
+        // Frames 1 and 2 were evicted; a client ahead of the log (server restarted) also reloads
+        assertEquals(4, log.since(7L, 2).size());
+        assertNull(log.since(7L, 1));
+        assertNull(log.since(7L, 9));
+    }
+
+    @Test
+    void testHandedOffGameKeepsItsNumbering() {
+        GameEventLog log = new GameEventLog(4);
+        log.restore(7L, 41);
+
+        assertEquals(41, log.currentSeq(7L));
+        assertEquals(List.of(), log.since(7L, 41));
+        assertNull(log.since(7L, 40));
+        assertEquals(42, log.append(7L, "/topic/moves/7", new byte[0], seq -> {}));
+        assertEquals(1, log.since(7L, 41).size());
+
+        log.discard(7L);
+        assertEquals(0, log.currentSeq(7L));
+    }
+
+    @Test
+    void testLookupsLeaveNoLogAndWaitersSurviveDiscard() throws Exception {
+        GameEventLog log = new GameEventLog(4);
+        // Resyncs and reads for games this node doesn't have
+        assertNull(log.since(9L, 0));
+        assertEquals(Long.valueOf(0), log.<Long>read(9L, seq -> seq));
+        assertEquals(0, log.currentSeq(9L));
+        assertEquals(0, log.size());
+
+        // A command queued behind the game's last one runs once the log is discarded, on a new log
+        log.append(7L, "/topic/moves/7", new byte[0], seq -> {});
+        CountDownLatch ending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new ArrayList<>();
+        Thread last = new Thread(() -> log.serialize(7L, () -> {
+            ending.countDown();
+            awaitQuietly(release);
+            ran.add("last");
+            log.discard(7L);
+        }));
+        last.start();
+        ending.await();
+        Thread queued = new Thread(() -> log.serialize(7L, () -> ran.add("queued")));
+        queued.start();
+        while (queued.getState() != Thread.State.BLOCKED) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        last.join();
+        queued.join();
+
+        assertEquals(List.of("last", "queued"), ran);
+        assertEquals(1, log.size());
+        assertEquals(0, log.currentSeq(7L));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.MatchSummaryView;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GameHistoryService
+ */
+class GameHistoryServiceTest {
+
+    private static final long USER = 1L;
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final MatchRepo matchRepo = mock(MatchRepo.class);
+    private final GameHistoryService historyService = new GameHistoryService(matchRepo);
+
+    private record Row(Long id, Long player1Id, String player1Username, Long player2Id, String player2Username,
+                       LocalDateTime createdAt) implements MatchSummaryView {
+        public Long getId() { return id; }
+        public Long getPlayer1Id() { return player1Id; }
+        public String getPlayer1Username() { return player1Username; }
+        public Long getPlayer2Id() { return player2Id; }
+        public String getPlayer2Username() { return player2Username; }
+        public MatchStatus getStatus() { return MatchStatus.PLAYER1_WON; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getFinishedAt() { return null; }
+        public Integer getCurrentPly() { return 0; }
+    }
+
+    @Test
+    void testGamesCreatedTogetherAreNeitherSkippedNorRepeated() {
+        // Seven games in the same second, the user alternating seats, and an older one
+        List<Row> games = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            games.add(id % 2 == 0 ? game(id, USER, 2L, NOON) : game(id, 2L, USER, NOON));
+        }
+        games.add(game(8L, USER, 3L, NOON.minusDays(1)));
+        stubSeats(games);
+
+        List<Object> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            GameHistoryService.HistoryPage page = historyService.getHistoryPage(USER, cursor, 3);
+            page.games().forEach(game -> ids.add(game.get("id")));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of(7L, 6L, 5L, 4L, 3L, 2L, 1L, 8L), ids);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testNextCursorOnlyWhenAnotherGameFollows() {
+        stubSeats(List.of(game(1L, USER, 2L, NOON), game(2L, 2L, USER, NOON.plusMinutes(1))));
+        GameHistoryService.HistoryPage full = historyService.getHistoryPage(USER, null, 2);
+        assertEquals(2, full.games().size());
+        assertNull(full.nextCursor());
+
+        // size + 1 games: the extra one is not returned, only announced by the cursor
+        stubSeats(List.of(game(1L, USER, 2L, NOON), game(2L, 2L, USER, NOON.plusMinutes(1)),
+                game(3L, USER, 2L, NOON.plusMinutes(2))));
+        GameHistoryService.HistoryPage first = historyService.getHistoryPage(USER, null, 2);
+        assertEquals(List.of(3L, 2L), first.games().stream().map(game -> game.get("id")).toList());
+        assertNotNull(first.nextCursor());
+        GameHistoryService.HistoryPage last = historyService.getHistoryPage(USER, first.nextCursor(), 2);
+        assertEquals(List.of(1L), last.games().stream().map(game -> game.get("id")).toList());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void testMalformedCursorsAreRejectedBeforeQuerying() {
+        for (String cursor : List.of("not base64!", encode("2026-03-01T12:00"), encode("yesterday|5"),
+                encode("2026-03-01T12:00|five"))) {
+            assertThrows(IllegalArgumentException.class, () -> historyService.getHistoryPage(USER, cursor, 10));
+        }
+        verifyNoInteractions(matchRepo);
+    }
+
+    // Each seat's query as MatchRepo runs it: older than the cursor, newest first, limited
+    private void stubSeats(List<Row> games) {
+        doAnswer(call -> before(games, true, call.getArgument(1), call.getArgument(2), call.getArgument(3)))
+                .when(matchRepo).findAsPlayer1Before(anyLong(), any(), anyLong(), any());
+        doAnswer(call -> before(games, false, call.getArgument(1), call.getArgument(2), call.getArgument(3)))
+                .when(matchRepo).findAsPlayer2Before(anyLong(), any(), anyLong(), any());
+    }
+
+    private static List<MatchSummaryView> before(List<Row> games, boolean asPlayer1, LocalDateTime createdAt,
+                                                 Long id, Pageable pageable) {
+        return games.stream()
+                .filter(game -> USER == (asPlayer1 ? game.player1Id() : game.player2Id()))
+                .filter(game -> game.createdAt().isBefore(createdAt)
+                        || game.createdAt().isEqual(createdAt) && game.id() < id)
+                .sorted(Comparator.comparing(Row::createdAt).thenComparing(Row::id).reversed())
+                .limit(pageable.getPageSize())
+                .map(MatchSummaryView.class::cast)
+                .toList();
+    }
+
+    private static Row game(Long id, Long player1Id, Long player2Id, LocalDateTime createdAt) {
+        return new Row(id, player1Id, "user" + player1Id, player2Id, "user" + player2Id, createdAt);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
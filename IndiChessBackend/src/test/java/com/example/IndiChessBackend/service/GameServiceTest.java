@@ -0,0 +1,103 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.JoinRequest;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GameService
+ */
+class GameServiceTest {
+
+    private static final int CALLERS = 32;
+
+    private final MatchRepo matchRepo = mock(MatchRepo.class);
+    private final RatingService ratingService = mock(RatingService.class);
+    private final TournamentService tournamentService = mock(TournamentService.class);
+    private final GameService gameService = spy(new GameService(matchRepo, mock(UserRepo.class),
+            mock(SimpMessagingTemplate.class), new ChessMoveValidator(), mock(MoveService.class),
+            ratingService, tournamentService, mock(GameBroadcaster.class),
+            new GameCluster(null, "local", "", "", 1, 3), new GameEventLog(4), new LiveGameReadModel()));
+
+    @Test
+    void testRacingFirstJoinsAndReadsInitializeGameOnce() throws Exception {
+        Match match = match(7L);
+        // Every caller loads the match (slowly, to widen the race) before starting the game
+        when(matchRepo.findById(7L)).thenAnswer(call -> {
+            Thread.sleep(20);
+            return Optional.of(match);
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<String[][]>> boards = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            String username = i % 2 == 0 ? "alice" : "bob";
+            boolean join = i % 4 < 2;
+            boards.add(callers.submit(() -> {
+                go.await();
+                return join
+                        ? gameService.handlePlayerJoin(7L, new JoinRequest(), () -> username).getBoard()
+                        : gameService.getGameDetailsForUser(7L, username).getBoard();
+            }));
+        }
+        go.countDown();
+        for (Future<String[][]> board : boards) {
+            assertNotNull(board.get(10, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+
+        verify(gameService, times(1)).initializeGameState(any());
+        verify(matchRepo, atLeastOnce()).findById(7L);
+        verify(matchRepo, never()).save(any());
+        assertEquals(Set.of(7L), gameService.getActiveGameIds());
+    }
+
+    @Test
+    void testGameStartedByMatchmakingIsNotStartedAgainByItsFirstRead() {
+        Match match = match(8L);
+        gameService.startGame(match);
+
+        assertEquals("IN_PROGRESS", gameService.getGameDetailsForUser(8L, "bob").getStatus());
+        assertEquals(0, gameService.exportGame(8L).getPly());
+        verify(gameService, times(1)).initializeGameState(match);
+        verify(matchRepo, never()).findById(anyLong());
+        verify(matchRepo, never()).save(any());
+    }
+
+    @Test
+    void testTournamentGameIsScoredWhenTheRatingUpdateFails() {
+        Match match = match(9L);
+        gameService.startGame(match);
+        when(matchRepo.findById(9L)).thenReturn(Optional.of(match));
+        doThrow(new IllegalStateException("Deadlock found")).when(ratingService).updateRatingsAfterGame(match);
+
+        gameService.handleResignation(9L, "bob");
+
+        assertEquals(MatchStatus.PLAYER1_WON, match.getStatus());
+        verify(matchRepo, times(1)).save(match);
+        verify(tournamentService, times(1)).onMatchFinished(match);
+    }
+
+    private static Match match(Long id) {
+        User alice = new User();
+        alice.setUsername("alice");
+        User bob = new User();
+        bob.setUsername("bob");
+        Match match = new Match(alice, bob, MatchStatus.IN_PROGRESS, 0);
+        match.setId(id);
+        return match;
+    }
+}
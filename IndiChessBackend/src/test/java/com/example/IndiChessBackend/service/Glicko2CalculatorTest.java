@@ -0,0 +1,54 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Glicko2Calculator, checked against the worked example in Glickman's paper
+ */
+class Glicko2CalculatorTest {
+
+    private final Glicko2Calculator calculator = new Glicko2Calculator(0.5);
+
+    @Test
+    void testMatchesPublishedExample() {
+        Glicko2Calculator.PlayerRating player = new Glicko2Calculator.PlayerRating(1500, 200, 0.06);
+        List<Glicko2Calculator.Outcome> games = List.of(
+                new Glicko2Calculator.Outcome(1400, 30, 1.0),
+                new Glicko2Calculator.Outcome(1550, 100, 0.0),
+                new Glicko2Calculator.Outcome(1700, 300, 0.0)
+        );
+
+        Glicko2Calculator.PlayerRating result = calculator.rate(player, games);
+
+        assertEquals(1464.06, result.rating(), 0.01);
+        assertEquals(151.52, result.deviation(), 0.01);
+        assertEquals(0.05999, result.volatility(), 0.00001);
+    }
+
+    @Test
+    void testInactivePlayerOnlyGainsDeviation() {
+        Glicko2Calculator.PlayerRating player = new Glicko2Calculator.PlayerRating(1700, 80, 0.06);
+
+        Glicko2Calculator.PlayerRating result = calculator.rate(player, List.of());
+
+        assertEquals(1700, result.rating(), 1e-9);
+        assertTrue(result.deviation() > 80, "Deviation should grow when no games are played");
+        assertEquals(0.06, result.volatility(), 1e-12);
+    }
+
+    @Test
+    void testWinRaisesAndLossLowersRating() {
+        Glicko2Calculator.PlayerRating player = new Glicko2Calculator.PlayerRating(1500, 350, 0.06);
+
+        double afterWin = calculator.rate(player, List.of(new Glicko2Calculator.Outcome(1500, 350, 1.0))).rating();
+        double afterLoss = calculator.rate(player, List.of(new Glicko2Calculator.Outcome(1500, 350, 0.0))).rating();
+
+        assertTrue(afterWin > 1500);
+        assertTrue(afterLoss < 1500);
+        assertEquals(1500 - afterLoss, afterWin - 1500, 1e-6, "Equal opponents should move symmetrically");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.IndiChessBackend.service;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JwtService token verification and caching
+ */
+class JwtServiceTest {
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+    }
+
+    private UserDetails userDetails(String username) {
+        return User.withUsername(username).password("secret").build();
+    }
+
+    @Test
+    void testGeneratedTokenVerifies() {
+        String token = jwtService.generateToken("alice");
+
+        JwtService.VerifiedToken verified = jwtService.verifyToken(token);
+
+        assertEquals("alice", verified.username());
+        assertTrue(verified.expiresAtMillis() > System.currentTimeMillis());
+        assertTrue(jwtService.isTokenValid(verified, userDetails("alice")));
+        assertFalse(jwtService.isTokenValid(verified, userDetails("bob")),
+                    "Token must not validate against a different user");
+    }
+
+    @Test
+    void testRepeatTokenIsServedFromCache() {
+        String token = jwtService.generateToken("alice");
+
+        JwtService.VerifiedToken first = jwtService.verifyToken(token);
+        JwtService.VerifiedToken second = jwtService.verifyToken(token);
+
+        assertSame(first, second, "Second verification should be a cache hit");
+        assertEquals(1, jwtService.cachedTokenCount());
+        assertEquals("alice", jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid(token, userDetails("alice")));
+        assertEquals(1, jwtService.cachedTokenCount());
+    }
+
+    @Test
+    void testTamperedTokenIsRejectedAndNotCached() {
+        String token = jwtService.generateToken("alice");
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verifyToken(tampered));
+        assertEquals(0, jwtService.cachedTokenCount());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LeaderboardIndex
+ */
+class LeaderboardIndexTest {
+
+    private LeaderboardIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LeaderboardIndex();
+    }
+
+    private List<String> usernames(List<LeaderboardIndex.RankedEntry> entries) {
+        return entries.stream().map(e -> e.entry().username()).toList();
+    }
+
+    @Test
+    void testPageIsOrderedByRatingThenUsername() {
+        index.update("carol", 1500, "IN");
+        index.update("alice", 1800, "IN");
+        index.update("bob", 1500, "US");
+        index.update("dave", 900, null);
+
+        List<LeaderboardIndex.RankedEntry> page = index.page(0, 10);
+
+        assertEquals(List.of("alice", "bob", "carol", "dave"), usernames(page));
+        assertEquals(List.of(1, 2, 2, 4), page.stream().map(LeaderboardIndex.RankedEntry::rank).toList(),
+                     "Tied players should share a competition rank");
+    }
+
+    @Test
+    void testPagingSkipsAcrossBuckets() {
+        for (int i = 0; i < 100; i++) {
+            index.update("p" + i, 1000 + (i % 10) * 50, null);
+        }
+
+        List<String> all = usernames(index.page(0, 100));
+        List<String> stitched = new ArrayList<>();
+        for (int offset = 0; offset < 100; offset += 7) {
+            stitched.addAll(usernames(index.page(offset, 7)));
+        }
+
+        assertEquals(all, stitched);
+        assertTrue(index.page(100, 10).isEmpty());
+    }
+
+    @Test
+    void testUpdateMovesPlayerAndRankFollows() {
+        index.update("alice", 1200, null);
+        index.update("bob", 1300, null);
+        assertEquals(2, index.rankOf("alice").getAsInt());
+
+        index.update("alice", 1400, null);
+
+        assertEquals(1, index.rankOf("alice").getAsInt());
+        assertEquals(2, index.rankOf("bob").getAsInt());
+        assertEquals(2, index.size());
+        assertTrue(index.rankOf("nobody").isEmpty());
+    }
+
+    @Test
+    void testAroundReturnsNeighbours() {
+        for (int i = 0; i < 20; i++) {
+            index.update(String.format("p%02d", i), 2000 - i * 10, null);
+        }
+
+        assertEquals(List.of("p08", "p09", "p10", "p11", "p12"), usernames(index.around("p10", 2)));
+        assertEquals(List.of("p00", "p01", "p02"), usernames(index.around("p00", 2)));
+        assertEquals(List.of("p17", "p18", "p19"), usernames(index.around("p19", 2)));
+    }
+
+    @Test
+    void testMatchesNaiveSortUnderRandomUpdates() {
+        Random random = new Random(42);
+        Map<String, Integer> ratings = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "u" + random.nextInt(500);
+            int rating = 800 + random.nextInt(1200);
+            ratings.put(name, rating);
+            index.update(name, rating, null);
+            if (random.nextInt(10) == 0) {
+                String gone = "u" + random.nextInt(500);
+                ratings.remove(gone);
+                index.remove(gone);
+            }
+        }
+
+        List<String> expected = ratings.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        assertEquals(expected, usernames(index.page(0, ratings.size())));
+        for (String name : expected) {
+            int higher = (int) ratings.values().stream().filter(r -> r > ratings.get(name)).count();
+            assertEquals(higher + 1, index.rankOf(name).getAsInt());
+        }
+    }
+
+    @Test
+    void testCrowdedBucketKeepsUsernameOrderThroughChurn() {
+        Random random = new Random(11);
+        TreeSet<String> expected = new TreeSet<>();
+        for (int i = 0; i < 5000; i++) {
+            String username = "p" + random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                index.remove(username);
+                expected.remove(username);
+            } else {
+                index.update(username, 1200, null);
+                expected.add(username);
+            }
+        }
+        index.update("top", 1300, null);
+
+        List<String> below = new ArrayList<>(expected);
+        assertEquals(below, usernames(index.page(1, below.size())));
+        String middle = below.get(below.size() / 2);
+        assertEquals(below.subList(below.size() / 2 - 2, below.size() / 2 + 3), usernames(index.around(middle, 2)));
+        assertEquals(OptionalInt.of(2), index.rankOf(middle));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.GameType;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LeaderboardService
+ */
+class LeaderboardServiceTest {
+
+    private final LeaderboardService leaderboardService = new LeaderboardService(null, null);
+
+    @Test
+    void testRatingChangeIsRankedOnlyOnceCommitted() {
+        leaderboardService.onRatingChanged(GameType.BLITZ, "alice", 1500, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            leaderboardService.onRatingChanged(GameType.BLITZ, "alice", 1530, null);
+            leaderboardService.onRatingChanged(GameType.BLITZ, "bob", 1470, null);
+            assertEquals(1500, leaderboardService.getCachedRating("alice", GameType.BLITZ));
+            assertEquals(OptionalInt.empty(), leaderboardService.getRank(GameType.BLITZ, "bob"));
+
+            // Rolled back: nothing changes
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1500, leaderboardService.getCachedRating("alice", GameType.BLITZ));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            leaderboardService.onRatingChanged(GameType.BLITZ, "alice", 1530, null);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1530, leaderboardService.getCachedRating("alice", GameType.BLITZ));
+    }
+
+    @Test
+    void testPageNumberPastTheEndIsEmpty() {
+        leaderboardService.onRatingChanged(GameType.STANDARD, "alice", 1500, null);
+
+        assertEquals(1, leaderboardService.getPage(GameType.STANDARD, 0, 50).size());
+        assertTrue(leaderboardService.getPage(GameType.STANDARD, 1, 50).isEmpty());
+        assertTrue(leaderboardService.getPage(GameType.STANDARD, Integer.MAX_VALUE, 100).isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameSnapshot;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LiveGameReadModel
+ */
+class LiveGameReadModelTest {
+
+    @Test
+    void testMovesReplaceStateAndKeepPlayers() {
+        User alice = new User();
+        alice.setUsername("alice");
+        User bob = new User();
+        bob.setUsername("bob");
+        Match match = new Match(alice, bob, MatchStatus.IN_PROGRESS, 0);
+        match.setId(7L);
+
+        String[][] board = new String[8][8];
+        board[0][4] = "k";
+        board[7][4] = "K";
+        LiveGameReadModel readModel = new LiveGameReadModel();
+        LiveGameReadModel.LiveGameView view = readModel.register(match, snapshot(board, true, 0, 3));
+        assertTrue(view.isMyTurn("alice"));
+        assertFalse(view.isMyTurn("bob"));
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w KQkq - 0 1", view.fen());
+
+        board = new String[8][8];
+        board[0][4] = "k";
+        board[6][4] = "K";
+        readModel.apply(snapshot(board, false, 1, 5));
+        view = readModel.get(7L);
+        assertSame(alice, view.player1());
+        assertTrue(view.isMyTurn("bob"));
+        assertEquals(5, view.state().getSeq());
+        assertEquals("4k3/8/8/8/8/8/4K3/8 b KQkq - 0 1", view.fen());
+
+        // A game handed over from another node has no players until it is first read here
+        GameSnapshot handedOver = snapshot(board, false, 1, 5);
+        handedOver.setMatchId(8L);
+        readModel.apply(handedOver);
+        assertFalse(readModel.get(8L).hasPlayers());
+
+        readModel.remove(7L);
+        assertNull(readModel.get(7L));
+        assertEquals(1, readModel.size());
+    }
+
+    private static GameSnapshot snapshot(String[][] board, boolean whiteTurn, int ply, long seq) {
+        return new GameSnapshot(7L, board, whiteTurn, "IN_PROGRESS", "alice", "bob", ply, 0, 0, seq, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MatchService
+ */
+class MatchServiceTest {
+
+    private static final long MATCH = 42L;
+
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final MatchRepo matchRepo = mock(MatchRepo.class);
+    private final GameService gameService = mock(GameService.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final MatchService matchService = new MatchService(mock(JwtService.class), userRepo, matchRepo,
+            gameService, new LeaderboardService(null, null), new MatchQueueService(), messagingTemplate,
+            100, 10, 800, "instant", 50, 5);
+
+    @Test
+    void testPairingPushesMatchFoundToBothPlayers() {
+        user("alice");
+        user("bob");
+        when(matchRepo.save(any())).thenAnswer(call -> {
+            Match match = call.getArgument(0);
+            match.setId(MATCH);
+            return match;
+        });
+
+        assertEquals(Optional.of(-1L), matchService.joinQueue("alice", GameType.BLITZ));
+        assertEquals(Optional.of(MATCH), matchService.joinQueue("bob", GameType.BLITZ));
+
+        assertEquals(Map.of("matchId", MATCH, "gameType", GameType.BLITZ, "playerColor", "white",
+                "opponent", "bob", "opponentRating", LeaderboardService.DEFAULT_RATING), pushTo("alice"));
+        assertEquals(Map.of("matchId", MATCH, "gameType", GameType.BLITZ, "playerColor", "black",
+                "opponent", "alice", "opponentRating", LeaderboardService.DEFAULT_RATING), pushTo("bob"));
+        verify(gameService, times(1)).startGame(any());
+    }
+
+    @Test
+    void testCheckMatchHandsOutThePendingMatchOnce() {
+        user("alice");
+        user("bob");
+        when(matchRepo.save(any())).thenAnswer(call -> {
+            Match match = call.getArgument(0);
+            match.setId(MATCH);
+            return match;
+        });
+
+        matchService.joinQueue("alice", GameType.BLITZ);
+        // Still waiting: -1, and asking again does not change that
+        assertEquals(Optional.of(-1L), matchService.checkMatch("alice"));
+        assertEquals(Optional.of(-1L), matchService.checkMatch("alice"));
+
+        matchService.joinQueue("bob", GameType.BLITZ);
+
+        assertEquals(Optional.of(MATCH), matchService.checkMatch("alice"));
+        assertEquals(Optional.empty(), matchService.checkMatch("alice"));
+        // The joiner got the id in the join response, so nothing is pending for them
+        assertEquals(Optional.empty(), matchService.checkMatch("bob"));
+    }
+
+    private void user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        when(userRepo.getUserByUsername(username)).thenReturn(user);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> pushTo(String username) {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1))
+                .convertAndSendToUser(eq(username), eq("/queue/match-found"), payload.capture());
+        return (Map<String, Object>) payload.getValue();
+    }
+}
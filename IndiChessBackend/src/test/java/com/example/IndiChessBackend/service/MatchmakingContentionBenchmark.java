@@ -0,0 +1,88 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Contention benchmark for MatchmakingPool (not a test; run the main method).
+ *
+ * Each thread joins, checks and cancels players in its own rating band, like players of
+ * different strength queueing at the same time. The same workload runs against the pool as is
+ * and against the pool behind one global lock (how createMatch, checkMatch and cancelWaiting
+ * used to serialize), and reports operations per second for 1..N threads.
+ *
+ *   args: [max threads, default available processors] [operations per thread, default 200000]
+ */
+public class MatchmakingContentionBenchmark {
+
+    private static final Object GLOBAL_LOCK = new Object();
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        // Warm up the JIT on both paths
+        run(maxThreads, opsPerThread / 4, false);
+        run(maxThreads, opsPerThread / 4, true);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double lockFree = run(threads, opsPerThread, false);
+            double locked = run(threads, opsPerThread, true);
+            System.out.printf("threads=%d | lock-free %,.0f ops/s | global lock %,.0f ops/s | x%.1f%n",
+                    threads, lockFree, locked, lockFree / locked);
+        }
+    }
+
+    static double run(int threads, int opsPerThread, boolean globalLock) throws Exception {
+        MatchmakingPool pool = new MatchmakingPool(100, 10, 800, Long.MAX_VALUE / 4);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int band = 400 + t * 300;
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                Random random = new Random(thread);
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    String username = "t" + thread + "-" + random.nextInt(5_000);
+                    int op = random.nextInt(10);
+                    if (op < 6) {
+                        int rating = band + random.nextInt(250);
+                        call(globalLock, () -> pool.join(username, rating, 0));
+                    } else if (op < 9) {
+                        call(globalLock, () -> pool.contains(username));
+                    } else {
+                        call(globalLock, () -> pool.remove(username));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return (double) threads * opsPerThread / (elapsedNanos / 1e9);
+    }
+
+    private static void call(boolean globalLock, Runnable op) {
+        if (globalLock) {
+            synchronized (GLOBAL_LOCK) {
+                op.run();
+            }
+        } else {
+            op.run();
+        }
+    }
+}
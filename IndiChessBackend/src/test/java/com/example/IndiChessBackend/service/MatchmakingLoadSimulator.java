@@ -0,0 +1,227 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load simulator for MatchService (not a test; run the main method).
+ *
+ * Synthetic users arrive on a Poisson process and call joinQueue from a pool of request
+ * threads, while the scheduled sweeps run as they would in the app. UserRepo and MatchRepo are
+ * in-memory stand-ins (with an optional per-call delay to stand in for the database), and
+ * match-found pushes are captured from the messaging template. Reports pairs/sec, queue depth,
+ * time-to-match percentiles and how long request threads were blocked on monitors.
+ *
+ *   args (key=value): rate=500 (arrivals/s) seconds=30 threads=8 mode=instant|batch
+ *                     db-latency-ms=0 sweep-ms=1000 tick-ms=250
+ */
+public class MatchmakingLoadSimulator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            options.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        System.out.println(run(
+                Double.parseDouble(options.getOrDefault("rate", "500")),
+                Integer.parseInt(options.getOrDefault("seconds", "30")),
+                Integer.parseInt(options.getOrDefault("threads", "8")),
+                options.getOrDefault("mode", "instant"),
+                Long.parseLong(options.getOrDefault("db-latency-ms", "0")),
+                Long.parseLong(options.getOrDefault("sweep-ms", "1000")),
+                Long.parseLong(options.getOrDefault("tick-ms", "250"))));
+    }
+
+    static Report run(double arrivalsPerSecond, int seconds, int threads, String mode,
+                      long dbLatencyMs, long sweepMs, long tickMs) throws Exception {
+        Random random = new Random(7);
+        Map<String, User> users = new ConcurrentHashMap<>();
+        Map<String, Long> joinedAt = new ConcurrentHashMap<>();
+        List<Long> timesToMatch = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong matches = new AtomicLong();
+
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            // /user/{username}/queue/match-found
+            if (destination != null && destination.endsWith("/queue/match-found")) {
+                String username = destination.split("/")[2];
+                Long joined = joinedAt.remove(username);
+                if (joined != null) {
+                    timesToMatch.add(System.currentTimeMillis() - joined);
+                }
+            }
+            return true;
+        });
+        UserRepo userRepo = inMemoryUserRepo(users, dbLatencyMs);
+        MatchRepo matchRepo = inMemoryMatchRepo(matches, dbLatencyMs);
+        LeaderboardService leaderboardService = new LeaderboardService(null, null);
+        GameService gameService = new GameService(matchRepo, userRepo, messagingTemplate,
+                new ChessMoveValidator(), null, null, null, null, new GameCluster(null, "local", "", "", 1, 3),
+                new GameEventLog(1), new LiveGameReadModel());
+        MatchService matchService = new MatchService(null, userRepo, matchRepo, gameService, leaderboardService,
+                new MatchQueueService(), messagingTemplate, 100, 10, 800, mode, 50, 5);
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean.isThreadContentionMonitoringSupported()) {
+            threadBean.setThreadContentionMonitoringEnabled(true);
+        }
+        Set<Long> requestThreadIds = ConcurrentHashMap.newKeySet();
+        ExecutorService requests = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "sim-request");
+            requestThreadIds.add(thread.threadId());
+            return thread;
+        });
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        scheduler.scheduleWithFixedDelay(matchService::pairWaitingPlayers, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(matchService::runMatchmakingTick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(matchService::expireWaitingPlayers, 1000, 1000, TimeUnit.MILLISECONDS);
+
+        List<Integer> depthSamples = Collections.synchronizedList(new ArrayList<>());
+        scheduler.scheduleAtFixedRate(() -> depthSamples.add(
+                        matchService.getQueueSizes().values().stream().mapToInt(Integer::intValue).sum()),
+                100, 100, TimeUnit.MILLISECONDS);
+
+        GameType[] types = GameType.values();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long nextArrival = start;
+        int arrivals = 0;
+        while (true) {
+            // Exponential gaps between arrivals make a Poisson process
+            nextArrival += (long) (-Math.log(1 - random.nextDouble()) / arrivalsPerSecond * 1e9);
+            if (nextArrival >= end) {
+                break;
+            }
+            long sleepNanos = nextArrival - System.nanoTime();
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+
+            String username = "sim" + arrivals++;
+            int rating = (int) Math.max(100, Math.min(3000, 1500 + random.nextGaussian() * 300));
+            GameType type = types[random.nextInt(types.length)];
+            User user = new User();
+            user.setUserId((long) arrivals);
+            user.setUsername(username);
+            user.setRating(rating);
+            users.put(username, user);
+            leaderboardService.onRatingChanged(type, username, rating, null);
+
+            requests.execute(() -> {
+                joinedAt.put(username, System.currentTimeMillis());
+                matchService.joinQueue(username, type);
+            });
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        requests.shutdown();
+        requests.awaitTermination(1, TimeUnit.MINUTES);
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+
+        long blockedCount = 0;
+        long blockedMs = 0;
+        for (long id : requestThreadIds) {
+            ThreadInfo info = threadBean.getThreadInfo(id);
+            if (info != null) {
+                blockedCount += info.getBlockedCount();
+                blockedMs += Math.max(0, info.getBlockedTime());
+            }
+        }
+
+        List<Long> sorted;
+        synchronized (timesToMatch) {
+            sorted = new ArrayList<>(timesToMatch);
+        }
+        Collections.sort(sorted);
+        IntSummaryStatistics depth;
+        synchronized (depthSamples) {
+            depth = depthSamples.stream().mapToInt(Integer::intValue).summaryStatistics();
+        }
+        return new Report(mode, arrivals, matches.get(), matches.get() / elapsedSeconds,
+                depth.getAverage(), depth.getMax(),
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                blockedCount, blockedMs);
+    }
+
+    record Report(String mode, int arrivals, long pairs, double pairsPerSecond,
+                  double meanQueueDepth, int maxQueueDepth,
+                  long p50TimeToMatchMs, long p95TimeToMatchMs, long p99TimeToMatchMs,
+                  long blockedCount, long blockedMs) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "mode=%s arrivals=%d pairs=%d (%.1f/s) | queue depth mean=%.1f max=%d | " +
+                    "time to match p50=%dms p95=%dms p99=%dms | request threads blocked %d times, %dms",
+                    mode, arrivals, pairs, pairsPerSecond, meanQueueDepth, maxQueueDepth,
+                    p50TimeToMatchMs, p95TimeToMatchMs, p99TimeToMatchMs, blockedCount, blockedMs);
+        }
+    }
+
+    // Only the lookups matchmaking and game initialization use
+    private static UserRepo inMemoryUserRepo(Map<String, User> users, long latencyMs) {
+        return (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(), new Class<?>[]{UserRepo.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUserByUsername", "findByUsername" -> {
+                        pause(latencyMs);
+                        yield users.get((String) args[0]);
+                    }
+                    case "toString" -> "InMemoryUserRepo";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static MatchRepo inMemoryMatchRepo(AtomicLong matches, long latencyMs) {
+        Map<Long, Match> rows = new ConcurrentHashMap<>();
+        return (MatchRepo) Proxy.newProxyInstance(MatchRepo.class.getClassLoader(), new Class<?>[]{MatchRepo.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        pause(latencyMs);
+                        Match match = (Match) args[0];
+                        if (match.getId() == null) {
+                            match.setId(matches.incrementAndGet());
+                        }
+                        rows.put(match.getId(), match);
+                        yield match;
+                    }
+                    case "findById" -> {
+                        pause(latencyMs);
+                        yield Optional.ofNullable(rows.get((Long) args[0]));
+                    }
+                    case "toString" -> "InMemoryMatchRepo";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static void pause(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1));
+    }
+}
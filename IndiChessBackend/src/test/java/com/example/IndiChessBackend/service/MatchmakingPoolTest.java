@@ -0,0 +1,134 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MatchmakingPool
+ */
+class MatchmakingPoolTest {
+
+    private static final long TTL = 5 * 60 * 1000L;
+
+    // 100 points at first, +10 per second waited, at most 800
+    private final MatchmakingPool pool = new MatchmakingPool(100, 10, 800, TTL);
+
+    @Test
+    void testPairsWithClosestRatingInWindow() {
+        pool.join("low", 1100, 0);
+        pool.join("high", 1340, 0);
+        pool.join("close", 1230, 0);
+
+        Optional<MatchmakingPool.Pairing> pairing = pool.join("me", 1250, 0);
+
+        assertTrue(pairing.isPresent());
+        assertEquals("close", pairing.get().waiting().username());
+        assertEquals("me", pairing.get().joining().username());
+        assertFalse(pool.contains("close"));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testWaitsWhenNobodyIsInWindow() {
+        pool.join("far", 1500, 0);
+
+        assertTrue(pool.join("me", 1200, 0).isEmpty());
+        assertTrue(pool.contains("me"));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testBothWindowsMustAcceptTheOpponent() {
+        // Waited 30s: accepts up to 400 points
+        pool.join("veteran", 1500, 0);
+        long now = 30_000;
+
+        // A fresh joiner's own window is still 100 points
+        assertTrue(pool.join("newcomer", 1200, now).isEmpty());
+
+        // ...until they have waited long enough too
+        List<MatchmakingPool.Pairing> pairings = pool.pairWaiting(now + 20_000);
+        assertEquals(1, pairings.size());
+        assertEquals("veteran", pairings.get(0).waiting().username());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testExpiredPlayersAreNeverPaired() {
+        pool.join("gone", 1200, 0);
+
+        assertTrue(pool.join("me", 1200, TTL + 1).isEmpty());
+        assertFalse(pool.contains("gone"));
+        assertTrue(pool.contains("me"));
+    }
+
+    @Test
+    void testExpireRemovesOnlyExpiredCurrentTickets() {
+        pool.join("first", 1000, 0);
+        pool.join("cancelled", 2000, 1_000);
+        pool.remove("cancelled");
+        pool.join("late", 3000, 60_000);
+
+        assertEquals(1, pool.expire(TTL + 2_000));
+        assertFalse(pool.contains("first"));
+        assertTrue(pool.contains("late"));
+        assertEquals(0, pool.expire(TTL + 2_000));
+        assertEquals(1, pool.expire(TTL + 60_001));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testConcurrentJoinsNeverPairAPlayerTwice() throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<MatchmakingPool.Pairing>>> results = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                Random random = new Random(thread);
+                List<MatchmakingPool.Pairing> pairings = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    // Narrow rating range so threads keep racing for the same opponents
+                    pool.join("t" + thread + "-" + i, 1200 + random.nextInt(200), 0).ifPresent(pairings::add);
+                }
+                return pairings;
+            }));
+        }
+        start.countDown();
+
+        Set<String> paired = new HashSet<>();
+        for (Future<List<MatchmakingPool.Pairing>> result : results) {
+            for (MatchmakingPool.Pairing pairing : result.get(30, TimeUnit.SECONDS)) {
+                assertTrue(paired.add(pairing.waiting().username()), "Paired twice: " + pairing.waiting());
+                assertTrue(paired.add(pairing.joining().username()), "Paired twice: " + pairing.joining());
+            }
+        }
+        executor.shutdown();
+
+        // Everyone is either in exactly one pairing or still waiting
+        assertEquals(threads * perThread, paired.size() + pool.size());
+        for (MatchmakingPool.Ticket ticket : pool.snapshot(0)) {
+            assertFalse(paired.contains(ticket.username()));
+        }
+    }
+
+    @Test
+    void testRejoinKeepsOriginalWaitAndCancelRemoves() {
+        pool.join("me", 1200, 0);
+        pool.join("me", 1200, 10_000);
+        // Widened window from the first join (200 points) reaches this opponent
+        assertTrue(pool.join("other", 1390, 10_000).isEmpty());
+        assertEquals(1, pool.pairWaiting(30_000).size());
+
+        pool.join("again", 1200, 40_000);
+        assertTrue(pool.remove("again"));
+        assertFalse(pool.remove("again"));
+    }
+}
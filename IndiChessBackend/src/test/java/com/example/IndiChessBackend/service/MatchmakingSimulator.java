@@ -0,0 +1,111 @@
+package com.example.IndiChessBackend.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * Offline simulator for the batch matchmaker (not a test; run the main method).
+ *
+ * Fills a pool with a backlog of waiting players, then runs matchmaking ticks on a simulated
+ * clock with a steady stream of arrivals, and reports pairing quality, wait-time percentiles
+ * and CPU time per tick.
+ *
+ *   args: [queued players] [ticks, default 240] [arrivals per tick, default queued/100]
+ *   (no args: 10k and 100k queued)
+ */
+public class MatchmakingSimulator {
+
+    private static final long TICK_MS = 250;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            run(10_000, 240, 100);
+            run(100_000, 240, 1_000);
+            return;
+        }
+        int queued = Integer.parseInt(args[0]);
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 240;
+        int arrivalsPerTick = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, queued / 100);
+        run(queued, ticks, arrivalsPerTick);
+    }
+
+    static Report run(int queued, int ticks, int arrivalsPerTick) {
+        Random random = new Random(7);
+        MatchmakingPool pool = new MatchmakingPool(100, 10, 800, Long.MAX_VALUE / 4);
+        BatchMatchmaker matchmaker = new BatchMatchmaker(50, 5);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        long now = 0;
+        int nextPlayer = 0;
+        // Backlog: players who have already waited up to a minute
+        for (int i = 0; i < queued; i++) {
+            pool.enqueue("p" + nextPlayer++, randomRating(random), now - random.nextInt(60_000));
+        }
+
+        List<Integer> ratingGaps = new ArrayList<>();
+        List<Long> waits = new ArrayList<>();
+        long[] cpuNanos = new long[ticks];
+
+        for (int tick = 0; tick < ticks; tick++) {
+            now += TICK_MS;
+            for (int i = 0; i < arrivalsPerTick; i++) {
+                pool.enqueue("p" + nextPlayer++, randomRating(random), now - random.nextInt((int) TICK_MS));
+            }
+
+            long tickNow = now;
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            List<MatchmakingPool.Ticket> waiting = pool.snapshot(tickNow);
+            List<MatchmakingPool.Pairing> pairings = matchmaker.pair(waiting, tickNow, t -> pool.window(t, tickNow));
+            for (MatchmakingPool.Pairing pairing : pairings) {
+                pool.claim(pairing);
+            }
+            cpuNanos[tick] = threads.getCurrentThreadCpuTime() - cpuStart;
+
+            for (MatchmakingPool.Pairing pairing : pairings) {
+                ratingGaps.add(Math.abs(pairing.waiting().rating() - pairing.joining().rating()));
+                waits.add(tickNow - pairing.waiting().joinedAtMillis());
+                waits.add(tickNow - pairing.joining().joinedAtMillis());
+            }
+        }
+
+        Report report = new Report(queued, ratingGaps.size(), pool.size(),
+                mean(ratingGaps), percentile(ratingGaps, 0.95),
+                percentile(waits, 0.50), percentile(waits, 0.95), percentile(waits, 0.99),
+                Arrays.stream(cpuNanos).average().orElse(0) / 1_000_000.0,
+                Arrays.stream(cpuNanos).max().orElse(0) / 1_000_000.0);
+        System.out.println(report);
+        return report;
+    }
+
+    record Report(int queued, int pairs, int stillWaiting,
+                  double meanRatingGap, double p95RatingGap,
+                  double p50WaitMs, double p95WaitMs, double p99WaitMs,
+                  double meanCpuMsPerTick, double maxCpuMsPerTick) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "queued=%d pairs=%d stillWaiting=%d | rating gap mean=%.1f p95=%.0f | " +
+                    "wait p50=%.0fms p95=%.0fms p99=%.0fms | cpu/tick mean=%.2fms max=%.2fms",
+                    queued, pairs, stillWaiting, meanRatingGap, p95RatingGap,
+                    p50WaitMs, p95WaitMs, p99WaitMs, meanCpuMsPerTick, maxCpuMsPerTick);
+        }
+    }
+
+    private static int randomRating(Random random) {
+        return (int) Math.max(100, Math.min(3000, 1500 + random.nextGaussian() * 300));
+    }
+
+    private static double mean(List<? extends Number> values) {
+        return values.stream().mapToDouble(Number::doubleValue).average().orElse(0);
+    }
+
+    private static double percentile(List<? extends Number> values, double p) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        double[] sorted = values.stream().mapToDouble(Number::doubleValue).sorted().toArray();
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+}
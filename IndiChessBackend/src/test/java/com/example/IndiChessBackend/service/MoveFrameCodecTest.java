@@ -0,0 +1,86 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.MoveDTO;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MoveFrameCodec
+ */
+class MoveFrameCodecTest {
+
+    private static final String[][] AFTER_E4 = {
+            {"r", "n", "b", "q", "k", "b", "n", "r"},
+            {"p", "p", "p", "p", "p", "p", "p", "p"},
+            {"", "", "", "", "", "", "", ""},
+            {"", "", "", "", "", "", "", ""},
+            {"", "", "", "", "P", "", "", ""},
+            {"", "", "", "", "", "", "", ""},
+            {"P", "P", "P", "P", "", "P", "P", "P"},
+            {"R", "N", "B", "Q", "K", "B", "N", "R"}};
+
+    @Test
+    void testMoveFrameRoundTrip() {
+        MoveDTO move = e4();
+        move.setIsPromotion(true);
+        move.setPromotedTo("knight");
+        move.setCapturedPiece("p");
+
+        MoveFrameCodec.MoveFrame frame = MoveFrameCodec.decodeMove(MoveFrameCodec.encodeMove(move));
+
+        assertEquals(6 * 8 + 4, frame.from());
+        assertEquals(4 * 8 + 4, frame.to());
+        assertEquals(1, frame.promotion());
+        assertEquals(MoveFrameCodec.FLAG_CAPTURE | MoveFrameCodec.FLAG_PROMOTION, frame.flags());
+        assertEquals(1, frame.ply());
+        assertEquals(4_000_000_000L, frame.clockMillis());
+        assertEquals(Long.parseUnsignedLong(move.getPositionHash(), 16), frame.positionHash());
+    }
+
+    @Test
+    void testZobristHashDependsOnSideToMove() {
+        long blackToMove = ZobristHasher.hash(AFTER_E4, false);
+
+        assertEquals(blackToMove, ZobristHasher.hash(AFTER_E4, false));
+        assertNotEquals(blackToMove, ZobristHasher.hash(AFTER_E4, true));
+    }
+
+    @Test
+    void testMoveFrameIsAtLeastTenTimesSmallerThanJson() {
+        MoveDTO move = e4();
+        int json = JsonMapper.builder().build().writeValueAsBytes(move).length;
+        int binary = MoveFrameCodec.encodeMove(move).length;
+
+        assertEquals(MoveFrameCodec.MOVE_FRAME_SIZE, binary);
+        assertTrue(json >= 10 * binary, "JSON " + json + " bytes vs binary " + binary);
+    }
+
+    private static MoveDTO e4() {
+        MoveDTO move = new MoveDTO();
+        move.setFromRow(6);
+        move.setFromCol(4);
+        move.setToRow(4);
+        move.setToCol(4);
+        move.setPiece("P");
+        move.setCastled(false);
+        move.setIsEnPassant(false);
+        move.setIsPromotion(false);
+        move.setFenBefore("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        move.setFenAfter("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        move.setBoard(AFTER_E4);
+        move.setIsWhiteTurn(false);
+        move.setPlayerColor("white");
+        move.setMatchId(42L);
+        move.setTimestamp(LocalDateTime.of(2026, 1, 1, 12, 0));
+        move.setMoveNotation("e4");
+        move.setPlayerUsername("alice");
+        move.setPly(1);
+        move.setClockMillis(4_000_000_000L);
+        move.setPositionHash(String.format("%016x", ZobristHasher.hash(AFTER_E4, false)));
+        return move;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.MoveDTO;
+import com.example.IndiChessBackend.model.DTO.MoveHistoryDTO;
+import com.example.IndiChessBackend.model.PieceColor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PackedMoveList
+ */
+class PackedMoveListTest {
+
+    @Test
+    void testArchivedMovesReadBackAsHistory() {
+        PackedMoveList moves = new PackedMoveList();
+        moves.add(move(6, 4, 4, 4, "P", null));                 // e4
+        moves.add(move(0, 6, 2, 5, "n", null));                 // Nf6
+        MoveDTO capture = move(4, 4, 3, 5, "P", "p");           // exf5
+        moves.add(capture);
+        MoveDTO promotion = move(1, 0, 0, 1, "P", "n");         // axb8=Q
+        promotion.setIsPromotion(true);
+        promotion.setPromotedTo("queen");
+        for (int i = 0; i < 20; i++) {
+            moves.add(promotion);
+        }
+
+        byte[] archived = moves.toBytes();
+        assertEquals(23 * 3, archived.length);
+        List<MoveHistoryDTO> history = PackedMoveList.fromBytes(archived).toHistory();
+
+        assertEquals(moves.toHistory(), history);
+        assertEquals(23, history.size());
+        assertEquals(new MoveHistoryDTO(1, 1, PieceColor.WHITE, "e2e4", "e4"), history.get(0));
+        assertEquals(new MoveHistoryDTO(2, 1, PieceColor.BLACK, "g8f6", "Nf6"), history.get(1));
+        assertEquals(new MoveHistoryDTO(3, 2, PieceColor.WHITE, "e4f5", "exf5"), history.get(2));
+        assertEquals("a7b8q", history.get(22).getUci());
+        assertEquals("axb8", history.get(22).getSan());
+        assertEquals(0, PackedMoveList.fromBytes(null).size());
+    }
+
+    private static MoveDTO move(int fromRow, int fromCol, int toRow, int toCol, String piece, String captured) {
+        MoveDTO move = new MoveDTO();
+        move.setFromRow(fromRow);
+        move.setFromCol(fromCol);
+        move.setToRow(toRow);
+        move.setToCol(toCol);
+        move.setPiece(piece);
+        move.setCapturedPiece(captured);
+        return move;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.*;
+import com.example.IndiChessBackend.repo.RatingHistoryRepo;
+import com.example.IndiChessBackend.repo.RatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RatingReplayEngine
+ */
+class RatingReplayEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final RatingReplayEngine.InitialRatings DEFAULT_SEEDS =
+            (userId, gameType) -> LeaderboardService.DEFAULT_RATING;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testParallelEloReplayMatchesSequentialRules() {
+        List<RatingReplayEngine.ReplayGame> games = randomGames(20_000, 500, 42);
+
+        RatingReplayEngine engine = new RatingReplayEngine(false, null, 3_600_000, pool, DEFAULT_SEEDS);
+        // Several chunks, like the recompute job
+        for (int from = 0; from < games.size(); from += 5000) {
+            engine.apply(games.subList(from, from + 5000));
+        }
+
+        // Reference: one game at a time, in order
+        Map<String, Integer> expected = new HashMap<>();
+        for (RatingReplayEngine.ReplayGame game : games) {
+            String k1 = game.gameType() + ":" + game.player1Id();
+            String k2 = game.gameType() + ":" + game.player2Id();
+            int r1 = expected.getOrDefault(k1, LeaderboardService.DEFAULT_RATING);
+            int r2 = expected.getOrDefault(k2, LeaderboardService.DEFAULT_RATING);
+            expected.put(k1, RatingService.calculateNewRating(r1, r2, game.player1Score()));
+            expected.put(k2, RatingService.calculateNewRating(r2, r1, 1.0 - game.player1Score()));
+        }
+
+        expected.forEach((key, rating) -> {
+            String[] parts = key.split(":");
+            RatingReplayEngine.PlayerState state = engine.getState(Long.parseLong(parts[1]), GameType.valueOf(parts[0])).orElseThrow();
+            assertEquals(rating, state.getRating(), "Rating of " + key);
+        });
+        assertEquals(games.size(), engine.getGamesApplied());
+        assertEquals(games.get(games.size() - 1), engine.lastApplied().orElseThrow());
+    }
+
+    @Test
+    void testCountersAndDirtyStates() {
+        RatingReplayEngine engine = new RatingReplayEngine(false, null, 3_600_000, pool, DEFAULT_SEEDS);
+        engine.apply(List.of(
+                game(1, 1, 2, 1.0, START),
+                game(2, 2, 1, 0.5, START.plusMinutes(1))));
+
+        RatingReplayEngine.PlayerState p1 = engine.getState(1, GameType.STANDARD).orElseThrow();
+        assertEquals(2, p1.getGamesPlayed());
+        assertEquals(1, p1.getWins());
+        assertEquals(1, p1.getDraws());
+        assertEquals(0, p1.getLosses());
+
+        assertEquals(2, engine.drainDirty().size());
+        assertTrue(engine.drainDirty().isEmpty());
+    }
+
+    @Test
+    void testGlickoRatesPerPeriodAndCheckpointsAtPeriodEnd() {
+        RatingReplayEngine engine = new RatingReplayEngine(true, new Glicko2Calculator(0.5), 3_600_000, pool, DEFAULT_SEEDS);
+
+        engine.apply(List.of(
+                game(1, 1, 2, 1.0, START.plusMinutes(5)),
+                game(2, 1, 3, 1.0, START.plusMinutes(10))));
+        // Period still open: nothing rated or checkpointed yet
+        assertTrue(engine.lastApplied().isEmpty());
+        assertTrue(engine.drainDirty().isEmpty());
+
+        engine.apply(List.of(game(3, 2, 3, 0.5, START.plusHours(1).plusMinutes(5))));
+        assertEquals(2L, engine.lastApplied().orElseThrow().matchId());
+        assertEquals(3, engine.drainDirty().size());
+
+        RatingReplayEngine.PlayerState winner = engine.getState(1, GameType.STANDARD).orElseThrow();
+        assertTrue(winner.getRating() > LeaderboardService.DEFAULT_RATING);
+        assertNotNull(winner.getDeviation());
+
+        engine.finish();
+        assertEquals(3L, engine.lastApplied().orElseThrow().matchId());
+        assertEquals(3, engine.getGamesApplied());
+    }
+
+    @Test
+    void testFullRecomputeReproducesLiveRatings() {
+        // A sign-up (250), an OAuth user (no users.rating), a long-standing player and a newcomer
+        // who never plays STANDARD
+        List<User> users = List.of(user(1L, 250), user(2L, null), user(3L, 1800), user(4L, 250));
+        Map<String, Rating> rows = new HashMap<>();
+        RatingRepo ratingRepo = mock(RatingRepo.class);
+        when(ratingRepo.findByUserInAndGameType(any(), any())).thenAnswer(call -> {
+            Collection<User> players = call.getArgument(0);
+            GameType gameType = call.getArgument(1);
+            return players.stream().map(u -> rows.get(gameType + ":" + u.getUserId())).filter(Objects::nonNull).toList();
+        });
+        when(ratingRepo.insertIfAbsent(anyLong(), anyString(), anyInt())).thenAnswer(call -> {
+            Long userId = call.getArgument(0);
+            GameType gameType = GameType.valueOf(call.getArgument(1));
+            rows.putIfAbsent(gameType + ":" + userId,
+                    new Rating(users.get((int) (long) userId - 1), gameType, call.<Integer>getArgument(2)));
+            return 1;
+        });
+        when(ratingRepo.saveAll(any())).thenAnswer(call -> {
+            Iterable<Rating> saved = call.getArgument(0);
+            saved.forEach(row -> rows.put(row.getGameType() + ":" + row.getUser().getUserId(), row));
+            return saved;
+        });
+        RatingService live = new RatingService(mock(UserRepo.class), ratingRepo, mock(RatingHistoryRepo.class),
+                new LeaderboardService(null, null), null);
+
+        Random random = new Random(3);
+        List<RatingReplayEngine.ReplayGame> games = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            User player1 = users.get(random.nextInt(4));
+            User player2 = users.get((users.indexOf(player1) + 1 + random.nextInt(3)) % 4);
+            GameType gameType = player1.getUserId() == 4L || player2.getUserId() == 4L || random.nextBoolean()
+                    ? GameType.BLITZ : GameType.STANDARD;
+            MatchStatus status = MatchStatus.values()[1 + random.nextInt(3)];
+            Match match = new Match(player1, player2, status, 0);
+            match.setId((long) i + 1);
+            match.setGameType(gameType);
+            live.updateRatingsAfterGame(match);
+            games.add(new RatingReplayEngine.ReplayGame(i + 1, player1.getUserId(), player2.getUserId(), gameType,
+                    RatingRecomputeService.player1Score(status), START.plusMinutes(i)));
+        }
+
+        // What a fresh recompute sees: rows reset to where they started, users.rating as left by
+        // live play (unchanged for users without STANDARD games)
+        RatingReplayEngine engine = new RatingReplayEngine(false, null, 3_600_000, pool,
+                (userId, gameType) -> RatingService.initialRating(users.get((int) userId - 1).getRating(), gameType));
+        rows.values().forEach(row -> engine.seed(new RatingReplayEngine.PlayerState(
+                row.getUser().getUserId(), row.getGameType(), row.getInitialRating())));
+        engine.apply(games);
+
+        assertEquals(250, rows.get("STANDARD:1").getInitialRating());
+        assertEquals(LeaderboardService.DEFAULT_RATING, rows.get("STANDARD:2").getInitialRating());
+        assertEquals(250, users.get(3).getRating());
+        rows.values().forEach(row -> {
+            RatingReplayEngine.PlayerState replayed =
+                    engine.getState(row.getUser().getUserId(), row.getGameType()).orElseThrow();
+            String key = row.getGameType() + ":" + row.getUser().getUserId();
+            assertEquals(row.getRating(), replayed.getRating(), "Rating of " + key);
+            assertEquals(row.getGamesPlayed(), replayed.getGamesPlayed(), "Games of " + key);
+            assertEquals(row.getWins(), replayed.getWins(), "Wins of " + key);
+            assertEquals(row.getHistoryPoints(), replayed.getHistoryPoints(), "History of " + key);
+        });
+
+        // Without seeded rows (a player's first game in the replay) the same rule applies
+        RatingReplayEngine unseeded = new RatingReplayEngine(false, null, 3_600_000, pool,
+                (userId, gameType) -> RatingService.initialRating(userId == 1L ? 250 : null, gameType));
+        unseeded.apply(List.of(game(1, 1, 2, 1.0, START)));
+        assertEquals(RatingService.calculateNewRating(250, LeaderboardService.DEFAULT_RATING, 1.0),
+                unseeded.getState(1, GameType.STANDARD).orElseThrow().getRating());
+    }
+
+    private static User user(Long id, Integer rating) {
+        User user = new User();
+        user.setUserId(id);
+        user.setUsername("player" + id);
+        user.setRating(rating);
+        return user;
+    }
+
+    private static List<RatingReplayEngine.ReplayGame> randomGames(int count, int players, long seed) {
+        Random random = new Random(seed);
+        GameType[] types = GameType.values();
+        List<RatingReplayEngine.ReplayGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long p1 = random.nextInt(players);
+            long p2 = (p1 + 1 + random.nextInt(players - 1)) % players;
+            double score = random.nextInt(3) / 2.0;
+            games.add(new RatingReplayEngine.ReplayGame(i + 1, p1, p2, types[random.nextInt(types.length)],
+                    score, START.plusSeconds(i)));
+        }
+        return games;
+    }
+
+    private static RatingReplayEngine.ReplayGame game(long id, long p1, long p2, double score, LocalDateTime at) {
+        return new RatingReplayEngine.ReplayGame(id, p1, p2, GameType.STANDARD, score, at);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.*;
+import com.example.IndiChessBackend.repo.RatingHistoryRepo;
+import com.example.IndiChessBackend.repo.RatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RatingService's rating bookkeeping
+ */
+class RatingServiceTest {
+
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final RatingRepo ratingRepo = mock(RatingRepo.class);
+    private final RatingHistoryRepo ratingHistoryRepo = mock(RatingHistoryRepo.class);
+    private final LeaderboardService leaderboardService = new LeaderboardService(null, null);
+    private final RatingService ratingService =
+            new RatingService(userRepo, ratingRepo, ratingHistoryRepo, leaderboardService, null);
+
+    // user_ratings as the database holds it, by game type and user id
+    private final Map<String, Rating> rows = new HashMap<>();
+    private final Map<Long, User> users = new HashMap<>();
+
+    {
+        when(ratingRepo.findByUserInAndGameType(any(), any())).thenAnswer(call -> {
+            Collection<User> players = call.getArgument(0);
+            GameType gameType = call.getArgument(1);
+            return players.stream().map(u -> rows.get(gameType + ":" + u.getUserId())).filter(Objects::nonNull).toList();
+        });
+        when(ratingRepo.insertIfAbsent(anyLong(), anyString(), anyInt())).thenAnswer(call -> {
+            Long userId = call.getArgument(0);
+            GameType gameType = GameType.valueOf(call.getArgument(1));
+            Rating row = new Rating(users.get(userId), gameType, call.getArgument(2));
+            return rows.putIfAbsent(gameType + ":" + userId, row) == null ? 1 : 0;
+        });
+    }
+
+    @Test
+    void testGameUpdatesOnlyItsGameTypesRatingsAndCounters() {
+        User alice = user(1L, "alice", 1400);
+        User bob = user(2L, "bob", 1400);
+        Rating aliceBlitz = new Rating(alice, GameType.BLITZ, 1500);
+        aliceBlitz.setWins(2);
+        aliceBlitz.setGamesPlayed(2);
+        rows.put("BLITZ:1", aliceBlitz);
+
+        ratingService.updateRatingsAfterGame(finished(alice, bob, GameType.BLITZ, MatchStatus.PLAYER1_WON));
+
+        Map<String, Rating> saved = savedRatings();
+        assertSame(aliceBlitz, saved.get("alice"));
+        assertEquals(RatingService.calculateNewRating(1500, 1200, 1.0), aliceBlitz.getRating());
+        assertEquals(3, aliceBlitz.getWins());
+        assertEquals(3, aliceBlitz.getGamesPlayed());
+
+        // bob had no BLITZ games: a new row from the default rating, not from his STANDARD one
+        Rating bobBlitz = saved.get("bob");
+        assertEquals(GameType.BLITZ, bobBlitz.getGameType());
+        assertEquals(RatingService.calculateNewRating(1200, 1500, 0.0), bobBlitz.getRating());
+        assertEquals(1, bobBlitz.getLosses());
+        assertEquals(1, bobBlitz.getGamesPlayed());
+
+        // users.rating mirrors STANDARD only
+        assertEquals(1400, alice.getRating());
+        verify(userRepo, never()).saveAll(any());
+        assertEquals(aliceBlitz.getRating(), leaderboardService.getCachedRating("alice", GameType.BLITZ));
+        assertEquals(LeaderboardService.DEFAULT_RATING, leaderboardService.getCachedRating("alice", GameType.STANDARD));
+    }
+
+    @Test
+    void testFirstStandardGameStartsFromUsersRatingAndMirrorsIt() {
+        User alice = user(1L, "alice", 250);
+        User bob = user(2L, "bob", 300);
+
+        ratingService.updateRatingsAfterGame(finished(alice, bob, GameType.STANDARD, MatchStatus.DRAW));
+
+        Map<String, Rating> saved = savedRatings();
+        assertEquals(RatingService.calculateNewRating(250, 300, 0.5), saved.get("alice").getRating());
+        assertEquals(RatingService.calculateNewRating(300, 250, 0.5), saved.get("bob").getRating());
+        assertEquals(1, saved.get("alice").getDraws());
+        assertEquals(saved.get("alice").getRating(), alice.getRating());
+        assertEquals(saved.get("bob").getRating(), bob.getRating());
+        verify(userRepo).saveAll(List.of(alice, bob));
+        verify(ratingHistoryRepo).saveAll(argThat(points -> ((Collection<?>) points).size() == 2));
+        verify(ratingRepo, times(2)).insertIfAbsent(anyLong(), eq("STANDARD"), anyInt());
+    }
+
+    @Test
+    void testFirstGamesRacingForANewRowShareIt() {
+        User alice = user(1L, "alice", 250);
+        User bob = user(2L, "bob", 300);
+        rows.put("BLITZ:2", new Rating(bob, GameType.BLITZ, 1200));
+        // alice's first BLITZ game elsewhere creates her row between our read and our insert
+        Rating concurrent = new Rating(alice, GameType.BLITZ, 1200);
+        concurrent.setGamesPlayed(1);
+        concurrent.setWins(1);
+        doAnswer(call -> {
+            rows.putIfAbsent("BLITZ:1", concurrent);
+            return 0;
+        }).when(ratingRepo).insertIfAbsent(1L, "BLITZ", 1200);
+
+        ratingService.updateRatingsAfterGame(finished(alice, bob, GameType.BLITZ, MatchStatus.PLAYER1_WON));
+
+        // The game lands on the existing row, read again under the lock
+        assertSame(concurrent, savedRatings().get("alice"));
+        assertEquals(2, concurrent.getGamesPlayed());
+        assertEquals(2, concurrent.getWins());
+        verify(ratingRepo, times(2)).findByUserInAndGameType(any(), eq(GameType.BLITZ));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Rating> savedRatings() {
+        ArgumentCaptor<Iterable<Rating>> rows = ArgumentCaptor.forClass(Iterable.class);
+        verify(ratingRepo).saveAll(rows.capture());
+        Map<String, Rating> byUsername = new HashMap<>();
+        rows.getValue().forEach(row -> byUsername.put(row.getUser().getUsername(), row));
+        return byUsername;
+    }
+
+    private static Match finished(User player1, User player2, GameType gameType, MatchStatus status) {
+        Match match = new Match(player1, player2, status, 0);
+        match.setId(9L);
+        match.setGameType(gameType);
+        return match;
+    }
+
+    private User user(Long id, String username, int rating) {
+        User user = new User();
+        user.setUserId(id);
+        user.setUsername(username);
+        user.setRating(rating);
+        users.put(id, user);
+        return user;
+    }
+
+    @Test
+    void testRecordRatingTracksExtremesAndSeq() {
+        Rating row = new Rating(null, GameType.BLITZ, 1200);
+
+        RatingHistory first = RatingService.recordRating(row, 7L, 1216, 1L, LocalDateTime.now());
+        RatingHistory second = RatingService.recordRating(row, 7L, 1180, 2L, LocalDateTime.now());
+
+        assertEquals(1, first.getSeq());
+        assertEquals(2, second.getSeq());
+        assertEquals(GameType.BLITZ, second.getGameType());
+        assertEquals(1180, row.getRating());
+        assertEquals(1216, row.getHighestRating());
+        assertEquals(1180, row.getLowestRating());
+        assertEquals(2, row.getHistoryPoints());
+    }
+
+    @Test
+    void testSampleSeqsKeepsFirstAndLast() {
+        assertEquals(List.of(1), RatingService.sampleSeqs(1, 200));
+        assertEquals(List.of(1, 2, 3), RatingService.sampleSeqs(3, 200));
+
+        List<Integer> sampled = RatingService.sampleSeqs(100_000, 200);
+        assertTrue(sampled.size() <= 200, "Too many points: " + sampled.size());
+        assertEquals(1, sampled.get(0));
+        assertEquals(100_000, sampled.get(sampled.size() - 1));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SpectatorQueue
+ */
+class SpectatorQueueTest {
+
+    @Test
+    void testSlowViewerSkipsToLatestPosition() {
+        SpectatorQueue queue = new SpectatorQueue(3);
+        assertTrue(queue.offer(position(1)));
+        assertFalse(queue.offer(position(2)));
+        assertFalse(queue.offer(position(3)));
+
+        queue.offer(position(4));
+
+        assertEquals(1, queue.size());
+        assertEquals(4, queue.poll().payload()[0]);
+        assertEquals(3, queue.conflated());
+    }
+
+    @Test
+    void testGameStateFramesSurviveConflation() {
+        SpectatorQueue queue = new SpectatorQueue(3);
+        queue.offer(position(1));
+        queue.offer(position(2));
+        queue.offer(position(3));
+
+        queue.offer(new SpectatorQueue.Frame(new byte[]{9}, false));
+
+        // The newest position stays so the viewer sees the final board before the result
+        assertEquals(3, queue.poll().payload()[0]);
+        assertEquals(9, queue.poll().payload()[0]);
+        assertNull(queue.poll());
+        assertEquals(2, queue.conflated());
+    }
+
+    @Test
+    void testQueueIsRescheduledOnlyAfterDraining() {
+        SpectatorQueue queue = new SpectatorQueue(8);
+        assertTrue(queue.offer(position(1)));
+        assertNotNull(queue.poll());
+        assertFalse(queue.offer(position(2)), "Still scheduled until a poll comes back empty");
+        assertNotNull(queue.poll());
+        assertNull(queue.poll());
+
+        assertTrue(queue.offer(position(3)));
+    }
+
+    private static SpectatorQueue.Frame position(int ply) {
+        return new SpectatorQueue.Frame(new byte[]{(byte) ply}, true);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.PieceColor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TournamentPairing
+ */
+class TournamentPairingTest {
+
+    @Test
+    void testSwissRoundsOfFiveThousandPlayers() {
+        int players = 5_001;
+        Random random = new Random(11);
+        Map<Long, int[]> state = new HashMap<>(); // points, white - black, last colour (1 white, -1 black), byes
+        Map<Long, Integer> ratings = new HashMap<>();
+        for (long id = 1; id <= players; id++) {
+            state.put(id, new int[4]);
+            ratings.put(id, 800 + random.nextInt(1600));
+        }
+        Set<Long> played = new HashSet<>();
+
+        for (int round = 1; round <= 9; round++) {
+            List<TournamentPairing.Entrant> entrants = new ArrayList<>();
+            state.forEach((id, s) -> entrants.add(new TournamentPairing.Entrant(id, s[0], ratings.get(id), s[1],
+                    s[2] == 0 ? null : s[2] > 0 ? PieceColor.WHITE : PieceColor.BLACK, s[3] > 0, null)));
+
+            TournamentPairing.SwissRound result = assertTimeout(Duration.ofSeconds(1),
+                    () -> TournamentPairing.swiss(entrants, played));
+
+            assertEquals(players / 2, result.boards().size());
+            assertEquals(0, result.repeats());
+            assertNotNull(result.byePlayerId());
+            assertEquals(0, state.get(result.byePlayerId())[3], "Second bye in round " + round);
+
+            Set<Long> seen = new HashSet<>();
+            seen.add(result.byePlayerId());
+            state.get(result.byePlayerId())[0] += 2;
+            state.get(result.byePlayerId())[3]++;
+            for (TournamentPairing.Board board : result.boards()) {
+                assertTrue(seen.add(board.whiteId()) && seen.add(board.blackId()), "Player on two boards");
+                assertTrue(played.add(TournamentPairing.pairKey(board.whiteId(), board.blackId())), "Rematch");
+                int[] white = state.get(board.whiteId());
+                int[] black = state.get(board.blackId());
+                white[1]++;
+                white[2] = 1;
+                black[1]--;
+                black[2] = -1;
+                int outcome = random.nextInt(3);
+                white[0] += outcome == 0 ? 2 : outcome == 1 ? 1 : 0;
+                black[0] += outcome == 2 ? 2 : outcome == 1 ? 1 : 0;
+            }
+            assertEquals(players, seen.size());
+        }
+
+        // Colours stay balanced: nobody is more than two games off after 9 rounds
+        state.values().forEach(s -> assertTrue(Math.abs(s[1]) <= 2, "Colour balance " + s[1]));
+    }
+
+    @Test
+    void testSwissPairsWithinScoreGroupsFirst() {
+        List<TournamentPairing.Entrant> entrants = List.of(
+                entrant(1, 4, 2000), entrant(2, 4, 1900), entrant(3, 4, 1800), entrant(4, 4, 1700),
+                entrant(5, 0, 1600), entrant(6, 0, 1500));
+        // 1 and 3 have already met: top half against bottom half becomes 1-4, 2-3
+        Set<Long> played = Set.of(TournamentPairing.pairKey(1, 3));
+
+        TournamentPairing.SwissRound round = TournamentPairing.swiss(entrants, played);
+
+        Set<Set<Long>> pairs = new HashSet<>();
+        round.boards().forEach(b -> pairs.add(Set.of(b.whiteId(), b.blackId())));
+        assertEquals(Set.of(Set.of(1L, 4L), Set.of(2L, 3L), Set.of(5L, 6L)), pairs);
+        assertNull(round.byePlayerId());
+    }
+
+    @Test
+    void testArenaSkipsPreviousOpponent() {
+        List<TournamentPairing.Entrant> waiting = List.of(
+                new TournamentPairing.Entrant(1, 6, 1500, 0, null, false, 2L),
+                new TournamentPairing.Entrant(2, 6, 1490, 0, null, false, 1L),
+                new TournamentPairing.Entrant(3, 4, 1480, 0, null, false, null));
+
+        List<TournamentPairing.Board> boards = TournamentPairing.arena(waiting);
+
+        assertEquals(1, boards.size());
+        assertEquals(Set.of(1L, 3L), Set.of(boards.get(0).whiteId(), boards.get(0).blackId()));
+    }
+
+    private static TournamentPairing.Entrant entrant(long id, int points, int rating) {
+        return new TournamentPairing.Entrant(id, points, rating, 0, null, false, null);
+    }
+}
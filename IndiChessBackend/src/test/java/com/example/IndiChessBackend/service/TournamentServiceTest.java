@@ -0,0 +1,234 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.*;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.TournamentPlayerRepo;
+import com.example.IndiChessBackend.repo.TournamentRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TournamentService
+ */
+class TournamentServiceTest {
+
+    private static final long TOURNAMENT = 1L;
+
+    private final TournamentRepo tournamentRepo = mock(TournamentRepo.class);
+    private final TournamentPlayerRepo tournamentPlayerRepo = mock(TournamentPlayerRepo.class);
+    private final MatchRepo matchRepo = mock(MatchRepo.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    private final TournamentService tournamentService = new TournamentService(tournamentRepo, tournamentPlayerRepo,
+            matchRepo, mock(UserRepo.class), new LeaderboardService(null, null), messagingTemplate,
+            new TransactionTemplate(new InMemoryTransactionManager(events)));
+
+    // Points as the database holds them: only addPoints and recordBye change them
+    private final Map<Long, Integer> points = new ConcurrentHashMap<>();
+    private final List<User> users = new ArrayList<>();
+
+    @Test
+    void testGamesEndingTogetherKeepTheirPointsAndPairOnce() throws Exception {
+        Tournament tournament = swiss(4);
+        tournament.setCurrentRound(1);
+        Match first = roundOneGame(users.get(0), users.get(1), MatchStatus.PLAYER1_WON);
+        Match second = roundOneGame(users.get(2), users.get(3), MatchStatus.DRAW);
+
+        // Both games are already saved as finished when GameService reports them
+        when(matchRepo.countByTournamentIdAndTournamentRoundAndStatus(TOURNAMENT, 1, MatchStatus.IN_PROGRESS))
+                .thenReturn(0L);
+
+        ExecutorService games = Executors.newFixedThreadPool(2);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> reports = new ArrayList<>();
+        for (Match match : List.of(first, second)) {
+            reports.add(games.submit(() -> {
+                go.await();
+                tournamentService.onMatchFinished(match);
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> report : reports) {
+            report.get(10, TimeUnit.SECONDS);
+        }
+        games.shutdown();
+
+        assertEquals(Map.of(1L, 2, 2L, 0, 3L, 1, 4L, 1), points);
+        assertEquals(2, tournament.getCurrentRound());
+        verify(matchRepo, times(1)).saveAll(any());
+        // Pairing only writes colours; rows are never saved whole over the points
+        verify(tournamentPlayerRepo, times(2)).recordWhiteGame(anyLong(), anyLong());
+        verify(tournamentPlayerRepo, times(2)).recordBlackGame(anyLong(), anyLong());
+        verify(tournamentPlayerRepo, never()).save(any());
+        verify(tournamentPlayerRepo, never()).saveAll(any());
+        // Players hear about round 2 once its matches are committed
+        assertEquals(4, events.stream().filter("push"::equals).count());
+        assertTrue(events.indexOf("commit") < events.indexOf("push"));
+    }
+
+    @Test
+    void testByeIsScoredInPlace() {
+        Tournament tournament = swiss(3);
+        tournament.setStatus(TournamentStatus.CREATED);
+
+        tournamentService.start(TOURNAMENT, "organizer");
+
+        assertEquals(1, tournament.getCurrentRound());
+        assertEquals(2, points.values().stream().mapToInt(Integer::intValue).sum());
+        verify(tournamentPlayerRepo, times(1)).recordBye(anyLong(), eq(2));
+        verify(tournamentPlayerRepo, times(1)).recordWhiteGame(anyLong(), anyLong());
+        verify(tournamentPlayerRepo, times(1)).recordBlackGame(anyLong(), anyLong());
+        verify(tournamentPlayerRepo, never()).save(any());
+        verify(tournamentPlayerRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void testStalledGamesAreForfeitedAndTheNextRoundPaired() {
+        Tournament tournament = swiss(4);
+        tournament.setCurrentRound(1);
+        when(tournamentRepo.findByFormatAndStatus(TournamentFormat.SWISS, TournamentStatus.RUNNING))
+                .thenReturn(List.of(tournament));
+        // Black never answered 1. e4; in the other game nobody ever moved
+        Match abandoned = roundOneGame(users.get(0), users.get(1), MatchStatus.IN_PROGRESS);
+        abandoned.setId(1L);
+        abandoned.setCurrentPly(1);
+        Match noShow = roundOneGame(users.get(2), users.get(3), MatchStatus.IN_PROGRESS);
+        noShow.setId(2L);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30);
+        when(matchRepo.findStaleTournamentGames(TOURNAMENT, 1, cutoff)).thenReturn(List.of(abandoned, noShow));
+        when(matchRepo.finishIfInProgress(anyLong(), any(), any())).thenReturn(1);
+
+        tournamentService.forfeitStaleGames(cutoff);
+
+        assertEquals(MatchStatus.PLAYER1_WON, abandoned.getStatus());
+        assertEquals(MatchStatus.PLAYER2_WON, noShow.getStatus());
+        assertEquals(Map.of(1L, 2, 2L, 0, 3L, 0, 4L, 2), points);
+        assertEquals(2, tournament.getCurrentRound());
+        verify(matchRepo, times(1)).saveAll(any());
+    }
+
+    @Test
+    void testGameFinishedMeanwhileIsNotForfeited() {
+        Tournament tournament = swiss(2);
+        tournament.setCurrentRound(1);
+        when(tournamentRepo.findByFormatAndStatus(TournamentFormat.SWISS, TournamentStatus.RUNNING))
+                .thenReturn(List.of(tournament));
+        Match resigned = roundOneGame(users.get(0), users.get(1), MatchStatus.IN_PROGRESS);
+        resigned.setId(1L);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30);
+        when(matchRepo.findStaleTournamentGames(TOURNAMENT, 1, cutoff)).thenReturn(List.of(resigned));
+        // Its result was saved (and scored by onMatchFinished) after the stale games were read
+        when(matchRepo.finishIfInProgress(anyLong(), any(), any())).thenReturn(0);
+
+        tournamentService.forfeitStaleGames(cutoff);
+
+        assertEquals(MatchStatus.IN_PROGRESS, resigned.getStatus());
+        verify(tournamentPlayerRepo, never()).addPoints(anyLong(), anyLong(), anyInt());
+    }
+
+    private Tournament swiss(int players) {
+        Tournament tournament = new Tournament("Open", TournamentFormat.SWISS, GameType.BLITZ, "organizer");
+        tournament.setId(TOURNAMENT);
+        tournament.setStatus(TournamentStatus.RUNNING);
+        tournament.setTotalRounds(3);
+        when(tournamentRepo.findById(TOURNAMENT)).thenReturn(Optional.of(tournament));
+        when(tournamentRepo.save(any())).thenAnswer(call -> call.getArgument(0));
+
+        for (long id = 1; id <= players; id++) {
+            User user = new User();
+            user.setUserId(id);
+            user.setUsername("player" + id);
+            users.add(user);
+            points.put(id, 0);
+        }
+        // Every load reads the current points, like a fresh query would
+        when(tournamentPlayerRepo.findActiveWithUser(TOURNAMENT)).thenAnswer(call -> users.stream().map(user -> {
+            TournamentPlayer player = new TournamentPlayer(TOURNAMENT, user, 1500);
+            player.setId(10 + user.getUserId());
+            player.setPoints(points.get(user.getUserId()));
+            return player;
+        }).toList());
+        when(tournamentPlayerRepo.addPoints(eq(TOURNAMENT), anyLong(), anyInt())).thenAnswer(call -> {
+            assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+            points.merge(call.getArgument(1), call.<Integer>getArgument(2), Integer::sum);
+            return 1;
+        });
+        when(tournamentPlayerRepo.recordBye(anyLong(), anyInt())).thenAnswer(call -> {
+            points.merge(call.<Long>getArgument(0) - 10, call.<Integer>getArgument(1), Integer::sum);
+            return 1;
+        });
+
+        AtomicLong matchIds = new AtomicLong(100);
+        when(matchRepo.saveAll(any())).thenAnswer(call -> {
+            Iterable<Match> matches = call.getArgument(0);
+            matches.forEach(match -> match.setId(matchIds.incrementAndGet()));
+            return matches;
+        });
+        doAnswer(call -> events.add("push")).when(messagingTemplate)
+                .convertAndSendToUser(anyString(), anyString(), (Object) any());
+        return tournament;
+    }
+
+    private static Match roundOneGame(User white, User black, MatchStatus status) {
+        Match match = new Match(white, black, status, 0);
+        match.setTournamentId(TOURNAMENT);
+        match.setTournamentRound(1);
+        return match;
+    }
+
+    // Just enough of a transaction manager: nested templates join the outer transaction and
+    // synchronizations run on commit
+    private static final class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+        private final ThreadLocal<Boolean> active = ThreadLocal.withInitial(() -> false);
+        private final List<String> events;
+
+        InMemoryTransactionManager(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return active.get();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return (Boolean) transaction;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active.set(true);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            events.add("commit");
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active.set(false);
+        }
+    }
+}